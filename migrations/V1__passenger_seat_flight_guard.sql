@@ -0,0 +1,15 @@
+-- Record the flight on each booked seat so the database can reject double bookings.
+-- Existing rows take the flight from their reservation. If two reservations already
+-- share a seat on the same flight, the unique key will fail until one is reassigned.
+
+ALTER TABLE passenger_seat ADD COLUMN flight_id INTEGER NULL;
+
+UPDATE passenger_seat ps
+JOIN flightReservation fr ON ps.flightReservation_id = fr.id
+SET ps.flight_id = fr.flight_id;
+
+ALTER TABLE passenger_seat MODIFY flight_id INTEGER NOT NULL;
+
+ALTER TABLE passenger_seat ADD CONSTRAINT uq_passenger_seat_flight_seat UNIQUE (flight_id, seat_id);
+
+ALTER TABLE passenger_seat ADD CONSTRAINT fk_passenger_seat_flight FOREIGN KEY (flight_id) REFERENCES flight(id);
@@ -0,0 +1,36 @@
+-- Bound the columns the hot queries filter on and index them.
+--
+-- TEXT columns cannot be indexed without a prefix length, so every lookup by airport
+-- code, user email or schedule day scanned the table. Day and status columns become
+-- ENUMs matching the Java enums; values are upper-cased first because the sample data
+-- uses mixed case. A new enum constant needs a migration that extends its ENUM.
+
+-- Airport.findByCode and the airport joins in flight search
+ALTER TABLE airport MODIFY code VARCHAR(8) NOT NULL;
+ALTER TABLE airport MODIFY status VARCHAR(32);
+CREATE INDEX idx_airport_code ON airport (code);
+
+-- User.loadWithEmail on every login
+ALTER TABLE user MODIFY email VARCHAR(255) NOT NULL;
+CREATE INDEX idx_user_email ON user (email);
+
+-- Flight search: dep.code = ? AND arr.code = ? AND ws.dayOfWeek = ?
+UPDATE weeklySchedule SET dayOfWeek = UPPER(dayOfWeek);
+ALTER TABLE weeklySchedule MODIFY dayOfWeek
+    ENUM('SUNDAY', 'MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY') NOT NULL;
+CREATE INDEX idx_weekly_schedule_day ON weeklySchedule (dayOfWeek, departure_time);
+CREATE INDEX idx_flight_route ON flight (departure_airport_id, arrival_airport_id);
+CREATE INDEX idx_custom_schedule_flight_date ON customSchedule (flight_id, customDate);
+
+-- Reservation status, booking history paging and a user's reservations
+UPDATE flightReservation SET status = UPPER(status) WHERE status IS NOT NULL;
+ALTER TABLE flightReservation MODIFY status
+    ENUM('REQUESTED', 'PENDING', 'CONFIRMED', 'CHECKED_IN', 'CANCELED');
+CREATE INDEX idx_reservation_user ON flightReservation (user_id, id);
+CREATE INDEX idx_reservation_flight ON flightReservation (flight_id, status);
+
+UPDATE payment SET payment_state = UPPER(payment_state);
+ALTER TABLE payment MODIFY payment_state
+    ENUM('UNPAID', 'PENDING', 'COMPLETED', 'FAILED', 'DECLINED', 'REFUNDED') NOT NULL;
+
+-- Taken seats per flight are read from passenger_seat's (flight_id, seat_id) key added in V1
@@ -0,0 +1,17 @@
+-- One row per country name, so the admin screens can find or create a country with a
+-- single upsert (INSERT ... ON DUPLICATE KEY UPDATE) instead of select-then-insert,
+-- which created duplicates when two admins added the same country at once.
+--
+-- Airports on a duplicate country are moved to the oldest row with that name before
+-- the duplicates are removed.
+
+ALTER TABLE country MODIFY name VARCHAR(100) NOT NULL;
+
+UPDATE airport SET country_id = (
+    SELECT MIN(same.id) FROM country c JOIN country same ON same.name = c.name
+    WHERE c.id = airport.country_id);
+
+DELETE FROM country WHERE id NOT IN (
+    SELECT keep_id FROM (SELECT MIN(id) AS keep_id FROM country GROUP BY name) keep);
+
+CREATE UNIQUE INDEX uq_country_name ON country (name);
@@ -68,6 +68,7 @@ CREATE TABLE seat (
     id INTEGER PRIMARY KEY AUTO_INCREMENT,
     aircraft_id INTEGER NOT NULL,
     class TEXT NOT NULL,
+    seat_number TEXT,
     FOREIGN KEY (aircraft_id) REFERENCES aircraft(id)
 );
 
@@ -131,11 +132,11 @@ CREATE TABLE passenger (
 );
 
 -- Junction Table: flight_payment
-CREATE TABLE peservation_payment (
-    flightReservation_id INTEGER,
+CREATE TABLE flight_payment (
+    flight_id INTEGER,
     payment_id INTEGER,
     PRIMARY KEY (flight_id, payment_id),
-    FOREIGN KEY (flight_id) REFERENCES flightReservation(id),
+    FOREIGN KEY (flight_id) REFERENCES flight(id),
     FOREIGN KEY (payment_id) REFERENCES payment(id)
 );
 
@@ -144,8 +145,26 @@ CREATE TABLE passenger_seat (
     passenger_id INTEGER,
     seat_id INTEGER,
     flightReservation_id INTEGER NOT NULL,
+    flight_id INTEGER NOT NULL,
     PRIMARY KEY (passenger_id, seat_id),
+    -- A seat can only be booked once per flight
+    UNIQUE (flight_id, seat_id),
     FOREIGN KEY (passenger_id) REFERENCES passenger(id),
     FOREIGN KEY (seat_id) REFERENCES seat(id),
-    FOREIGN KEY (flightReservation_id) REFERENCES flightReservation(id)
-);
\ No newline at end of file
+    FOREIGN KEY (flightReservation_id) REFERENCES flightReservation(id),
+    FOREIGN KEY (flight_id) REFERENCES flight(id)
+);
+
+-- Table: schema_version
+-- Migrations applied to this database, see util.MigrationRunner
+CREATE TABLE schema_version (
+    version INTEGER PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    checksum BIGINT,
+    installed_on TIMESTAMP NOT NULL,
+    execution_ms BIGINT
+);
+
+-- This schema already includes migrations up to V1; the runner applies later ones
+INSERT INTO schema_version (version, description, checksum, installed_on, execution_ms) VALUES
+(1, 'passenger seat flight guard', NULL, CURRENT_TIMESTAMP, 0);
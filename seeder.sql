@@ -246,17 +246,17 @@ INSERT INTO flight_payment (flight_id, payment_id) VALUES
 
 -- Seed passenger_seat table
 -- Assign seats to passengers for reservations
-INSERT INTO passenger_seat (passenger_id, seat_id, flightReservation_id) VALUES
-(1, 4, 1),
-(2, 9, 2),
-(3, 12, 3),
-(4, 14, 4),
-(5, 16, 5),
-(6, 20, 6),
-(7, 3, 7),
-(8, 10, 8),
-(9, 18, 9),
-(10, 15, 10);
+INSERT INTO passenger_seat (passenger_id, seat_id, flightReservation_id, flight_id) VALUES
+(1, 4, 1, 1),
+(2, 9, 2, 2),
+(3, 12, 3, 3),
+(4, 14, 4, 4),
+(5, 16, 5, 5),
+(6, 20, 6, 6),
+(7, 3, 7, 7),
+(8, 10, 8, 8),
+(9, 18, 9, 9),
+(10, 15, 10, 10);
 
 -- Commit transaction
 COMMIT;
\ No newline at end of file
@@ -0,0 +1,77 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import util.NgramIndex;
+
+/**
+ * Measures the admin users search on the trigram index against a LIKE '%term%' style
+ * scan of every username and email, over users shaped like DataGenerator's
+ * ("mary123", "mary123@example.com"). Runs without a database.
+ *
+ * <ul>
+ * <li>search.ngram.&lt;term&gt;: NgramIndex.search with the dashboard's result limit</li>
+ * <li>search.scan.&lt;term&gt;: String.contains over every user, as the database does for LIKE</li>
+ * </ul>
+ *
+ * Harness settings are described in {@link Harness}.
+ *
+ * Usage: java bench.AdminSearchBenchmark [users]
+ */
+public class AdminSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "Ahmed", "Fatma", "Wei", "Yuki", "Carlos", "Ana", "Omar", "Sara",
+        "Liam", "Emma", "Noah", "Olivia", "Hiro", "Mei", "Ivan", "Elena", "Kofi", "Amara",
+        "Lucas", "Sofia", "Arjun", "Priya", "Mohamed", "Nour", "David", "Leah", "Mateo", "Isabel"
+    };
+
+    private static final int LIMIT = 1000;
+
+    // A digit run shared by a few users, a common name, short terms, and a term with no match;
+    // one single user's name is added at run time
+    private static final String[] TERMS = { "34567", "priya", "ah", "nobody", "zq" };
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> texts = new ArrayList<>(userCount);
+        for (int id = 1; id <= userCount; id++) {
+            String username = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].toLowerCase(Locale.ROOT) + id;
+            texts.add(username + "\n" + username + "@example.com");
+        }
+
+        long start = System.nanoTime();
+        NgramIndex index = new NgramIndex();
+        for (int i = 0; i < texts.size(); i++) {
+            index.add(i + 1, texts.get(i));
+        }
+        index.trim();
+        System.out.printf("Users: %d, trigrams: %d, ~%.0f MB, built in %d ms%n", index.size(), index.gramCount(),
+                index.estimatedBytes() / (1024.0 * 1024), (System.nanoTime() - start) / 1_000_000);
+
+        List<String> terms = new ArrayList<>(List.of(TERMS));
+        terms.add(0, texts.get(userCount / 2).substring(0, texts.get(userCount / 2).indexOf('\n')));
+        Harness harness = new Harness();
+        for (String term : terms) {
+            int matches = index.search(term, LIMIT).length;
+            System.out.println("Term '" + term + "': " + matches + " matches (limit " + LIMIT + ")");
+            harness.run("search.ngram." + term, () -> index.search(term, LIMIT));
+            harness.run("search.scan." + term, () -> {
+                int found = 0;
+                for (int i = 0; i < texts.size() && found < LIMIT; i++) {
+                    if (texts.get(i).contains(term)) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+        }
+
+        if (!harness.finish()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package bench;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import model.Aircraft;
+import model.Airline;
+import model.Airport;
+import model.AsyncDao;
+import model.Flight;
+import model.WeeklySchedule;
+
+/**
+ * Compares loading a flight card's related rows one after another with fanning them out
+ * through {@link AsyncDao} and joining.
+ *
+ * By default no database is needed: each load is simulated by sleeping for a fixed round
+ * trip time. With "db" as the first argument the real loaders are used for the given
+ * flight (the reference cache and identity map are left unbound, so these hit the cache
+ * after the first round; pass -Dreference.cache.ttlMs=0 to measure database round trips).
+ *
+ * Usage: java bench.AsyncFanOutBenchmark [roundTripMicros] [iterations] [maxConcurrency]
+ *        java bench.AsyncFanOutBenchmark db flightId [iterations]
+ */
+public class AsyncFanOutBenchmark {
+
+    private static final int WARMUP = 50;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("db")) {
+            runAgainstDatabase(Integer.parseInt(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 500);
+            return;
+        }
+        long roundTripMicros = args.length > 0 ? Long.parseLong(args[0]) : 2_000L;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int maxConcurrency = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        // Must be set before AsyncDao sizes its permits, so the pool is never opened
+        System.setProperty("async.dao.maxConcurrency", Integer.toString(maxConcurrency));
+
+        System.out.printf("Simulated loads: %d us round trip, 5 loads per card (airline after aircraft), %d permits%n",
+                roundTripMicros, maxConcurrency);
+        run("sequential", iterations, () -> {
+            for (int i = 0; i < 5; i++) {
+                simulate(roundTripMicros);
+            }
+        });
+        run("fan-out", iterations, () -> {
+            CompletableFuture<Object> dep = AsyncDao.supply(() -> simulate(roundTripMicros));
+            CompletableFuture<Object> arr = AsyncDao.supply(() -> simulate(roundTripMicros));
+            CompletableFuture<Object> schedule = AsyncDao.supply(() -> simulate(roundTripMicros));
+            CompletableFuture<Object> airline = AsyncDao.supply(() -> simulate(roundTripMicros))
+                    .thenCompose(aircraft -> AsyncDao.supply(() -> simulate(roundTripMicros)));
+            AsyncDao.await(CompletableFuture.allOf(dep, arr, schedule, airline));
+        });
+    }
+
+    private static void runAgainstDatabase(int flightId, int iterations) throws Exception {
+        Flight flight = Flight.load(flightId);
+        System.out.println("Database loads for flight " + flightId);
+        run("sequential", iterations, () -> {
+            Airport.load(flight.getDepartureAirportId());
+            Airport.load(flight.getArrivalAirportId());
+            WeeklySchedule.load(flight.getFlightScheduleId());
+            Aircraft aircraft = Aircraft.load(flight.getAircraftId());
+            Airline.load(aircraft.getAirlineId());
+        });
+        run("fan-out", iterations, () -> {
+            CompletableFuture<Airport> dep = AsyncDao.loadAirport(flight.getDepartureAirportId());
+            CompletableFuture<Airport> arr = AsyncDao.loadAirport(flight.getArrivalAirportId());
+            CompletableFuture<WeeklySchedule> schedule = AsyncDao.loadSchedule(flight.getFlightScheduleId());
+            CompletableFuture<Airline> airline = AsyncDao.loadAircraft(flight.getAircraftId())
+                    .thenCompose(aircraft -> AsyncDao.loadAirline(aircraft.getAirlineId()));
+            AsyncDao.await(CompletableFuture.allOf(dep, arr, schedule, airline));
+        });
+        System.exit(0);
+    }
+
+    @FunctionalInterface
+    private interface Card {
+        void load() throws SQLException;
+    }
+
+    private static void run(String name, int iterations, Card card) throws SQLException {
+        for (int i = 0; i < WARMUP; i++) {
+            card.load();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long t = System.nanoTime();
+            card.load();
+            samples[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-10s p50=%.2f ms p90=%.2f ms p99=%.2f ms max=%.2f ms%n", name,
+                percentile(samples, 0.50), percentile(samples, 0.90), percentile(samples, 0.99),
+                samples[samples.length - 1] / 1e6);
+    }
+
+    private static Object simulate(long micros) throws SQLException {
+        try {
+            Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        }
+        return null;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
@@ -0,0 +1,114 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import model.RouteGraph;
+
+/**
+ * Measures connection search latency for every origin/destination pair on a synthetic
+ * network. Runs without a database; the graph is built from generated edges.
+ *
+ * Usage: java bench.ConnectionSearchBenchmark [airports] [flightsPerAirport] [seed]
+ */
+public class ConnectionSearchBenchmark {
+
+    private static final int MAX_STOPS = 2;
+    private static final int RESULT_LIMIT = 5;
+
+    public static void main(String[] args) {
+        int airports = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int flightsPerAirport = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        List<RouteGraph.Edge> edges = generate(airports, flightsPerAirport, seed);
+        long buildStart = System.nanoTime();
+        RouteGraph graph = new RouteGraph(edges);
+        long buildNanos = System.nanoTime() - buildStart;
+        System.out.printf("Graph: %d airports, %d flights, built in %.1f ms%n",
+                graph.getAirportCount(), graph.getEdgeCount(), buildNanos / 1_000_000.0);
+
+        String[] codes = new String[airports];
+        for (int i = 0; i < airports; i++) {
+            codes[i] = code(i);
+        }
+
+        // Warm up on a slice of the origins so the JIT has compiled the search loop
+        for (int i = 0; i < Math.min(50, airports); i++) {
+            for (int j = 0; j < airports; j++) {
+                graph.findItineraries(codes[i], codes[j], null, MAX_STOPS, RESULT_LIMIT);
+            }
+        }
+
+        long[] samples = new long[airports * (airports - 1)];
+        int n = 0;
+        long found = 0;
+        long unreachable = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < airports; i++) {
+            for (int j = 0; j < airports; j++) {
+                if (i == j) {
+                    continue;
+                }
+                long t = System.nanoTime();
+                List<RouteGraph.Itinerary> results =
+                        graph.findItineraries(codes[i], codes[j], null, MAX_STOPS, RESULT_LIMIT);
+                samples[n++] = System.nanoTime() - t;
+                found += results.size();
+                if (results.isEmpty()) {
+                    unreachable++;
+                }
+            }
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        Arrays.sort(samples, 0, n);
+        System.out.printf("All pairs: %d searches in %.1f ms (%.0f searches/s), %d itineraries, %d pairs unreachable%n",
+                n, totalNanos / 1_000_000.0, n / (totalNanos / 1e9), found, unreachable);
+        System.out.printf("Latency: p50=%.1f us p90=%.1f us p99=%.1f us p99.9=%.1f us max=%.1f us%n",
+                percentile(samples, n, 0.50), percentile(samples, n, 0.90),
+                percentile(samples, n, 0.99), percentile(samples, n, 0.999),
+                samples[n - 1] / 1000.0);
+    }
+
+    /**
+     * Build a hub-and-spoke network: most flights go to a small set of hubs, which fly
+     * back out to those spokes, and the rest connect random airports. Departures are
+     * spread across the week.
+     */
+    static List<RouteGraph.Edge> generate(int airports, int flightsPerAirport, long seed) {
+        Random random = new Random(seed);
+        int hubs = Math.max(1, airports / 25);
+        List<RouteGraph.Edge> edges = new ArrayList<>(airports * flightsPerAirport);
+        int id = 1;
+        for (int from = 0; from < airports; from++) {
+            for (int k = 0; k < flightsPerAirport; k++) {
+                int to;
+                do {
+                    to = random.nextInt(10) < 7 ? random.nextInt(hubs) : random.nextInt(airports);
+                } while (to == from);
+                int duration = 45 + random.nextInt(12) * 30;
+                edges.add(new RouteGraph.Edge(id++, code(from), code(to), randomDeparture(random), duration));
+                if (to < hubs && from >= hubs) {
+                    // Hubs fly back out to the spokes that feed them
+                    edges.add(new RouteGraph.Edge(id++, code(to), code(from), randomDeparture(random), duration));
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static int randomDeparture(Random random) {
+        return random.nextInt(RouteGraph.MINUTES_PER_WEEK / 5) * 5;
+    }
+
+    private static String code(int index) {
+        return String.format("A%03d", index);
+    }
+
+    private static double percentile(long[] sorted, int n, double p) {
+        int index = (int) Math.ceil(p * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, index))] / 1000.0;
+    }
+}
@@ -0,0 +1,209 @@
+package bench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Small benchmark runner for the bench classes: timed warmup, then a timed measurement
+ * that records every call's latency, throughput, allocation per call and GC activity.
+ *
+ * Results can be saved as a baseline and later runs checked against it, so a build step
+ * can fail when a hot path gets slower or allocates more.
+ *
+ * Settings:
+ * <pre>
+ * -Dbench.warmupMs=2000         warmup time per benchmark
+ * -Dbench.measureMs=5000        measurement time per benchmark
+ * -Dbench.filter=search         only run benchmarks whose name contains this
+ * -Dbench.saveBaseline=file     write the results to a properties file
+ * -Dbench.baseline=file         compare with a saved baseline and exit 1 on regression
+ * -Dbench.maxRegression=0.10    allowed throughput drop and allocation growth
+ * </pre>
+ */
+public class Harness {
+
+    private static final long WARMUP_MS = Long.getLong("bench.warmupMs", 2_000L);
+    private static final long MEASURE_MS = Long.getLong("bench.measureMs", 5_000L);
+    private static final String FILTER = System.getProperty("bench.filter");
+    private static final double MAX_REGRESSION =
+            Double.parseDouble(System.getProperty("bench.maxRegression", "0.10"));
+
+    // Allocation below this many bytes per call is noise from the measuring itself
+    private static final double ALLOCATION_FLOOR = 64;
+
+    /** The code under test. Return whatever it computes so the JIT cannot drop the call. */
+    @FunctionalInterface
+    public interface Op {
+        Object run() throws Exception;
+    }
+
+    /** The outcome of one benchmark. */
+    public static class Result {
+        final String name;
+        final long ops;
+        final double opsPerSecond;
+        final LatencyHistogram latency;
+        final double bytesPerOp;
+        final long gcCount;
+        final long gcMillis;
+
+        Result(String name, long ops, double opsPerSecond, LatencyHistogram latency,
+               double bytesPerOp, long gcCount, long gcMillis) {
+            this.name = name;
+            this.ops = ops;
+            this.opsPerSecond = opsPerSecond;
+            this.latency = latency;
+            this.bytesPerOp = bytesPerOp;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%-28s %10.1f ops/s  p50=%s p90=%s p99=%s p99.9=%s max=%s  %,.0f B/op  gc=%d (%d ms)",
+                    name, opsPerSecond, format(latency.getPercentile(0.50)), format(latency.getPercentile(0.90)),
+                    format(latency.getPercentile(0.99)), format(latency.getPercentile(0.999)),
+                    format(latency.getMax()), bytesPerOp, gcCount, gcMillis);
+        }
+    }
+
+    private final List<Result> results = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are written here so the calls under test cannot be eliminated as dead code
+    private volatile Object sink;
+
+    /**
+     * Warm up and measure one benchmark on the calling thread, unless the filter excludes it
+     * @param name Benchmark name, used in the report and the baseline
+     * @param op The code under test
+     * @return The result, or null if the filter excluded the benchmark
+     * @throws Exception if the code under test fails
+     */
+    public Result run(String name, Op op) throws Exception {
+        if (FILTER != null && !name.contains(FILTER)) {
+            return null;
+        }
+        long warmupEnd = System.nanoTime() + WARMUP_MS * 1_000_000;
+        while (System.nanoTime() < warmupEnd) {
+            sink = op.run();
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long threadId = Thread.currentThread().threadId();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long end = start + MEASURE_MS * 1_000_000;
+        long ops = 0;
+        long now = start;
+        while (now < end) {
+            sink = op.run();
+            long after = System.nanoTime();
+            latency.record(after - now);
+            now = after;
+            ops++;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result(name, ops, ops / ((now - start) / 1e9), latency, (double) allocated / ops,
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Write the results as a baseline and/or compare them with one, as set by the system properties
+     * @return true if no benchmark regressed beyond the allowed margin
+     * @throws IOException if a baseline file cannot be read or written
+     */
+    public boolean finish() throws IOException {
+        String save = System.getProperty("bench.saveBaseline");
+        if (save != null) {
+            Properties props = new Properties();
+            for (Result r : results) {
+                props.setProperty(r.name + ".opsPerSecond", Double.toString(r.opsPerSecond));
+                props.setProperty(r.name + ".p99Nanos", Long.toString(r.latency.getPercentile(0.99)));
+                props.setProperty(r.name + ".bytesPerOp", Double.toString(r.bytesPerOp));
+            }
+            try (Writer out = Files.newBufferedWriter(Paths.get(save))) {
+                props.store(out, "Benchmark baseline");
+            }
+            System.out.println("Saved baseline to " + save);
+        }
+
+        String baseline = System.getProperty("bench.baseline");
+        if (baseline == null) {
+            return true;
+        }
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(Path.of(baseline))) {
+            props.load(in);
+        }
+        boolean ok = true;
+        for (Result r : results) {
+            String ops = props.getProperty(r.name + ".opsPerSecond");
+            String bytes = props.getProperty(r.name + ".bytesPerOp");
+            if (ops == null) {
+                System.out.println("NEW        " + r.name + " (not in baseline)");
+                continue;
+            }
+            double opsChange = r.opsPerSecond / Double.parseDouble(ops) - 1;
+            double baseBytes = bytes != null ? Double.parseDouble(bytes) : 0;
+            double bytesChange = Math.max(r.bytesPerOp, ALLOCATION_FLOOR) / Math.max(baseBytes, ALLOCATION_FLOOR) - 1;
+            boolean regressed = opsChange < -MAX_REGRESSION || bytesChange > MAX_REGRESSION;
+            ok &= !regressed;
+            System.out.printf(Locale.ROOT, "%-10s %-28s throughput %+.1f%%, allocation %+.1f%%%n",
+                    regressed ? "REGRESSED" : "OK", r.name, opsChange * 100, bytesChange * 100);
+        }
+        return ok;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static String format(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,298 @@
+package bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import model.*;
+import service.BookingService;
+import service.SearchService;
+import util.DbConnection;
+
+/**
+ * Simulates concurrent customers booking flights: search, pick free seats, hold them,
+ * then book and pay. Each step's latency goes into its own histogram, and seat
+ * conflicts, sold-out flights and failures are counted. A summary is printed and
+ * written to a report file, for sizing the connection pool and checking concurrency
+ * fixes under load.
+ *
+ * Closed loop: a fixed number of users each run sessions back to back, with optional
+ * think time. Open loop: sessions start at a fixed rate whether or not earlier ones
+ * have finished. Session latency is then measured from the scheduled start, so queueing
+ * is not hidden when the system falls behind.
+ *
+ * Bookings go through BookingService, the path the Swing client and the HTTP API use.
+ * The database is written to, so run it against a copy loaded with util.DataGenerator,
+ * or an embedded one with -Ddb.profile=h2 -Ddb.seed=generated.
+ *
+ * Settings:
+ * <pre>
+ * -Dload.durationSec=60     how long to generate load
+ * -Dload.users=50           concurrent users (closed loop)
+ * -Dload.rate=20            sessions started per second (open loop)
+ * -Dload.thinkMs=0          pause between steps (closed loop)
+ * -Dload.flights=50         flights to book on; fewer means more seat conflicts
+ * -Dload.report=load-report.txt
+ * </pre>
+ *
+ * Usage: java bench.LoadGenerator closed|open
+ */
+public class LoadGenerator {
+
+    private static final long DURATION_SEC = Long.getLong("load.durationSec", 60L);
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "20"));
+    private static final long THINK_MS = Long.getLong("load.thinkMs", 0L);
+    private static final int FLIGHTS = Integer.getInteger("load.flights", 50);
+    private static final String REPORT = System.getProperty("load.report", "load-report.txt");
+
+    private static final String[] STEPS = {"search", "seats", "hold", "book", "session"};
+
+    private final List<Flight> flights;
+    private final List<String[]> routes = new ArrayList<>();
+    private final List<LocalDate> dates = new ArrayList<>();
+    private final List<Integer> userIds;
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STEPS.length];
+    private final AtomicLong sessions = new AtomicLong();
+    private final AtomicLong bookings = new AtomicLong();
+    private final AtomicLong seatsBooked = new AtomicLong();
+    private final AtomicLong holdConflicts = new AtomicLong();
+    private final AtomicLong bookConflicts = new AtomicLong();
+    private final AtomicLong soldOut = new AtomicLong();
+    private final AtomicLong noResults = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Map<String, Long> failureMessages = new TreeMap<>();
+
+    private LoadGenerator(List<Flight> flights, List<Integer> userIds) {
+        this.flights = flights;
+        this.userIds = userIds;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        for (Flight flight : flights) {
+            routes.add(new String[] {flight.getDepartureAirport().getCode(), flight.getArrivalAirport().getCode()});
+            dates.add(LocalDate.now().with(TemporalAdjusters.next(
+                    java.time.DayOfWeek.valueOf(flight.getSchedule().getDayOfWeek().name()))));
+        }
+    }
+
+    /**
+     * One customer's booking attempt
+     * @param scheduledNanos When the session should have started; earlier than now if the open loop fell behind
+     */
+    private void session(long scheduledNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String sessionId = "load-" + Thread.currentThread().threadId() + "-" + sessions.incrementAndGet();
+        int pick = random.nextInt(flights.size());
+        Flight flight = flights.get(pick);
+        try {
+            long t = System.nanoTime();
+            List<Flight> results = SearchService.searchFlights(routes.get(pick)[0], routes.get(pick)[1], dates.get(pick));
+            record(0, t);
+            if (results.isEmpty()) {
+                noResults.incrementAndGet();
+                return;
+            }
+            think();
+
+            t = System.nanoTime();
+            List<Seat> free = SearchService.getAvailableSeats(flight, flight.getAircraft());
+            record(1, t);
+            int party = random.nextInt(100) < 70 ? 1 : 2;
+            if (free.size() < party) {
+                soldOut.incrementAndGet();
+                return;
+            }
+            think();
+
+            t = System.nanoTime();
+            List<Seat> seats = new ArrayList<>(party);
+            while (seats.size() < party) {
+                Seat seat = free.get(random.nextInt(free.size()));
+                if (seats.contains(seat)) {
+                    continue;
+                }
+                if (!BookingService.holdSeat(flight.getId(), seat.getId(), sessionId)) {
+                    record(2, t);
+                    holdConflicts.incrementAndGet();
+                    return;
+                }
+                seats.add(seat);
+            }
+            record(2, t);
+            think();
+
+            List<Passenger> passengers = new ArrayList<>(party);
+            for (int i = 0; i < party; i++) {
+                passengers.add(new Passenger("Load Test " + i, "L" + random.nextInt(10_000_000, 100_000_000)));
+            }
+            BookingService.Quote quote = BookingService.quote(seats.get(0).getSeatClass(), party);
+            Payment payment = new Payment(quote.getTotal(), PaymentMethod.CREDIT_CARD,
+                    new java.sql.Date(System.currentTimeMillis()));
+            t = System.nanoTime();
+            try {
+                BookingService.book(userIds.get(random.nextInt(userIds.size())), flight.getId(), passengers, seats,
+                        payment, sessionId);
+                record(3, t);
+                bookings.incrementAndGet();
+                seatsBooked.addAndGet(party);
+            } catch (SeatUnavailableException e) {
+                record(3, t);
+                bookConflicts.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            synchronized (failureMessages) {
+                failureMessages.merge(e.getClass().getSimpleName() + ": " + e.getMessage(), 1L, Long::sum);
+            }
+        } finally {
+            BookingService.releaseAll(sessionId);
+            record(4, scheduledNanos);
+        }
+    }
+
+    private void record(int step, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        synchronized (histograms[step]) {
+            histograms[step].record(nanos);
+        }
+    }
+
+    private static void think() {
+        if (THINK_MS > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(THINK_MS));
+        }
+    }
+
+    private void runClosed(ExecutorService executor, long endNanos) throws InterruptedException {
+        for (int u = 0; u < USERS; u++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < endNanos) {
+                    session(System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private void runOpen(ExecutorService executor, long endNanos) {
+        long interval = (long) (1e9 / RATE);
+        long next = System.nanoTime();
+        while (next < endNanos) {
+            long scheduled = next;
+            executor.execute(() -> session(scheduled));
+            next += interval;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    private void report(String mode, double seconds) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Load test %s, %s loop, %.1f s%n", LocalDateTime.now(), mode, seconds));
+        sb.append(mode.equals("closed")
+                ? String.format(Locale.ROOT, "Users: %d, think time %d ms%n", USERS, THINK_MS)
+                : String.format(Locale.ROOT, "Arrival rate: %.1f sessions/s%n", RATE));
+        sb.append(String.format(Locale.ROOT, "Flights: %d, customers: %d, pool size: %d%n%n",
+                flights.size(), userIds.size(), DbConnection.getPoolSize()));
+
+        sb.append(String.format(Locale.ROOT, "Sessions:        %,d (%.1f/s)%n", sessions.get(), sessions.get() / seconds));
+        sb.append(String.format(Locale.ROOT, "Bookings:        %,d (%.1f/s), %,d seats%n",
+                bookings.get(), bookings.get() / seconds, seatsBooked.get()));
+        sb.append(String.format(Locale.ROOT, "Hold conflicts:  %,d%n", holdConflicts.get()));
+        sb.append(String.format(Locale.ROOT, "Book conflicts:  %,d%n", bookConflicts.get()));
+        sb.append(String.format(Locale.ROOT, "Sold out:        %,d%n", soldOut.get()));
+        sb.append(String.format(Locale.ROOT, "No results:      %,d%n", noResults.get()));
+        sb.append(String.format(Locale.ROOT, "Failures:        %,d%n%n", failures.get()));
+
+        sb.append(String.format(Locale.ROOT, "%-8s %10s %10s %10s %10s %10s %10s%n",
+                "step", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (int i = 0; i < STEPS.length; i++) {
+            LatencyHistogram h = histograms[i];
+            sb.append(String.format(Locale.ROOT, "%-8s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n", STEPS[i], h.getCount(),
+                    h.getPercentile(0.50) / 1e6, h.getPercentile(0.90) / 1e6, h.getPercentile(0.99) / 1e6,
+                    h.getPercentile(0.999) / 1e6, h.getMax() / 1e6));
+        }
+
+        sb.append(String.format("%nPool: %s%n", DbConnection.getPoolStats()));
+        sb.append(String.format("Seat holds: %s%n", SeatHoldService.getStats()));
+        if (!failureMessages.isEmpty()) {
+            sb.append(String.format("%nFailures by message:%n"));
+            for (Map.Entry<String, Long> e : failureMessages.entrySet()) {
+                sb.append(String.format("%8d  %s%n", e.getValue(), e.getKey()));
+            }
+        }
+
+        System.out.print(sb);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(REPORT)))) {
+            out.print(sb);
+        }
+        System.out.println("Report written to " + REPORT);
+    }
+
+    private static List<Integer> ids(String sql, int limit) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "closed";
+        if (!mode.equals("closed") && !mode.equals("open")) {
+            System.err.println("Usage: java bench.LoadGenerator closed|open");
+            System.exit(2);
+        }
+
+        try {
+            List<Flight> flights = new ArrayList<>();
+            for (int id : ids("SELECT id FROM flight ORDER BY id LIMIT ?", FLIGHTS)) {
+                flights.add(Flight.load(id));
+            }
+            List<Integer> userIds = ids("SELECT id FROM user ORDER BY id LIMIT ?", 10_000);
+            if (flights.isEmpty() || userIds.isEmpty()) {
+                throw new IllegalStateException("No flights or users found; load data with util.DataGenerator first");
+            }
+            ReferenceData.warmUp();
+            LoadGenerator generator = new LoadGenerator(flights, userIds);
+
+            System.out.println("Generating " + mode + " loop load for " + DURATION_SEC + " s");
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(DURATION_SEC);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                if (mode.equals("closed")) {
+                    generator.runClosed(executor, end);
+                } else {
+                    generator.runOpen(executor, end);
+                }
+            }
+            generator.report(mode, (System.nanoTime() - start) / 1e9);
+        } finally {
+            DbConnection.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package bench;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import model.*;
+import service.SearchService;
+import util.DbConnection;
+import util.SecurityUtil;
+
+/**
+ * Benchmarks the model hot paths: flight search, seat availability, a reservation's
+ * passenger seat map, a user's reservations, and password hashing and verification.
+ *
+ * The database benchmarks read whatever DbConnection points at, so load it with
+ * util.DataGenerator first, or run with -Ddb.profile=h2 -Ddb.seed=generated to build an
+ * embedded copy at startup. Sample flights, reservations and users are picked from it.
+ * With "nodb" only the password benchmarks run.
+ *
+ * Harness settings (warmup, duration, filter, baseline gating) are described in
+ * {@link Harness}. Exits with status 1 when a baseline is given and a benchmark regressed.
+ *
+ * Usage: java bench.ModelBenchmark [nodb] [samples]
+ */
+public class ModelBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    public static void main(String[] args) throws Exception {
+        boolean database = !(args.length > 0 && args[0].equals("nodb"));
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Harness harness = new Harness();
+
+        try {
+            if (database) {
+                runDatabaseBenchmarks(harness, samples);
+            }
+            runSecurityBenchmarks(harness);
+        } finally {
+            if (database) {
+                DbConnection.closeConnection();
+            }
+        }
+
+        if (!harness.finish()) {
+            System.exit(1);
+        }
+    }
+
+    private static void runDatabaseBenchmarks(Harness harness, int samples) throws Exception {
+        List<Flight> flights = new ArrayList<>();
+        for (int id : ids("SELECT id FROM flight ORDER BY id LIMIT ?", samples)) {
+            flights.add(Flight.load(id));
+        }
+        List<Integer> reservations = ids("SELECT id FROM flightReservation ORDER BY id LIMIT ?", samples);
+        List<Integer> users = ids("SELECT DISTINCT user_id FROM flightReservation ORDER BY user_id LIMIT ?", samples);
+        if (flights.isEmpty() || reservations.isEmpty() || users.isEmpty()) {
+            throw new IllegalStateException("No flights or reservations found; load data with util.DataGenerator first");
+        }
+        System.out.printf("Samples: %d flights, %d reservations, %d users%n",
+                flights.size(), reservations.size(), users.size());
+
+        // Search each sample flight's own route on the next date its schedule runs
+        int n = flights.size();
+        String[] from = new String[n];
+        String[] to = new String[n];
+        LocalDate[] dates = new LocalDate[n];
+        for (int i = 0; i < n; i++) {
+            Flight flight = flights.get(i);
+            from[i] = flight.getDepartureAirport().getCode();
+            to[i] = flight.getArrivalAirport().getCode();
+            dates[i] = LocalDate.now().with(TemporalAdjusters.nextOrSame(
+                    java.time.DayOfWeek.valueOf(flight.getSchedule().getDayOfWeek().name())));
+        }
+
+        Cursor cursor = new Cursor();
+        Flight.SearchMode mode = Flight.getSearchMode();
+        try {
+            for (Flight.SearchMode m : new Flight.SearchMode[] {Flight.SearchMode.INDEXED, Flight.SearchMode.JOINED}) {
+                Flight.setSearchMode(m);
+                harness.run("flight.search." + m.name().toLowerCase(), () -> {
+                    int i = cursor.next(n);
+                    return SearchService.searchFlights(from[i], to[i], dates[i]);
+                });
+            }
+        } finally {
+            Flight.setSearchMode(mode);
+        }
+
+        // What SeatSelectionPanel computes when it opens, cached and after the inventory expired
+        harness.run("seats.available", () -> {
+            Flight flight = flights.get(cursor.next(n));
+            return SearchService.getAvailableSeats(flight, flight.getAircraft());
+        });
+        harness.run("seats.available.cold", () -> {
+            Flight flight = flights.get(cursor.next(n));
+            SeatInventory.invalidate(flight.getId());
+            return SearchService.getAvailableSeats(flight, flight.getAircraft());
+        });
+
+        // Both getters cache on the instance, so each call starts from a freshly loaded one
+        harness.run("reservation.passengerSeatMap", () ->
+                FlightReservation.load(reservations.get(cursor.next(reservations.size()))).getPassengerSeatMap());
+        harness.run("user.reservations", () ->
+                User.loadWithId(users.get(cursor.next(users.size()))).getReservations());
+    }
+
+    private static void runSecurityBenchmarks(Harness harness) throws Exception {
+        String salt = SecurityUtil.generateSalt();
+        String stored = SecurityUtil.generateSecurePassword(PASSWORD);
+        harness.run("security.hashPassword", () -> SecurityUtil.hashPassword(PASSWORD, salt));
+        harness.run("security.verifySecurePassword", () -> SecurityUtil.verifySecurePassword(PASSWORD, stored));
+    }
+
+    private static List<Integer> ids(String sql, int limit) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /** Round-robin position over the samples, shared by the benchmarks. */
+    private static class Cursor {
+        private int position;
+
+        int next(int size) {
+            position = (position + 1) % size;
+            return position;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package bench;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+import util.ConnectionPool;
+import util.QueryRecorder;
+import util.QueryStats;
+
+/**
+ * Measures what the per-query timing in {@link QueryRecorder} costs, by running the same
+ * borrow / prepare / execute / read / close cycle through a pool with and without it.
+ *
+ * The connections are in-memory stubs that return a fixed result without any I/O, so the
+ * difference between the two runs is the whole instrumentation cost per query, and every
+ * real query (a network round trip, or at least a parse and plan in H2) costs far more
+ * than the stub. No database is needed.
+ *
+ * Harness settings are described in {@link Harness}.
+ *
+ * Usage: java bench.QueryStatsBenchmark [rowsPerQuery]
+ */
+public class QueryStatsBenchmark {
+
+    private static final String QUERY = "SELECT id, code FROM airport WHERE country_id = ?";
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Harness harness = new Harness();
+        QueryRecorder recorder = new QueryRecorder(0, System.err);
+        ConnectionPool plain = pool(rows, null);
+        ConnectionPool timed = pool(rows, recorder);
+
+        try {
+            Harness.Result base = harness.run("query.prepared.untimed", () -> preparedQuery(plain));
+            Harness.Result with = harness.run("query.prepared.timed", () -> preparedQuery(timed));
+            report("prepared", base, with);
+
+            int[] next = { 0 };
+            base = harness.run("query.literal.untimed", () -> literalQuery(plain, next[0]++ & 63));
+            with = harness.run("query.literal.timed", () -> literalQuery(timed, next[0]++ & 63));
+            report("literal", base, with);
+        } finally {
+            plain.shutdown();
+            timed.shutdown();
+        }
+
+        System.out.println("Recorded shapes:");
+        for (QueryStats stats : recorder.snapshot()) {
+            System.out.println("  " + stats);
+        }
+        if (!harness.finish()) {
+            System.exit(1);
+        }
+    }
+
+    private static long preparedQuery(ConnectionPool pool) throws Exception {
+        long sum = 0;
+        try (Connection conn = pool.borrow();
+             PreparedStatement stmt = conn.prepareStatement(QUERY)) {
+            stmt.setInt(1, 7);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sum += rs.getInt("id") + rs.getString("code").length();
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long literalQuery(ConnectionPool pool, int countryId) throws Exception {
+        long sum = 0;
+        try (Connection conn = pool.borrow();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, code FROM airport WHERE country_id = " + countryId)) {
+            while (rs.next()) {
+                sum += rs.getInt("id") + rs.getString("code").length();
+            }
+        }
+        return sum;
+    }
+
+    private static void report(String name, Harness.Result base, Harness.Result with) {
+        if (base == null || with == null) {
+            return;
+        }
+        double overheadNanos = 1e9 / with.getOpsPerSecond() - 1e9 / base.getOpsPerSecond();
+        System.out.printf(Locale.ROOT, "Timing overhead (%s): %.0f ns and %.0f bytes per query%n",
+                name, overheadNanos, with.getBytesPerOp() - base.getBytesPerOp());
+    }
+
+    private static ConnectionPool pool(int rows, QueryRecorder recorder) {
+        return new ConnectionPool(() -> stubConnection(rows), 1, 1, 1_000, 60_000, 3_600_000, 0, 64, recorder);
+    }
+
+    // In-memory JDBC stubs: every call returns a fixed value without doing any work
+
+    private static Connection stubConnection(int rows) {
+        return stub(Connection.class, (name, args) -> {
+            switch (name) {
+                case "prepareStatement":
+                case "createStatement":
+                    return stubStatement(rows);
+                case "isValid":
+                case "getAutoCommit":
+                    return true;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static PreparedStatement stubStatement(int rows) {
+        return stub(PreparedStatement.class, (name, args) ->
+                name.equals("executeQuery") ? stubResultSet(rows) : null);
+    }
+
+    private static ResultSet stubResultSet(int rows) {
+        int[] position = { 0 };
+        return stub(ResultSet.class, (name, args) -> {
+            switch (name) {
+                case "next":
+                    return position[0]++ < rows;
+                case "getInt":
+                    return position[0];
+                case "getString":
+                    return "JFK";
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private interface StubBehaviour {
+        Object answer(String method, Object[] args);
+    }
+
+    private static <T> T stub(Class<T> type, StubBehaviour behaviour) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Object value = behaviour.answer(method.getName(), args);
+            if (value != null || !method.getReturnType().isPrimitive()) {
+                return value;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == int.class) {
+                return 0;
+            } else if (returnType == long.class) {
+                return 0L;
+            }
+            return null;
+        }));
+    }
+}
@@ -0,0 +1,124 @@
+package bench;
+
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Insets;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JPanel;
+import javax.swing.JToggleButton;
+import model.Seat;
+import model.SeatClass;
+import util.Log;
+
+/**
+ * Measures rebuilding a seat map the way SeatSelectionPanel.createSeatMap does, with the
+ * per-seat debug output it used to print synchronously and with {@link Log}.
+ *
+ * <ul>
+ * <li>seatmap.println: the old code, two console lines per seat written on the calling thread</li>
+ * <li>seatmap.log.off: debug logging through Log at the default level, i.e. disabled</li>
+ * <li>seatmap.log.trace: per-seat trace events enabled, queued to Log's writer thread</li>
+ * </ul>
+ *
+ * Console output goes to a temporary file (or -Dbench.console) so the report stays
+ * readable. A terminal is slower than a file, so the println numbers are a lower bound.
+ * Runs headless; no database is needed.
+ *
+ * Harness settings are described in {@link Harness}.
+ *
+ * Usage: java bench.SeatMapBenchmark [seats]
+ */
+public class SeatMapBenchmark {
+
+    private static final SeatClass[] CLASSES = SeatClass.values();
+
+    public static void main(String[] args) throws Exception {
+        int seatCount = args.length > 0 ? Integer.parseInt(args[0]) : 350;
+        System.setProperty("java.awt.headless", "true");
+        String consoleFile = System.getProperty("bench.console");
+        Path console = consoleFile != null ? Path.of(consoleFile) : Files.createTempFile("seatmap-console", ".log");
+        if (consoleFile == null) {
+            console.toFile().deleteOnExit();
+        }
+        // Must be set before Log is first used
+        System.setProperty("log.file", console.toString());
+        System.out.println("Seats: " + seatCount + ", console output in " + console);
+
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < seatCount; i++) {
+            Seat seat = new Seat(CLASSES[i % CLASSES.length], (i / 9 + 1) + String.valueOf((char) ('A' + i % 9)));
+            seat.setId(i + 1);
+            seats.add(seat);
+        }
+        JPanel panel = new JPanel();
+        Log log = Log.get(SeatMapBenchmark.class);
+        Harness harness = new Harness();
+
+        try (PrintStream out = new PrintStream(new FileOutputStream(console.toFile(), true), false, StandardCharsets.UTF_8)) {
+            harness.run("seatmap.println", () -> {
+                out.println("DEBUG: Creating seat map with available seats:");
+                for (Seat seat : seats) {
+                    out.println("Available seat ID: " + seat.getId() + ", Number: " + seat.getSeatNumber()
+                            + ", Class: " + seat.getSeatClass());
+                }
+                out.flush();
+                return build(panel, seats, s -> {
+                    out.println("DEBUG: Creating button for available seat: " + s.getSeatNumber());
+                    out.flush();
+                });
+            });
+        }
+
+        harness.run("seatmap.log.off", () -> {
+            boolean trace = log.isTraceEnabled();
+            int buttons = build(panel, seats, s -> {
+                if (trace) {
+                    log.trace("Seat button", "id", s.getId(), "number", s.getSeatNumber(), "class", s.getSeatClass());
+                }
+            });
+            log.debug("Seat map built", "seats", buttons);
+            return buttons;
+        });
+
+        log.setLevel(Log.Level.TRACE);
+        harness.run("seatmap.log.trace", () -> {
+            int buttons = build(panel, seats, s ->
+                    log.trace("Seat button", "id", s.getId(), "number", s.getSeatNumber(), "class", s.getSeatClass()));
+            log.debug("Seat map built", "seats", buttons);
+            return buttons;
+        });
+        Log.flush();
+        System.out.println("Log events written: " + Log.getWrittenCount() + ", dropped: " + Log.getDroppedCount());
+
+        if (!harness.finish()) {
+            System.exit(1);
+        }
+    }
+
+    private interface SeatHook {
+        void accept(Seat seat);
+    }
+
+    // Mirrors SeatSelectionPanel.createSeatMap
+    private static int build(JPanel panel, List<Seat> seats, SeatHook hook) {
+        panel.removeAll();
+        panel.setLayout(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        for (Seat seat : seats) {
+            hook.accept(seat);
+            JToggleButton button = new JToggleButton(seat.getSeatNumber());
+            button.setFont(new Font("Arial", Font.PLAIN, 12));
+            button.setMargin(new Insets(2, 2, 2, 2));
+            button.setPreferredSize(new Dimension(50, 40));
+            panel.add(button);
+        }
+        panel.revalidate();
+        return panel.getComponentCount();
+    }
+}
@@ -0,0 +1,276 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import util.DbConnection;
+import util.Log;
+import util.NgramIndex;
+
+/**
+ * Substring search for the admin users and flights grids, answered from trigram indexes
+ * held in memory instead of LIKE '%...%' scans over the tables.
+ *
+ * Users are indexed by username and email; flights by the departure and arrival airport
+ * codes and names and the aircraft model. Each index is loaded on its first search and
+ * rebuilt when older than -Dadmin.search.refreshMs (default 10 minutes). Users saved
+ * through {@link User#save} are added in place. Users changed through {@link User#update}
+ * are removed from the index and searched in a small side map until the next rebuild
+ * reads their new values. Flights are rebuilt on the next search after
+ * {@link #invalidateFlights()}, since a flight's text depends on other tables.
+ */
+public class AdminSearchIndex {
+
+    private static final Log LOG = Log.get(AdminSearchIndex.class);
+
+    private static final long REFRESH_INTERVAL_MS = Long.getLong("admin.search.refreshMs", 600_000L);
+    // Users are read in id order in batches of this size while the index is built
+    private static final int LOAD_BATCH = 50_000;
+
+    // Fields are joined with a newline, which a search term never contains
+    private static final String SEPARATOR = "\n";
+
+    private static final String USERS_SQL =
+            "SELECT id, username, email FROM user WHERE id > ? ORDER BY id LIMIT " + LOAD_BATCH;
+
+    private static final String FLIGHTS_SQL = """
+            SELECT f.id, dep.code AS dep_code, dep.name AS dep_name, arr.code AS arr_code,
+                   arr.name AS arr_name, a.model
+            FROM flight f
+            JOIN airport dep ON f.departure_airport_id = dep.id
+            JOIN airport arr ON f.arrival_airport_id = arr.id
+            JOIN aircraft a ON f.aircraft_id = a.id
+            ORDER BY f.id
+            """;
+
+    private record Loaded(NgramIndex index, long builtAt, long generation) {}
+
+    /**
+     * New text of a changed user; sequence orders it against rebuilds
+     */
+    private record Changed(String text, long sequence) {}
+
+    private static volatile Loaded users;
+    private static volatile Loaded flights;
+
+    // Users changed since the rebuild that produced the users index began, by id
+    private static final Map<Integer, Changed> changedUsers = new ConcurrentHashMap<>();
+    private static final AtomicLong changeSequence = new AtomicLong();
+
+    // Bumped by invalidateFlights, so a rebuild that overlaps it is not kept
+    private static final AtomicLong flightsGeneration = new AtomicLong();
+
+    // Statistics
+    private static final AtomicLong searchCount = new AtomicLong();
+    private static final AtomicLong searchNanos = new AtomicLong();
+    private static final AtomicLong buildCount = new AtomicLong();
+
+    private AdminSearchIndex() {
+    }
+
+    /**
+     * Find users whose username or email contains a term
+     * @param term The text to look for; case-insensitive
+     * @param limit Maximum number of ids to return
+     * @return Matching user ids in ascending order
+     * @throws SQLException if the index has to be loaded and the query fails
+     */
+    public static int[] searchUsers(String term, int limit) throws SQLException {
+        int[] ids = search(currentUsers(), term, limit);
+        if (changedUsers.isEmpty()) {
+            return ids;
+        }
+        String needle = term == null ? "" : term.strip().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return ids;
+        }
+        int[] merged = Arrays.copyOf(ids, ids.length + changedUsers.size());
+        int count = ids.length;
+        for (Map.Entry<Integer, Changed> entry : changedUsers.entrySet()) {
+            if (count < merged.length && entry.getValue().text().contains(needle)
+                    && Arrays.binarySearch(ids, entry.getKey()) < 0) {
+                merged[count++] = entry.getKey();
+            }
+        }
+        Arrays.sort(merged, 0, count);
+        return Arrays.copyOf(merged, Math.min(count, limit));
+    }
+
+    /**
+     * Find flights whose airport codes or names or aircraft model contain a term
+     * @param term The text to look for; case-insensitive
+     * @param limit Maximum number of ids to return
+     * @return Matching flight ids in ascending order
+     * @throws SQLException if the index has to be loaded and the query fails
+     */
+    public static int[] searchFlights(String term, int limit) throws SQLException {
+        return search(currentFlights(), term, limit);
+    }
+
+    /**
+     * Add a newly inserted user. Does nothing if the index has not been loaded yet.
+     * @param id The user's id
+     * @param username The username
+     * @param email The email address
+     */
+    public static void userAdded(int id, String username, String email) {
+        Loaded current = users;
+        if (current == null || id <= 0) {
+            return;
+        }
+        NgramIndex index = current.index();
+        synchronized (index) {
+            // An id below the last one was read by the rebuild that produced this index
+            if (id > index.lastId()) {
+                index.add(id, username + SEPARATOR + email);
+            }
+        }
+    }
+
+    /**
+     * Replace a user's username and email after an update. Does nothing if the index has
+     * not been loaded yet.
+     * @param id The user's id
+     * @param username The new username
+     * @param email The new email address
+     */
+    public static void userUpdated(int id, String username, String email) {
+        if (id <= 0) {
+            return;
+        }
+        // Recorded before the index is read, so a rebuild published meanwhile still sees it
+        changedUsers.put(id, new Changed((username + SEPARATOR + email).toLowerCase(Locale.ROOT),
+                changeSequence.incrementAndGet()));
+        Loaded current = users;
+        if (current != null) {
+            current.index().remove(id);
+        }
+    }
+
+    /**
+     * Drop the flights index so the next search rebuilds it, used after flights or
+     * airports change
+     */
+    public static void invalidateFlights() {
+        flightsGeneration.incrementAndGet();
+    }
+
+    private static int[] search(NgramIndex index, String term, int limit) {
+        long start = System.nanoTime();
+        int[] ids = index.search(term, limit);
+        long elapsed = System.nanoTime() - start;
+        searchCount.incrementAndGet();
+        searchNanos.addAndGet(elapsed);
+        LOG.debug("Admin search", "term", term, "matches", ids.length, "ms", elapsed / 1e6);
+        return ids;
+    }
+
+    private static NgramIndex currentUsers() throws SQLException {
+        Loaded current = users;
+        if (stale(current, 0)) {
+            synchronized (AdminSearchIndex.class) {
+                current = users;
+                if (stale(current, 0)) {
+                    long sequence = changeSequence.get();
+                    current = new Loaded(loadUsers(), System.currentTimeMillis(), 0);
+                    users = current;
+                    // Changes made before the load began are in it; later ones may not be
+                    for (Map.Entry<Integer, Changed> entry : changedUsers.entrySet()) {
+                        if (entry.getValue().sequence() <= sequence) {
+                            changedUsers.remove(entry.getKey(), entry.getValue());
+                        } else {
+                            current.index().remove(entry.getKey());
+                        }
+                    }
+                }
+            }
+        }
+        return current.index();
+    }
+
+    private static NgramIndex currentFlights() throws SQLException {
+        Loaded current = flights;
+        if (stale(current, flightsGeneration.get())) {
+            synchronized (AdminSearchIndex.class) {
+                current = flights;
+                if (stale(current, flightsGeneration.get())) {
+                    // Load again if the flights were invalidated while loading
+                    long generation;
+                    NgramIndex index;
+                    do {
+                        generation = flightsGeneration.get();
+                        index = loadFlights();
+                    } while (flightsGeneration.get() != generation);
+                    current = new Loaded(index, System.currentTimeMillis(), generation);
+                    flights = current;
+                }
+            }
+        }
+        return current.index();
+    }
+
+    private static boolean stale(Loaded loaded, long generation) {
+        return loaded == null || loaded.generation() != generation
+                || System.currentTimeMillis() - loaded.builtAt() > REFRESH_INTERVAL_MS;
+    }
+
+    private static NgramIndex loadUsers() throws SQLException {
+        long start = System.nanoTime();
+        NgramIndex index = new NgramIndex();
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(USERS_SQL)) {
+            int lastId = 0;
+            int read;
+            do {
+                stmt.setInt(1, lastId);
+                read = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getInt("id");
+                        index.add(lastId, rs.getString("username") + SEPARATOR + rs.getString("email"));
+                        read++;
+                    }
+                }
+            } while (read == LOAD_BATCH);
+        }
+        return built("users", index, start);
+    }
+
+    private static NgramIndex loadFlights() throws SQLException {
+        long start = System.nanoTime();
+        NgramIndex index = new NgramIndex();
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(FLIGHTS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                index.add(rs.getInt("id"), String.join(SEPARATOR, rs.getString("dep_code"), rs.getString("dep_name"),
+                        rs.getString("arr_code"), rs.getString("arr_name"), rs.getString("model")));
+            }
+        }
+        return built("flights", index, start);
+    }
+
+    private static NgramIndex built(String name, NgramIndex index, long start) {
+        index.trim();
+        buildCount.incrementAndGet();
+        LOG.info("Admin search index loaded", "index", name, "rows", index.size(), "trigrams", index.gramCount(),
+                "mb", index.estimatedBytes() / (1024.0 * 1024), "ms", (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Get the search and rebuild counts
+     * @return A one-line summary
+     */
+    public static String getStats() {
+        long searches = searchCount.get();
+        double meanMs = searches == 0 ? 0 : searchNanos.get() / 1e6 / searches;
+        return "searches=" + searches + " meanMs=" + String.format("%.2f", meanMs) + " builds=" + buildCount.get();
+    }
+}
@@ -15,6 +15,9 @@ public class Aircraft {
     private Integer manufacturingYear;
     private ArrayList<Seat> seats;
 
+    static final ReferenceCache<Aircraft> cache = new ReferenceCache<>(
+            "aircraft", Aircraft::fetch, Aircraft::fetchAll, Aircraft::getId, Aircraft::copy);
+
     public Aircraft(String model, Integer manufacturingYear) {
         this.model = model;
         this.manufacturingYear = manufacturingYear;
@@ -36,9 +39,20 @@ public class Aircraft {
                 }
             }
         }
+        cache.invalidate(id);
     }
 
+    /**
+     * Load an aircraft, from the booking session's identity map or the reference cache when possible
+     * @param id The aircraft id
+     * @return The aircraft, without its seats loaded
+     * @throws SQLException if the aircraft does not exist
+     */
     public static Aircraft load(int id) throws SQLException {
+        return IdentityMap.load(Aircraft.class, id, cache::get);
+    }
+
+    private static Aircraft fetch(int id) throws SQLException {
         String sql = "SELECT * FROM aircraft WHERE id = ?";
         try (
             Connection conn = DbConnection.getInstance();
@@ -64,25 +78,41 @@ public class Aircraft {
         }
     }
 
+    private static ArrayList<Aircraft> fetchAll() throws SQLException {
+        String sql = "SELECT * FROM aircraft";
+        ArrayList<Aircraft> aircraft = new ArrayList<>();
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Aircraft row = new Aircraft(rs.getString("model"), rs.getInt("manufacturing_year"));
+                row.setId(rs.getInt("id"));
+                row.setAirlineId(rs.getInt("airline_id"));
+                aircraft.add(row);
+            }
+        }
+        return aircraft;
+    }
+
     public ArrayList<Seat> getSeats() throws SQLException {
     if (seats.isEmpty()) {
-        String sql = "SELECT id FROM seat WHERE aircraft_id = ?";
-        List<Integer> seatIds = new ArrayList<>();
+        // Load every seat in one query instead of a Seat.load per id
+        String sql = "SELECT * FROM seat WHERE aircraft_id = ? ORDER BY id";
+        ArrayList<Seat> loaded = new ArrayList<>();
 
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    seatIds.add(rs.getInt("id")); // Collect IDs only
+                    Seat seat = new Seat(SeatClass.valueOf(rs.getString("class")), rs.getString("seat_number"));
+                    seat.setId(rs.getInt("id"));
+                    seat.setAircraftId(id);
+                    loaded.add(seat);
                 }
             }
         }
-
-        // Load Seat objects outside the ResultSet loop
-        for (int seatId : seatIds) {
-            seats.add(Seat.load(seatId));
-        }
+        seats = loaded;
     }
     return seats;
 }
@@ -93,6 +123,13 @@ public class Aircraft {
         seats.add(seat);
     }
 
+    Aircraft copy() {
+        Aircraft aircraft = new Aircraft(model, manufacturingYear);
+        aircraft.setId(id);
+        aircraft.setAirlineId(airlineId);
+        return aircraft;
+    }
+
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     public int getAirlineId() { return airlineId; }
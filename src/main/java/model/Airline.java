@@ -14,6 +14,9 @@ public class Airline {
     private String code;
     private ArrayList<Aircraft> aircrafts;
 
+    static final ReferenceCache<Airline> cache = new ReferenceCache<>(
+            "airline", Airline::fetch, Airline::fetchAll, Airline::getId, Airline::copy);
+
     public Airline(String name, String code) {
         this.name = name;
         this.code = code;
@@ -33,9 +36,20 @@ public class Airline {
                 }
             }
         }
+        cache.invalidate(id);
     }
 
+    /**
+     * Load an airline, from the booking session's identity map or the reference cache when possible
+     * @param id The airline id
+     * @return The airline
+     * @throws SQLException if the airline does not exist
+     */
     public static Airline load(int id) throws SQLException {
+        return IdentityMap.load(Airline.class, id, cache::get);
+    }
+
+    private static Airline fetch(int id) throws SQLException {
         String sql = "SELECT * FROM airline WHERE id = ?";
         try (
             Connection conn = DbConnection.getInstance();
@@ -53,18 +67,37 @@ public class Airline {
         }
     }
 
+    private static ArrayList<Airline> fetchAll() throws SQLException {
+        String sql = "SELECT * FROM airline";
+        ArrayList<Airline> airlines = new ArrayList<>();
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Airline airline = new Airline(rs.getString("name"), rs.getString("code"));
+                airline.setId(rs.getInt("id"));
+                airlines.add(airline);
+            }
+        }
+        return airlines;
+    }
+
     public ArrayList<Aircraft> getAircrafts() throws SQLException {
         if (aircrafts.isEmpty()) {
             String sql = "SELECT id FROM aircraft WHERE airline_id = ?";
+            ArrayList<Integer> aircraftIds = new ArrayList<>();
             try (Connection conn = DbConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, id);
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        aircrafts.add(Aircraft.load(rs.getInt("id")));
+                        aircraftIds.add(rs.getInt("id"));
                     }
                 }
             }
+            for (int aircraftId : aircraftIds) {
+                aircrafts.add(Aircraft.load(aircraftId));
+            }
         }
         return aircrafts;
     }
@@ -75,6 +108,12 @@ public class Airline {
         aircrafts.add(aircraft);
     }
 
+    Airline copy() {
+        Airline airline = new Airline(name, code);
+        airline.setId(id);
+        return airline;
+    }
+
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     public String getName() { return name; }
@@ -18,6 +18,9 @@ public class Airport {
     private ArrayList<Flight> departures;
     private ArrayList<Flight> arrivals;
 
+    static final ReferenceCache<Airport> cache = new ReferenceCache<>(
+            "airport", Airport::fetch, Airport::fetchAll, Airport::getId, Airport::copy);
+
     public Airport(String code, String name, String address, String status) {
         this.code = code;
         this.name = name;
@@ -43,9 +46,20 @@ public class Airport {
                 }
             }
         }
+        cache.invalidate(id);
     }
 
+    /**
+     * Load an airport, from the booking session's identity map or the reference cache when possible
+     * @param id The airport id
+     * @return The airport
+     * @throws SQLException if the airport does not exist
+     */
     public static Airport load(int id) throws SQLException {
+        return IdentityMap.load(Airport.class, id, cache::get);
+    }
+
+    private static Airport fetch(int id) throws SQLException {
         String sql = "SELECT * FROM airport WHERE id = ?";
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -116,12 +130,16 @@ public class Airport {
     }
     
     /**
-     * Returns a list of all airports in the database
+     * Returns a list of all airports, ordered by name, from the reference cache when possible
      * 
      * @return ArrayList of all Airport objects
      * @throws SQLException If there is a database error
      */
     public static ArrayList<Airport> getAll() throws SQLException {
+        return cache.getAll();
+    }
+
+    private static ArrayList<Airport> fetchAll() throws SQLException {
         ArrayList<Airport> airports = new ArrayList<>();
         String sql = "SELECT * FROM airport ORDER BY name";
         
@@ -148,15 +166,19 @@ public class Airport {
     public ArrayList<Flight> getDepartures() throws SQLException {
         if (departures.isEmpty()) {
             String sql = "SELECT id FROM flight WHERE departure_airport_id = ?";
+            ArrayList<Integer> flightIds = new ArrayList<>();
             try (Connection conn = DbConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, id);
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        departures.add(Flight.load(rs.getInt("id")));
+                        flightIds.add(rs.getInt("id"));
                     }
                 }
             }
+            for (int flightId : flightIds) {
+                departures.add(Flight.load(flightId));
+            }
         }
         return departures;
     }
@@ -164,15 +186,19 @@ public class Airport {
     public ArrayList<Flight> getArrivals() throws SQLException {
         if (arrivals.isEmpty()) {
             String sql = "SELECT id FROM flight WHERE arrival_airport_id = ?";
+            ArrayList<Integer> flightIds = new ArrayList<>();
             try (Connection conn = DbConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, id);
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        arrivals.add(Flight.load(rs.getInt("id")));
+                        flightIds.add(rs.getInt("id"));
                     }
                 }
             }
+            for (int flightId : flightIds) {
+                arrivals.add(Flight.load(flightId));
+            }
         }
         return arrivals;
     }
@@ -196,6 +222,13 @@ public class Airport {
         arrivals.add(flight);
     }
 
+    Airport copy() {
+        Airport airport = new Airport(code, name, address, status);
+        airport.setId(id);
+        airport.setCountryId(countryId);
+        return airport;
+    }
+
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     public int getCountryId() { return countryId; }
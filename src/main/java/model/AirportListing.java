@@ -0,0 +1,55 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Read-only view of an airport for the admin airports grid, with its country name.
+ *
+ * The country comes from one LEFT JOIN in the same query instead of a lookup per
+ * airport. SELECT and FROM are exposed separately so the paged admin grid can add its
+ * own filter, order and limit.
+ */
+public class AirportListing {
+
+    public static final String SELECT =
+            "SELECT a.id, a.code, a.name, c.name AS country_name, a.address, a.status";
+
+    public static final String FROM =
+            "FROM airport a LEFT JOIN country c ON a.country_id = c.id";
+
+    private final int id;
+    private final String code;
+    private final String name;
+    private final String countryName;
+    private final String address;
+    private final String status;
+
+    AirportListing(int id, String code, String name, String countryName, String address, String status) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+        this.countryName = countryName;
+        this.address = address;
+        this.status = status;
+    }
+
+    /**
+     * Read the current row of a query built from {@link #SELECT} and {@link #FROM}
+     * @param rs The result set, positioned on a row
+     * @return The listing
+     * @throws SQLException if a column cannot be read
+     */
+    public static AirportListing read(ResultSet rs) throws SQLException {
+        return new AirportListing(rs.getInt("id"), rs.getString("code"), rs.getString("name"),
+                rs.getString("country_name"), rs.getString("address"), rs.getString("status"));
+    }
+
+    public int getId() { return id; }
+    public String getCode() { return code; }
+    public String getName() { return name; }
+    /** @return The country name, or null if the airport's country no longer exists */
+    public String getCountryName() { return countryName; }
+    public String getAddress() { return address; }
+    public String getStatus() { return status; }
+}
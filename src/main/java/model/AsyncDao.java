@@ -0,0 +1,140 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import util.*;
+
+/**
+ * Asynchronous versions of the model loaders, so independent loads can run in parallel
+ * and be joined, e.g. both airports, the schedule and the airline of a flight.
+ *
+ * Each load runs on its own virtual thread. A semaphore sized to the connection pool
+ * (or -Dasync.dao.maxConcurrency) caps how many run at once, so a wide fan-out queues
+ * here instead of timing out waiting for a pooled connection. A load must not wait on
+ * another AsyncDao future while it holds a permit, or a full fan-out can deadlock.
+ */
+public class AsyncDao {
+
+    /**
+     * A blocking model call to run asynchronously
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private static final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("async-dao-", 0).factory());
+
+    private static volatile Semaphore permits;
+
+    private AsyncDao() {
+    }
+
+    // Sized on first use, since reading the pool size opens the pool
+    private static Semaphore permits() {
+        Semaphore p = permits;
+        if (p == null) {
+            synchronized (AsyncDao.class) {
+                p = permits;
+                if (p == null) {
+                    int limit = Integer.getInteger("async.dao.maxConcurrency", 0);
+                    p = new Semaphore(limit > 0 ? limit : DbConnection.getPoolSize(), true);
+                    permits = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Run a blocking model call on a virtual thread
+     * @param loader The call to run
+     * @return A future completed with the call's result, or exceptionally with its SQLException
+     */
+    public static <T> CompletableFuture<T> supply(Loader<T> loader) {
+        Semaphore p = permits();
+        IdentityMap map = IdentityMap.active();
+        return CompletableFuture.supplyAsync(() -> {
+            p.acquireUninterruptibly();
+            IdentityMap.bind(map);
+            try {
+                return loader.load();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                IdentityMap.unbind(map);
+                p.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Wait for a future and unwrap its failure back into an SQLException
+     * @param future The future to wait for
+     * @return The future's result
+     * @throws SQLException if the load failed
+     */
+    public static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    public static CompletableFuture<Flight> loadFlight(int id) {
+        return supply(() -> Flight.load(id));
+    }
+
+    public static CompletableFuture<Airport> loadAirport(int id) {
+        return supply(() -> Airport.load(id));
+    }
+
+    public static CompletableFuture<Airline> loadAirline(int id) {
+        return supply(() -> Airline.load(id));
+    }
+
+    public static CompletableFuture<Aircraft> loadAircraft(int id) {
+        return supply(() -> Aircraft.load(id));
+    }
+
+    public static CompletableFuture<WeeklySchedule> loadSchedule(int id) {
+        return supply(() -> WeeklySchedule.load(id));
+    }
+
+    public static CompletableFuture<Seat> loadSeat(int id) {
+        return supply(() -> Seat.load(id));
+    }
+
+    public static CompletableFuture<Passenger> loadPassenger(int id) {
+        return supply(() -> Passenger.load(id));
+    }
+
+    public static CompletableFuture<FlightReservation> loadReservation(int id) {
+        return supply(() -> FlightReservation.load(id));
+    }
+
+    /**
+     * Number of loads that can start right now without queueing
+     * @return The free permits
+     */
+    public static int getAvailablePermits() {
+        return permits().availablePermits();
+    }
+}
@@ -0,0 +1,141 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+import util.*;
+
+/**
+ * Read-only view of a user's bookings for the history screen.
+ *
+ * Each page is one query joining the reservation with its flight, airports and schedule,
+ * newest booking first. Pages are keyed on the reservation id (keyset pagination), so
+ * fetching page 20 costs the same as page 1 and bookings made while the user scrolls do
+ * not shift the rows. The user_id foreign key index covers the lookup, since InnoDB
+ * secondary indexes carry the primary key.
+ */
+public class BookingHistory {
+
+    // Rows per page, overridable with -Dhistory.pageSize
+    public static final int DEFAULT_PAGE_SIZE = Integer.getInteger("history.pageSize", 50);
+
+    static final String PAGE_SQL =
+            "SELECT fr.id, fr.flight_id, fr.booking_date, fr.status, " +
+            "dep.code AS dep_code, arr.code AS arr_code, ws.dayOfWeek, ws.departure_time " +
+            "FROM flightReservation fr " +
+            "JOIN flight f ON f.id = fr.flight_id " +
+            "JOIN airport dep ON dep.id = f.departure_airport_id " +
+            "JOIN airport arr ON arr.id = f.arrival_airport_id " +
+            "JOIN weeklySchedule ws ON ws.id = f.flight_schedule_id " +
+            "WHERE fr.user_id = ? AND fr.id < ? " +
+            "ORDER BY fr.id DESC LIMIT ?";
+
+    /**
+     * One booking as shown in the history table
+     */
+    public static class Entry {
+        private final int reservationId;
+        private final int flightId;
+        private final String departureCode;
+        private final String arrivalCode;
+        private final String dayOfWeek;
+        private final Time departureTime;
+        private final Date bookingDate;
+        private final String status;
+
+        Entry(int reservationId, int flightId, String departureCode, String arrivalCode,
+              String dayOfWeek, Time departureTime, Date bookingDate, String status) {
+            this.reservationId = reservationId;
+            this.flightId = flightId;
+            this.departureCode = departureCode;
+            this.arrivalCode = arrivalCode;
+            this.dayOfWeek = dayOfWeek;
+            this.departureTime = departureTime;
+            this.bookingDate = bookingDate;
+            this.status = status;
+        }
+
+        public int getReservationId() { return reservationId; }
+        public int getFlightId() { return flightId; }
+        public String getDepartureCode() { return departureCode; }
+        public String getArrivalCode() { return arrivalCode; }
+        public String getDayOfWeek() { return dayOfWeek; }
+        public Time getDepartureTime() { return departureTime; }
+        public Date getBookingDate() { return bookingDate; }
+        public String getStatus() { return status; }
+
+        public String getRoute() {
+            return departureCode + " - " + arrivalCode;
+        }
+
+        public String getSchedule() {
+            return dayOfWeek.toUpperCase() + " " + departureTime;
+        }
+    }
+
+    /**
+     * One page of bookings plus the cursor for the next page
+     */
+    public static class Page {
+        private final List<Entry> entries;
+        private final int nextCursor;
+        private final boolean hasMore;
+
+        Page(List<Entry> entries, int nextCursor, boolean hasMore) {
+            this.entries = entries;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+
+        public List<Entry> getEntries() { return entries; }
+        public int getNextCursor() { return nextCursor; }
+        public boolean hasMore() { return hasMore; }
+    }
+
+    private BookingHistory() {
+    }
+
+    /**
+     * Load one page of a user's bookings, newest first
+     * @param userId The user
+     * @param cursor The next cursor of the previous page, or 0 for the first page
+     * @param pageSize Maximum number of bookings to return
+     * @return The page
+     * @throws SQLException if the query fails
+     */
+    public static Page loadPage(int userId, int cursor, int pageSize) throws SQLException {
+        List<Entry> entries = new ArrayList<>(pageSize);
+        boolean hasMore = false;
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, cursor > 0 ? cursor : Integer.MAX_VALUE);
+            // One extra row tells us whether another page exists
+            stmt.setInt(3, pageSize + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (entries.size() == pageSize) {
+                        hasMore = true;
+                        break;
+                    }
+                    entries.add(new Entry(
+                            rs.getInt("id"),
+                            rs.getInt("flight_id"),
+                            rs.getString("dep_code"),
+                            rs.getString("arr_code"),
+                            rs.getString("dayOfWeek"),
+                            rs.getTime("departure_time"),
+                            rs.getDate("booking_date"),
+                            rs.getString("status")));
+                }
+            }
+        }
+        int nextCursor = entries.isEmpty() ? cursor : entries.get(entries.size() - 1).getReservationId();
+        return new Page(entries, nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,93 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import util.*;
+
+/**
+ * Writes a complete booking (reservation, passengers, seats and payment) as one unit of work.
+ *
+ * Everything runs on a single pooled connection inside one transaction, with the
+ * passenger and passenger_seat rows sent as JDBC batches. If any step fails the
+ * transaction is rolled back, so a failed payment leaves no orphan reservation or
+ * passenger rows behind.
+ */
+public class BookingTransaction {
+    private static final Log LOG = Log.get(BookingTransaction.class);
+
+    private final FlightReservation reservation;
+    private final List<Passenger> passengers;
+    private final List<Seat> seats;
+    private final Payment payment;
+
+    /**
+     * @param reservation The new reservation, not yet saved
+     * @param passengers The passengers travelling on it, not yet saved
+     * @param seats The seat for each passenger, in the same order
+     * @param payment The payment for the booking, not yet saved, or null to book now and pay later
+     */
+    public BookingTransaction(FlightReservation reservation, List<Passenger> passengers, List<Seat> seats, Payment payment) {
+        if (passengers.isEmpty() || passengers.size() != seats.size()) {
+            throw new IllegalArgumentException("Each passenger needs exactly one seat");
+        }
+        this.reservation = reservation;
+        this.passengers = new ArrayList<>(passengers);
+        this.seats = new ArrayList<>(seats);
+        this.payment = payment;
+    }
+
+    /**
+     * Write the booking in a single transaction
+     * @throws SQLException if any insert fails; nothing is written in that case
+     */
+    public void commit() throws SQLException {
+        try (Connection conn = DbConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                reservation.save(conn);
+                Passenger.saveAll(conn, passengers, reservation.getId());
+                reservation.addPassengerSeats(conn, passengers, seats);
+                if (payment != null) {
+                    payment.save(conn);
+                }
+                conn.commit();
+                if (payment != null) {
+                    DashboardStats.paymentAdded(payment.getPaymentAmount());
+                }
+            } catch (SQLException | RuntimeException e) {
+                rollback(conn);
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        for (Seat seat : seats) {
+            SeatInventory.seatBooked(reservation.getFlightId(), seat.getId());
+        }
+    }
+
+    /**
+     * Undo the transaction and clear the ids handed out by the rolled back inserts
+     */
+    private void rollback(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOG.error("Error rolling back booking", e);
+        }
+        reservation.setId(0);
+        for (Passenger passenger : passengers) {
+            passenger.setId(0);
+        }
+        if (payment != null) {
+            payment.setId(0);
+        }
+    }
+
+    public FlightReservation getReservation() { return reservation; }
+    public Payment getPayment() { return payment; }
+}
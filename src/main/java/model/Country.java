@@ -6,12 +6,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.ArrayList;
+import java.util.List;
 import util.*;
 public class Country {
     private int id;
     private String name;
     private ArrayList<Airport> airports;
 
+    static final ReferenceCache<Country> cache = new ReferenceCache<>(
+            "country", Country::fetch, Country::fetchAll, Country::getId, Country::copy);
+
     public Country(String name) {
         this.name = name;
         this.airports = new ArrayList<>();
@@ -29,9 +33,95 @@ public class Country {
                 }
             }
         }
+        cache.invalidate(id);
     }
 
+    /**
+     * Load a country, from the reference cache when possible
+     * @param id The country id
+     * @return The country
+     * @throws SQLException if the country does not exist
+     */
     public static Country load(int id) throws SQLException {
+        return cache.get(id);
+    }
+
+    /**
+     * Load every country, from the reference cache when possible
+     * @return All countries
+     * @throws SQLException if the query fails
+     */
+    public static ArrayList<Country> loadAll() throws SQLException {
+        return cache.getAll();
+    }
+
+    /**
+     * Get every country name in alphabetical order, from the reference cache when possible
+     * @return The names
+     * @throws SQLException if the countries have to be loaded and the query fails
+     */
+    public static List<String> getNames() throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (Country country : cache.getAll()) {
+            names.add(country.getName());
+        }
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+
+    /**
+     * Get the id of the country with a name, creating the country if there is none.
+     * Known names are answered from the reference cache; a new name is inserted with one
+     * upsert against the unique name index, so two admins adding it at once get the same row.
+     * @param name The country name
+     * @return The country id
+     * @throws SQLException if the insert fails
+     */
+    public static int idForName(String name) throws SQLException {
+        for (Country country : cache.getAll()) {
+            if (country.getName().equals(name)) {
+                return country.getId();
+            }
+        }
+        int id = upsert(name);
+        ReferenceData.invalidateCountries();
+        return id;
+    }
+
+    private static int upsert(String name) throws SQLException {
+        try (Connection conn = DbConnection.getInstance()) {
+            if (DbConnection.getProfile().isEmbedded()) {
+                // H2 has no LAST_INSERT_ID(expr); MERGE on the name, then read the id back
+                try (PreparedStatement stmt = conn.prepareStatement("MERGE INTO country (name) KEY (name) VALUES (?)")) {
+                    stmt.setString(1, name);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM country WHERE name = ?")) {
+                    stmt.setString(1, name);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            return rs.getInt(1);
+                        }
+                    }
+                }
+                throw new SQLException("Country not found after insert: " + name);
+            }
+            // On a duplicate name LAST_INSERT_ID(id) makes the existing row's id the generated key
+            String sql = "INSERT INTO country (name) VALUES (?) ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, name);
+                stmt.executeUpdate();
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+            throw new SQLException("No id returned for country " + name);
+        }
+    }
+
+    private static Country fetch(int id) throws SQLException {
         String sql = "SELECT * FROM country WHERE id = ?";
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -46,7 +136,7 @@ public class Country {
             }
         }
     }
-    public static ArrayList<Country> loadAll() throws SQLException {
+    private static ArrayList<Country> fetchAll() throws SQLException {
         String sql = "SELECT * FROM country";
         ArrayList<Country> countries = new ArrayList<>();
         try (Connection conn = DbConnection.getInstance();
@@ -64,7 +154,7 @@ public class Country {
         }
     }
 
-    public ArrayList<Airport> getAirports() throws SQLException {
+    public synchronized ArrayList<Airport> getAirports() throws SQLException {
         if (airports.isEmpty()) {
             ArrayList<Integer> airportIds = new ArrayList<>();
     
@@ -99,6 +189,12 @@ public class Country {
         airports.add(airport);
     }
 
+    private Country copy() {
+        Country country = new Country(name);
+        country.setId(id);
+        return country;
+    }
+
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     public String getName() { return name; }
@@ -33,6 +33,8 @@ public class CustomSchedule {
                 }
             }
         }
+        // Custom dates are indexed when the search index loads
+        FlightSearchIndex.invalidate();
     }
 
     public static CustomSchedule load(int id) throws SQLException {
@@ -0,0 +1,184 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import util.DbConnection;
+import util.Log;
+
+/**
+ * Running totals for the admin dashboard (users, flights and revenue), so opening the
+ * dashboard does not count and sum whole tables.
+ *
+ * The totals are read from the database once, then kept current by the code that inserts
+ * rows: User.save, Flight.save, Payment.save and the booking transactions, which report a
+ * payment only after they commit. Writes made outside the application (or a rolled back
+ * one that was reported anyway) make the totals drift, so a background thread recounts
+ * them every -Ddashboard.stats.reconcileMs (default 10 minutes) and logs any drift it
+ * corrects. A write that commits while a recount is running may be counted twice until
+ * the next recount.
+ *
+ * Revenue is the sum of payment_amount over all payments, as the dashboard has always
+ * shown it. It is kept in cents so the running sum does not pick up rounding error.
+ */
+public class DashboardStats {
+
+    private static final Log LOG = Log.get(DashboardStats.class);
+
+    private static final long RECONCILE_MS = Long.getLong("dashboard.stats.reconcileMs", 600_000L);
+
+    /**
+     * The dashboard totals at one point in time
+     */
+    public static final class Snapshot {
+        private final long users;
+        private final long flights;
+        private final long revenueCents;
+        private final long reconciledAt;
+
+        Snapshot(long users, long flights, long revenueCents, long reconciledAt) {
+            this.users = users;
+            this.flights = flights;
+            this.revenueCents = revenueCents;
+            this.reconciledAt = reconciledAt;
+        }
+
+        public long getUsers() { return users; }
+        public long getFlights() { return flights; }
+        public double getRevenue() { return revenueCents / 100.0; }
+        /** @return When the totals were last recounted from the database, in epoch milliseconds */
+        public long getReconciledAt() { return reconciledAt; }
+    }
+
+    // Totals from the last recount, plus the changes reported since it started
+    private static volatile Snapshot base;
+    private static final AtomicLong userDelta = new AtomicLong();
+    private static final AtomicLong flightDelta = new AtomicLong();
+    private static final AtomicLong revenueDeltaCents = new AtomicLong();
+
+    // Statistics
+    private static final AtomicLong reconcileCount = new AtomicLong();
+    private static final AtomicLong driftCount = new AtomicLong();
+
+    private static ScheduledExecutorService reconciler;
+
+    private DashboardStats() {
+    }
+
+    /**
+     * Get the current totals, counting them from the database on first use
+     * @return The totals
+     * @throws SQLException if the first count fails
+     */
+    public static Snapshot get() throws SQLException {
+        Snapshot b = base;
+        if (b == null) {
+            b = initialize();
+        }
+        return new Snapshot(b.users + userDelta.get(), b.flights + flightDelta.get(),
+                b.revenueCents + revenueDeltaCents.get(), b.reconciledAt);
+    }
+
+    /**
+     * Record a new user
+     */
+    public static void userAdded() {
+        userDelta.incrementAndGet();
+    }
+
+    /**
+     * Record a new flight
+     */
+    public static void flightAdded() {
+        flightDelta.incrementAndGet();
+    }
+
+    /**
+     * Record a committed payment
+     * @param amount The payment amount
+     */
+    public static void paymentAdded(double amount) {
+        revenueDeltaCents.addAndGet(Math.round(amount * 100));
+    }
+
+    /**
+     * Recount the totals from the database now
+     * @throws SQLException if a query fails
+     */
+    public static synchronized void reconcile() throws SQLException {
+        Snapshot before = base;
+        long users = userDelta.get();
+        long flights = flightDelta.get();
+        long revenue = revenueDeltaCents.get();
+
+        // Changes reported before the recount started are in it; later ones stay on top
+        Snapshot counted = count();
+        base = counted;
+        userDelta.addAndGet(-users);
+        flightDelta.addAndGet(-flights);
+        revenueDeltaCents.addAndGet(-revenue);
+        reconcileCount.incrementAndGet();
+
+        if (before != null && (before.users + users != counted.users || before.flights + flights != counted.flights
+                || before.revenueCents + revenue != counted.revenueCents)) {
+            driftCount.incrementAndGet();
+            LOG.info("Dashboard totals corrected",
+                    "users", (before.users + users) + "->" + counted.users,
+                    "flights", (before.flights + flights) + "->" + counted.flights,
+                    "revenueCents", (before.revenueCents + revenue) + "->" + counted.revenueCents);
+        }
+    }
+
+    private static synchronized Snapshot initialize() throws SQLException {
+        if (base == null) {
+            reconcile();
+            reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dashboard-stats-reconciler");
+                t.setDaemon(true);
+                return t;
+            });
+            reconciler.scheduleWithFixedDelay(DashboardStats::reconcileQuietly,
+                    RECONCILE_MS, RECONCILE_MS, TimeUnit.MILLISECONDS);
+        }
+        return base;
+    }
+
+    private static void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (SQLException e) {
+            LOG.warn("Dashboard totals recount failed", "error", e.getMessage());
+        }
+    }
+
+    private static Snapshot count() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = DbConnection.getInstance()) {
+            long users = single(conn, "SELECT COUNT(*) FROM user");
+            long flights = single(conn, "SELECT COUNT(*) FROM flight");
+            long revenueCents = single(conn, "SELECT COALESCE(ROUND(SUM(payment_amount) * 100), 0) FROM payment");
+            LOG.debug("Dashboard totals recounted", "ms", (System.nanoTime() - start) / 1e6);
+            return new Snapshot(users, flights, revenueCents, System.currentTimeMillis());
+        }
+    }
+
+    private static long single(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Get how often the totals were recounted and how many recounts corrected drift
+     * @return A one-line summary
+     */
+    public static String getStats() {
+        return "reconciles=" + reconcileCount.get() + " drifted=" + driftCount.get();
+    }
+}
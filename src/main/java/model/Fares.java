@@ -0,0 +1,44 @@
+package model;
+
+/**
+ * The fare table: a base fare per passenger, scaled by seat class, plus tax. Used by
+ * BookingService to price bookings and by DataGenerator so generated payments match.
+ */
+public final class Fares {
+
+    private static final double BASE_FARE = 250.0;
+    private static final double TAX_RATE = 0.10;
+
+    private Fares() {
+    }
+
+    /**
+     * Price of a booking before tax
+     * @param seatClass The class of the seats
+     * @param passengerCount Number of passengers
+     * @return The subtotal
+     */
+    public static double subtotal(SeatClass seatClass, int passengerCount) {
+        double classMultiplier;
+        switch (seatClass) {
+            case Business:
+                classMultiplier = 2.0;
+                break;
+            case FirstClass:
+                classMultiplier = 3.0;
+                break;
+            default:
+                classMultiplier = 1.0;
+                break;
+        }
+        return BASE_FARE * classMultiplier * passengerCount;
+    }
+
+    /**
+     * @param subtotal A price before tax
+     * @return The tax on it
+     */
+    public static double tax(double subtotal) {
+        return subtotal * TAX_RATE;
+    }
+}
@@ -8,8 +8,45 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import util.*;
 public class Flight {
+
+    /**
+     * How {@link #search} loads its results. INDEXED answers from {@link FlightSearchIndex}
+     * without touching the database; JOINED hydrates everything from one query; LEGACY runs
+     * the id query and then loads each related row separately.
+     */
+    public enum SearchMode {
+        INDEXED,
+        JOINED,
+        LEGACY
+    }
+
+    // Selected with -Dflight.search.mode=JOINED or LEGACY to compare latency against the index
+    private static volatile SearchMode searchMode =
+            SearchMode.valueOf(System.getProperty("flight.search.mode", "INDEXED").toUpperCase());
+
+    // Flight row with its airports, schedule, aircraft and airline, read by readJoined
+    static final String JOINED_SELECT = """
+        SELECT f.id, f.gate, f.duration,
+               dep.id AS dep_id, dep.country_id AS dep_country_id, dep.code AS dep_code,
+               dep.name AS dep_name, dep.address AS dep_address, dep.status AS dep_status,
+               arr.id AS arr_id, arr.country_id AS arr_country_id, arr.code AS arr_code,
+               arr.name AS arr_name, arr.address AS arr_address, arr.status AS arr_status,
+               ws.id AS ws_id, ws.dayOfWeek, ws.departure_time, ws.customDate,
+               ac.id AS ac_id, ac.model, ac.manufacturing_year,
+               al.id AS al_id, al.name AS al_name, al.code AS al_code
+        FROM flight f
+        JOIN airport dep ON f.departure_airport_id = dep.id
+        JOIN airport arr ON f.arrival_airport_id = arr.id
+        JOIN weeklySchedule ws ON f.flight_schedule_id = ws.id
+        JOIN aircraft ac ON f.aircraft_id = ac.id
+        JOIN airline al ON ac.airline_id = al.id
+    """;
+    private static final AtomicLong[] searchCount = newCounters();
+    private static final AtomicLong[] searchNanos = newCounters();
+
     private int id;
     private int arrivalAirportId;
     private int departureAirportId;
@@ -20,6 +57,13 @@ public class Flight {
     private ArrayList<CustomSchedule> customSchedules;
     private ArrayList<Payment> payments;
 
+    // Related rows hydrated when the flight is loaded; cleared if the matching id changes
+    private Airport departureAirport;
+    private Airport arrivalAirport;
+    private WeeklySchedule schedule;
+    private Aircraft aircraft;
+    private Airline airline;
+
     public Flight(Airport departure, Airport arrival, String gate, Integer duration, WeeklySchedule schedule, Aircraft aircraft) {
         this.departureAirportId = departure.getId();
         this.arrivalAirportId = arrival.getId();
@@ -27,6 +71,10 @@ public class Flight {
         this.duration = duration;
         this.flightScheduleId = schedule.getId();
         this.aircraftId = aircraft.getId();
+        this.departureAirport = departure;
+        this.arrivalAirport = arrival;
+        this.schedule = schedule;
+        this.aircraft = aircraft;
         this.customSchedules = new ArrayList<>();
         this.payments = new ArrayList<>();
     }
@@ -48,36 +96,56 @@ public class Flight {
                 }
             }
         }
+        FlightSearchIndex.addFlight(id);
+        DashboardStats.flightAdded();
+        AdminSearchIndex.invalidateFlights();
     }
 
+    /**
+     * Load a flight with its airports, schedule and aircraft, reusing the booking
+     * session's instance if it already has one
+     * @param id The flight id
+     * @return The flight
+     * @throws SQLException if the flight does not exist
+     */
     public static Flight load(int id) throws SQLException {
+        return IdentityMap.load(Flight.class, id, Flight::fetch);
+    }
+
+    private static Flight fetch(int id) throws SQLException {
         String sql = "SELECT * FROM flight WHERE id = ?";
+        int departureAirportId;
+        int arrivalAirportId;
+        String gate;
+        int duration;
+        int scheduleId;
+        int aircraftId;
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    // Read all values from the ResultSet first
-                    int departureAirportId = rs.getInt("departure_airport_id");
-                    int arrivalAirportId = rs.getInt("arrival_airport_id");
-                    String gate = rs.getString("gate");
-                    int duration = rs.getInt("duration");
-                    int scheduleId = rs.getInt("flight_schedule_id");
-                    int aircraftId = rs.getInt("aircraft_id");
-    
-                    // Now safely call other DB-dependent methods
-                    Airport departure = Airport.load(departureAirportId);
-                    Airport arrival = Airport.load(arrivalAirportId);
-                    WeeklySchedule schedule = WeeklySchedule.load(scheduleId);
-                    Aircraft aircraft = Aircraft.load(aircraftId);
-    
-                    Flight flight = new Flight(departure, arrival, gate, duration, schedule, aircraft);
-                    flight.setId(id);
-                    return flight;
+                if (!rs.next()) {
+                    throw new SQLException("Flight not found");
                 }
-                throw new SQLException("Flight not found");
+                // Read all values from the ResultSet first
+                departureAirportId = rs.getInt("departure_airport_id");
+                arrivalAirportId = rs.getInt("arrival_airport_id");
+                gate = rs.getString("gate");
+                duration = rs.getInt("duration");
+                scheduleId = rs.getInt("flight_schedule_id");
+                aircraftId = rs.getInt("aircraft_id");
             }
         }
+
+        // Load related rows after the connection has gone back to the pool
+        Airport departure = Airport.load(departureAirportId);
+        Airport arrival = Airport.load(arrivalAirportId);
+        WeeklySchedule schedule = WeeklySchedule.load(scheduleId);
+        Aircraft aircraft = Aircraft.load(aircraftId);
+
+        Flight flight = new Flight(departure, arrival, gate, duration, schedule, aircraft);
+        flight.setId(id);
+        return flight;
     }
     
 
@@ -85,15 +153,19 @@ public class Flight {
     public ArrayList<CustomSchedule> getCustomSchedules() throws SQLException {
         if (customSchedules.isEmpty()) {
             String sql = "SELECT id FROM customSchedule WHERE flight_id = ?";
+            List<Integer> scheduleIds = new ArrayList<>();
             try (Connection conn = DbConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, id);
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        customSchedules.add(CustomSchedule.load(rs.getInt("id")));
+                        scheduleIds.add(rs.getInt("id"));
                     }
                 }
             }
+            for (int scheduleId : scheduleIds) {
+                customSchedules.add(CustomSchedule.load(scheduleId));
+            }
         }
         return customSchedules;
     }
@@ -101,15 +173,19 @@ public class Flight {
     public ArrayList<Payment> getPayments() throws SQLException {
         if (payments.isEmpty()) {
             String sql = "SELECT payment_id FROM flight_payment WHERE flight_id = ?";
+            List<Integer> paymentIds = new ArrayList<>();
             try (Connection conn = DbConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, id);
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        payments.add(Payment.load(rs.getInt("payment_id")));
+                        paymentIds.add(rs.getInt("payment_id"));
                     }
                 }
             }
+            for (int paymentId : paymentIds) {
+                payments.add(Payment.load(paymentId));
+            }
         }
         return payments;
     }
@@ -131,7 +207,101 @@ public class Flight {
         }
     }
 
+    /**
+     * Find flights between two airports on the given day of the week
+     * @param from Departure airport code
+     * @param to Arrival airport code
+     * @param flightDay Day of the week to search
+     * @param sqlDate The requested travel date
+     * @return Flights with their airports, schedule, aircraft and airline already loaded
+     * @throws SQLException if the search query fails
+     */
     public static ArrayList<Flight> search(String from, String to, DayOfWeek flightDay, Date sqlDate) throws SQLException {
+        SearchMode mode = searchMode;
+        long start = System.nanoTime();
+        try {
+            switch (mode) {
+                case LEGACY:
+                    return searchLegacy(from, to, flightDay);
+                case JOINED:
+                    return searchJoined(from, to, flightDay);
+                default:
+                    return FlightSearchIndex.search(from, to, flightDay, sqlDate);
+            }
+        } finally {
+            searchCount[mode.ordinal()].incrementAndGet();
+            searchNanos[mode.ordinal()].addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Load every search result and its related rows from a single query
+     */
+    private static ArrayList<Flight> searchJoined(String from, String to, DayOfWeek flightDay) throws SQLException {
+        ArrayList<Flight> results = new ArrayList<>();
+
+        String sql = JOINED_SELECT + "WHERE dep.code = ? AND arr.code = ? AND ws.dayOfWeek = ?";
+
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, from);
+            stmt.setString(2, to);
+            stmt.setString(3, flightDay.name());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(readJoined(rs));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Build a flight and its related rows from the current row of a {@link #JOINED_SELECT} query
+     */
+    static Flight readJoined(ResultSet rs) throws SQLException {
+        Airport departure = readAirport(rs, "dep_");
+        Airport arrival = readAirport(rs, "arr_");
+
+        WeeklySchedule schedule = new WeeklySchedule(
+            DayOfWeek.valueOf(rs.getString("dayOfWeek").toUpperCase()),
+            rs.getTime("departure_time"),
+            rs.getDate("customDate")
+        );
+        schedule.setId(rs.getInt("ws_id"));
+
+        Airline airline = new Airline(rs.getString("al_name"), rs.getString("al_code"));
+        airline.setId(rs.getInt("al_id"));
+
+        Aircraft aircraft = new Aircraft(rs.getString("model"), rs.getInt("manufacturing_year"));
+        aircraft.setId(rs.getInt("ac_id"));
+        aircraft.setAirlineId(airline.getId());
+
+        Flight flight = new Flight(departure, arrival, rs.getString("gate"),
+                rs.getInt("duration"), schedule, aircraft);
+        flight.setId(rs.getInt("id"));
+        flight.setAirline(airline);
+        return flight;
+    }
+
+    private static Airport readAirport(ResultSet rs, String prefix) throws SQLException {
+        Airport airport = new Airport(
+            rs.getString(prefix + "code"),
+            rs.getString(prefix + "name"),
+            rs.getString(prefix + "address"),
+            rs.getString(prefix + "status")
+        );
+        airport.setId(rs.getInt(prefix + "id"));
+        airport.setCountryId(rs.getInt(prefix + "country_id"));
+        return airport;
+    }
+
+    /**
+     * Original search path: one id query followed by a load per related row
+     */
+    private static ArrayList<Flight> searchLegacy(String from, String to, DayOfWeek flightDay) throws SQLException {
     ArrayList<Flight> results = new ArrayList<>();
 
     String sql = """
@@ -144,6 +314,9 @@ public class Flight {
         WHERE dep.code = ? AND arr.code = ? AND ws.dayOfWeek = ?
     """;
 
+    // Load all flight records into a buffer list
+    List<Object[]> buffer = new ArrayList<>();
+
     try (Connection conn = DbConnection.getInstance();
          PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -151,9 +324,6 @@ public class Flight {
         stmt.setString(2, to);
         stmt.setString(3, flightDay.name());
 
-        // Load all flight records into a buffer list
-        List<Object[]> buffer = new ArrayList<>();
-
         try (ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 Object[] data = new Object[7];
@@ -167,46 +337,125 @@ public class Flight {
                 buffer.add(data);
             }
         }
+    }
 
-        // Now process after ResultSet is closed
-        for (Object[] data : buffer) {
-            int flightId = (int) data[0];
-            int departureAirportId = (int) data[1];
-            int arrivalAirportId = (int) data[2];
-            String gate = (String) data[3];
-            int duration = (int) data[4];
-            int scheduleId = (int) data[5];
-            int aircraftId = (int) data[6];
-
-            // Now it's safe to use load methods
-            Airport departure = Airport.load(departureAirportId);
-            Airport arrival = Airport.load(arrivalAirportId);
-            WeeklySchedule schedule = WeeklySchedule.load(scheduleId);
-            Aircraft aircraft = Aircraft.load(aircraftId);
-
-            Flight flight = new Flight(departure, arrival, gate, duration, schedule, aircraft);
-            flight.setId(flightId);
-            results.add(flight);
-        }
+    // Now process after the connection is back in the pool
+    for (Object[] data : buffer) {
+        int flightId = (int) data[0];
+        int departureAirportId = (int) data[1];
+        int arrivalAirportId = (int) data[2];
+        String gate = (String) data[3];
+        int duration = (int) data[4];
+        int scheduleId = (int) data[5];
+        int aircraftId = (int) data[6];
+
+        // Now it's safe to use load methods
+        Airport departure = Airport.load(departureAirportId);
+        Airport arrival = Airport.load(arrivalAirportId);
+        WeeklySchedule schedule = WeeklySchedule.load(scheduleId);
+        Aircraft aircraft = Aircraft.load(aircraftId);
+
+        Flight flight = new Flight(departure, arrival, gate, duration, schedule, aircraft);
+        flight.setId(flightId);
+        results.add(flight);
     }
 
     return results;
 }
 
-    
-    
+    /**
+     * Find direct and connecting itineraries from the in-memory route graph
+     * @param from Departure airport code
+     * @param to Arrival airport code
+     * @param flightDay Day the first leg departs, or null for any day
+     * @param maxStops Maximum number of connections (0 to 2)
+     * @param limit Maximum number of itineraries to return
+     * @return Itineraries ordered by total elapsed time, fastest first
+     * @throws SQLException if the flight index has to be loaded and the query fails
+     */
+    public static List<RouteGraph.Itinerary> searchConnections(String from, String to, DayOfWeek flightDay,
+                                                               int maxStops, int limit) throws SQLException {
+        return FlightSearchIndex.getRouteGraph().findItineraries(from, to, flightDay, maxStops, limit);
+    }
+
+    public static SearchMode getSearchMode() { return searchMode; }
+    public static void setSearchMode(SearchMode mode) { searchMode = mode; }
+
+    /**
+     * Average latency of the searches run so far in the given mode
+     * @param mode The search mode
+     * @return Average time per search in milliseconds, or 0 if none have run
+     */
+    public static double getAverageSearchMillis(SearchMode mode) {
+        long count = searchCount[mode.ordinal()].get();
+        return count == 0 ? 0 : searchNanos[mode.ordinal()].get() / (count * 1_000_000.0);
+    }
+
+    public static long getSearchCount(SearchMode mode) {
+        return searchCount[mode.ordinal()].get();
+    }
+
+    private static AtomicLong[] newCounters() {
+        AtomicLong[] counters = new AtomicLong[SearchMode.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new AtomicLong();
+        }
+        return counters;
+    }
+
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     public int getArrivalAirportId() { return arrivalAirportId; }
-    public void setArrivalAirportId(int arrivalAirportId) { this.arrivalAirportId = arrivalAirportId; }
+    public void setArrivalAirportId(int arrivalAirportId) {
+        if (arrivalAirport != null && arrivalAirport.getId() != arrivalAirportId) {
+            arrivalAirport = null;
+        }
+        this.arrivalAirportId = arrivalAirportId;
+    }
     public int getDepartureAirportId() { return departureAirportId; }
-    public void setDepartureAirportId(int departureAirportId) { this.departureAirportId = departureAirportId; }
+    public void setDepartureAirportId(int departureAirportId) {
+        if (departureAirport != null && departureAirport.getId() != departureAirportId) {
+            departureAirport = null;
+        }
+        this.departureAirportId = departureAirportId;
+    }
     public String getGate() { return gate; }
     public void setGate(String gate) { this.gate = gate; }
     public Integer getDuration() { return duration; }
     public void setDuration(Integer duration) { this.duration = duration; }
     public int getFlightScheduleId() { return flightScheduleId; }
-    public void setFlightScheduleId(int flightScheduleId) { this.flightScheduleId = flightScheduleId; }
+    public void setFlightScheduleId(int flightScheduleId) {
+        if (schedule != null && schedule.getId() != flightScheduleId) {
+            schedule = null;
+        }
+        this.flightScheduleId = flightScheduleId;
+    }
     public int getAircraftId() { return aircraftId; }
-    public void setAircraftId(int aircraftId) { this.aircraftId = aircraftId; }
+    public void setAircraftId(int aircraftId) {
+        if (aircraft != null && aircraft.getId() != aircraftId) {
+            aircraft = null;
+            airline = null;
+        }
+        this.aircraftId = aircraftId;
+    }
+
+    /**
+     * Copy of this flight and its related rows, so callers can't change an indexed instance.
+     * Only used on flights loaded with their related rows.
+     */
+    Flight copy() {
+        Flight flight = new Flight(departureAirport.copy(), arrivalAirport.copy(), gate, duration,
+                schedule.copy(), aircraft.copy());
+        flight.setId(id);
+        flight.setAirline(airline != null ? airline.copy() : null);
+        return flight;
+    }
+
+    // Hydrated related rows; null when not loaded with the flight
+    public Airport getDepartureAirport() { return departureAirport; }
+    public Airport getArrivalAirport() { return arrivalAirport; }
+    public WeeklySchedule getSchedule() { return schedule; }
+    public Aircraft getAircraft() { return aircraft; }
+    public Airline getAirline() { return airline; }
+    public void setAirline(Airline airline) { this.airline = airline; }
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package model;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import javax.swing.JTextArea;
 
@@ -31,9 +34,19 @@ public class FlightReservation {
     }
 
     public void save() throws SQLException {
+        try (Connection conn = DbConnection.getInstance()) {
+            save(conn);
+        }
+    }
+
+    /**
+     * Insert the reservation on the given connection, so it can be part of a larger transaction
+     * @param conn The connection to use; it is not closed
+     * @throws SQLException if the insert fails
+     */
+    public void save(Connection conn) throws SQLException {
         String sql = "INSERT INTO flightReservation (flight_id, user_id, qr_code, booking_date, status) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DbConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, flightId);
             stmt.setInt(2, userId);
             stmt.setString(3, qrCode);
@@ -80,34 +93,110 @@ public class FlightReservation {
     public Map<Passenger, Seat> getPassengerSeatMap() throws SQLException {
         if (passengerSeatMap.isEmpty()) {
             String sql = "SELECT passenger_id, seat_id FROM passenger_seat WHERE flightReservation_id = ?";
+            ArrayList<int[]> rows = new ArrayList<>();
             try (Connection conn = DbConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, id);
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
-                        int seatId= rs.getInt("seat_id");
-                        int passengerId= rs.getInt("passenger_id");
-                        Passenger passenger = Passenger.load(passengerId);
-                        Seat seat = Seat.load(seatId);
-                        passengerSeatMap.put(passenger, seat);
+                        rows.add(new int[] { rs.getInt("passenger_id"), rs.getInt("seat_id") });
                     }
                 }
             }
+            for (int[] row : rows) {
+                Passenger passenger = Passenger.load(row[0]);
+                Seat seat = Seat.load(row[1]);
+                passengerSeatMap.put(passenger, seat);
+            }
         }
         return passengerSeatMap;
     }
 
+    /**
+     * Save a passenger and book their seat on this reservation's flight
+     * @param passenger The passenger
+     * @param seat The seat to book
+     * @throws SeatUnavailableException if the seat is already booked on this flight
+     * @throws SQLException if the insert fails
+     */
     public void addPassengerSeat(Passenger passenger, Seat seat) throws SQLException {
         passenger.save();
-        String sql = "INSERT INTO passenger_seat (passenger_id, seat_id, flightReservation_id) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO passenger_seat (passenger_id, seat_id, flightReservation_id, flight_id) VALUES (?, ?, ?, ?)";
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, passenger.getId());
             stmt.setInt(2, seat.getId());
             stmt.setInt(3, id);
+            stmt.setInt(4, flightId);
             stmt.executeUpdate();
             passengerSeatMap.put(passenger, seat);
+        } catch (SQLException e) {
+            if (isSeatAlreadyBooked(e)) {
+                SeatInventory.seatBooked(flightId, seat.getId());
+                throw new SeatUnavailableException(seat.getId(), seat.getSeatNumber(), e);
+            }
+            throw e;
+        }
+        SeatInventory.seatBooked(flightId, seat.getId());
+    }
+
+    /**
+     * Book seats for already saved passengers in one batch on the given connection
+     * @param conn The connection to use; it is not closed
+     * @param passengers The passengers, each already saved
+     * @param seats The seat for each passenger, in the same order
+     * @throws SeatUnavailableException if a seat is already booked on this flight
+     * @throws SQLException if the insert fails
+     */
+    public void addPassengerSeats(Connection conn, List<Passenger> passengers, List<Seat> seats) throws SQLException {
+        if (passengers.size() != seats.size()) {
+            throw new IllegalArgumentException("Each passenger needs exactly one seat");
+        }
+        String sql = "INSERT INTO passenger_seat (passenger_id, seat_id, flightReservation_id, flight_id) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < passengers.size(); i++) {
+                stmt.setInt(1, passengers.get(i).getId());
+                stmt.setInt(2, seats.get(i).getId());
+                stmt.setInt(3, id);
+                stmt.setInt(4, flightId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            if (isSeatAlreadyBooked(e)) {
+                Seat seat = seats.get(failedIndex(e, seats.size()));
+                throw new SeatUnavailableException(seat.getId(), seat.getSeatNumber(), e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < passengers.size(); i++) {
+            passengerSeatMap.put(passengers.get(i), seats.get(i));
+        }
+    }
+
+    /**
+     * A duplicate key on passenger_seat means the UNIQUE (flight_id, seat_id) guard fired
+     * (MySQL error 1062, SQLSTATE 23505 on other databases)
+     */
+    static boolean isSeatAlreadyBooked(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+
+    /**
+     * Position of the batch entry that failed: the driver reports a count for each entry
+     * it ran, EXECUTE_FAILED for a failed one, and may stop at the first failure
+     */
+    private static int failedIndex(SQLException e, int size) {
+        if (e instanceof BatchUpdateException batch && batch.getUpdateCounts() != null) {
+            int[] counts = batch.getUpdateCounts();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED) {
+                    return i;
+                }
+            }
+            return Math.min(counts.length, size - 1);
         }
+        return 0;
     }
 
     public boolean makeReservation() throws SQLException {
@@ -121,13 +210,52 @@ public class FlightReservation {
         }
     }
     public boolean updateState( ReservationStatus reservationStatus) throws SQLException {
+        try (Connection conn = DbConnection.getInstance()) {
+            return updateState(conn, reservationStatus);
+        }
+    }
+
+    /**
+     * Change the reservation status on the given connection, so it can be part of a larger transaction
+     * @param conn The connection to use; it is not closed
+     * @param reservationStatus The new status
+     * @return true if the reservation row was updated
+     * @throws SQLException if the update fails
+     */
+    public boolean updateState(Connection conn, ReservationStatus reservationStatus) throws SQLException {
         String sql = "UPDATE flightReservation SET status = ? WHERE id = ?";
-        try (Connection conn = DbConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, reservationStatus.name());
             stmt.setInt(2, id);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        this.status = reservationStatus;
+        return true;
+    }
+
+    /**
+     * Change the status only if the reservation is still in the expected one, so two
+     * requests racing on the same reservation cannot both make the transition
+     * @param conn The connection to use; it is not closed
+     * @param from The status the reservation must have
+     * @param to The new status
+     * @return true if this call made the transition, false if the status had already changed
+     * @throws SQLException if the update fails
+     */
+    public boolean transitionState(Connection conn, ReservationStatus from, ReservationStatus to) throws SQLException {
+        String sql = "UPDATE flightReservation SET status = ? WHERE id = ? AND status = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, to.name());
+            stmt.setInt(2, id);
+            stmt.setString(3, from.name());
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
         }
+        this.status = to;
+        return true;
     }
 
     public ArrayList<String> getHistoryFromDB() throws SQLException {
@@ -0,0 +1,285 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import util.*;
+
+/**
+ * In-memory index of every flight by route and day of the week, used by
+ * {@link Flight#search} so searches do not go to the database.
+ *
+ * The index is built from one joined query over flight, weeklySchedule, the airports,
+ * aircraft and airline, plus the customSchedule dates. It is loaded on the first search,
+ * rebuilt when older than the refresh interval or after {@link #invalidate()}, and
+ * updated in place when a flight is added through {@link #addFlight(int)}. The same
+ * snapshot backs the {@link RouteGraph} used for connection searches.
+ */
+public class FlightSearchIndex {
+
+    private static final Log LOG = Log.get(FlightSearchIndex.class);
+
+    private record RouteKey(String from, String to, DayOfWeek day) {}
+
+    private record DateKey(String from, String to, LocalDate date) {}
+
+    /**
+     * One immutable version of the index; updates build a new snapshot and swap it in
+     */
+    private static class Snapshot {
+        final Map<RouteKey, List<Flight>> byDay;
+        final Map<DateKey, List<Flight>> byCustomDate;
+        final List<Flight> flights;
+        final long builtAt;
+        // Built on the first connection search against this snapshot
+        volatile RouteGraph routeGraph;
+
+        Snapshot(Map<RouteKey, List<Flight>> byDay, Map<DateKey, List<Flight>> byCustomDate,
+                 List<Flight> flights, long builtAt) {
+            this.byDay = byDay;
+            this.byCustomDate = byCustomDate;
+            this.flights = flights;
+            this.builtAt = builtAt;
+        }
+    }
+
+    // Full rebuild interval, overridable with -Dflight.index.refreshMs
+    private static final long REFRESH_INTERVAL_MS = Long.getLong("flight.index.refreshMs", 600_000L);
+
+    /**
+     * The published snapshot, or null, with the generation it belongs to. invalidate()
+     * bumps the generation, so a refresh or update that read the old state cannot
+     * publish over it.
+     */
+    private record State(Snapshot snapshot, long generation) {}
+
+    private static final AtomicReference<State> state = new AtomicReference<>(new State(null, 0));
+
+    // Statistics
+    private static final AtomicLong refreshCount = new AtomicLong();
+    private static final AtomicLong lastRefreshNanos = new AtomicLong();
+    private static final AtomicLong incrementalCount = new AtomicLong();
+
+    private FlightSearchIndex() {
+    }
+
+    /**
+     * Find flights between two airports on the given day, including flights with a custom
+     * schedule on the given date
+     * @param from Departure airport code
+     * @param to Arrival airport code
+     * @param flightDay Day of the week to search
+     * @param date The requested travel date, or null to match the weekly schedule only
+     * @return Copies of the matching flights with their related rows loaded
+     * @throws SQLException if the index has to be loaded and the query fails
+     */
+    public static ArrayList<Flight> search(String from, String to, DayOfWeek flightDay, Date date) throws SQLException {
+        Snapshot current = current();
+        String fromCode = normalize(from);
+        String toCode = normalize(to);
+
+        ArrayList<Flight> results = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (Flight flight : current.byDay.getOrDefault(new RouteKey(fromCode, toCode, flightDay), List.of())) {
+            if (seen.add(flight.getId())) {
+                results.add(flight.copy());
+            }
+        }
+        if (date != null) {
+            DateKey dateKey = new DateKey(fromCode, toCode, date.toLocalDate());
+            for (Flight flight : current.byCustomDate.getOrDefault(dateKey, List.of())) {
+                if (seen.add(flight.getId())) {
+                    results.add(flight.copy());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Add a newly inserted flight without rebuilding the whole index. If the index is not
+     * loaded, a load that is running may already have read past the flight, so it is made
+     * to load again.
+     * @param flightId The id of the new flight
+     * @throws SQLException if the flight cannot be loaded
+     */
+    public static void addFlight(int flightId) throws SQLException {
+        if (flightId <= 0) {
+            return;
+        }
+        if (state.get().snapshot() == null) {
+            invalidate();
+            return;
+        }
+
+        Flight flight = null;
+        String sql = Flight.JOINED_SELECT + "WHERE f.id = ?";
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, flightId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    flight = Flight.readJoined(rs);
+                }
+            }
+        }
+        if (flight == null) {
+            return;
+        }
+
+        synchronized (FlightSearchIndex.class) {
+            State observed = state.get();
+            Snapshot current = observed.snapshot();
+            if (current == null) {
+                // Invalidated meanwhile; the next load reads the flight
+                return;
+            }
+            Map<RouteKey, List<Flight>> byDay = new HashMap<>(current.byDay);
+            RouteKey key = routeKey(flight);
+            List<Flight> route = new ArrayList<>(byDay.getOrDefault(key, List.of()));
+            route.removeIf(f -> f.getId() == flightId);
+            route.add(flight);
+            byDay.put(key, Collections.unmodifiableList(route));
+            List<Flight> all = new ArrayList<>(current.flights);
+            all.removeIf(f -> f.getId() == flightId);
+            all.add(flight);
+            Snapshot updated = new Snapshot(byDay, current.byCustomDate, Collections.unmodifiableList(all), current.builtAt);
+            if (!state.compareAndSet(observed, new State(updated, observed.generation()))) {
+                return;
+            }
+        }
+        incrementalCount.incrementAndGet();
+    }
+
+    /**
+     * Drop the index so the next search rebuilds it, used after airports, airlines or
+     * custom schedules change
+     */
+    public static void invalidate() {
+        state.updateAndGet(s -> new State(null, s.generation() + 1));
+    }
+
+    /**
+     * Rebuild the whole index from the database
+     * @return The snapshot that was loaded and published
+     * @throws SQLException if the queries fail
+     */
+    private static synchronized Snapshot refresh() throws SQLException {
+        long start = System.nanoTime();
+        Snapshot loaded;
+        State observed;
+        // An invalidate() during the load may have changed rows already read; load again
+        do {
+            observed = state.get();
+            loaded = load();
+        } while (!state.compareAndSet(observed, new State(loaded, observed.generation())));
+
+        long elapsed = System.nanoTime() - start;
+        lastRefreshNanos.set(elapsed);
+        refreshCount.incrementAndGet();
+        LOG.info("Flight search index loaded", "flights", loaded.flights.size(), "ms", elapsed / 1_000_000);
+        return loaded;
+    }
+
+    private static Snapshot load() throws SQLException {
+        Map<Integer, Flight> flights = new HashMap<>();
+        Map<RouteKey, List<Flight>> byDay = new HashMap<>();
+        try (Connection conn = DbConnection.getInstance()) {
+            try (PreparedStatement stmt = conn.prepareStatement(Flight.JOINED_SELECT);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Flight flight = Flight.readJoined(rs);
+                    flights.put(flight.getId(), flight);
+                    byDay.computeIfAbsent(routeKey(flight), k -> new ArrayList<>()).add(flight);
+                }
+            }
+
+            Map<DateKey, List<Flight>> byCustomDate = new HashMap<>();
+            String sql = "SELECT flight_id, customDate FROM customSchedule WHERE customDate IS NOT NULL";
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Flight flight = flights.get(rs.getInt("flight_id"));
+                    if (flight != null) {
+                        DateKey key = new DateKey(normalize(flight.getDepartureAirport().getCode()),
+                                normalize(flight.getArrivalAirport().getCode()),
+                                rs.getDate("customDate").toLocalDate());
+                        byCustomDate.computeIfAbsent(key, k -> new ArrayList<>()).add(flight);
+                    }
+                }
+            }
+
+            byDay.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            byCustomDate.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            return new Snapshot(byDay, byCustomDate,
+                    Collections.unmodifiableList(new ArrayList<>(flights.values())), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Route graph over every indexed flight, for multi-leg connection searches
+     * @return The graph for the current index contents
+     * @throws SQLException if the index has to be loaded and the query fails
+     */
+    public static RouteGraph getRouteGraph() throws SQLException {
+        Snapshot current = current();
+        RouteGraph graph = current.routeGraph;
+        if (graph == null) {
+            graph = RouteGraph.fromFlights(current.flights);
+            current.routeGraph = graph;
+        }
+        return graph;
+    }
+
+    private static Snapshot current() throws SQLException {
+        Snapshot current = state.get().snapshot();
+        if (stale(current)) {
+            synchronized (FlightSearchIndex.class) {
+                current = state.get().snapshot();
+                if (stale(current)) {
+                    current = refresh();
+                }
+            }
+        }
+        return current;
+    }
+
+    private static boolean stale(Snapshot snapshot) {
+        return snapshot == null || System.currentTimeMillis() - snapshot.builtAt > REFRESH_INTERVAL_MS;
+    }
+
+    private static RouteKey routeKey(Flight flight) {
+        return new RouteKey(normalize(flight.getDepartureAirport().getCode()),
+                normalize(flight.getArrivalAirport().getCode()),
+                flight.getSchedule().getDayOfWeek());
+    }
+
+    private static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase();
+    }
+
+    /**
+     * Number of flights currently in the index
+     * @return The flight count, or 0 if the index is not loaded
+     */
+    public static int size() {
+        Snapshot current = state.get().snapshot();
+        return current == null ? 0 : current.flights.size();
+    }
+
+    public static long getRefreshCount() { return refreshCount.get(); }
+    public static double getLastRefreshMillis() { return lastRefreshNanos.get() / 1_000_000.0; }
+    public static long getIncrementalCount() { return incrementalCount.get(); }
+}
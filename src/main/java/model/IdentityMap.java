@@ -0,0 +1,134 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session-scoped identity map: within one booking session each flight, schedule,
+ * airport, aircraft and airline is loaded once and the same instance is handed to every
+ * screen that asks for it.
+ *
+ * A map is bound to the thread that runs the session by {@link #bind(IdentityMap)}, the
+ * EDT for the client. Background work started for the session (BackgroundTasks, AsyncDao)
+ * binds the map that was active when it was submitted, so its loads share it; other
+ * threads, e.g. API requests, never see it. When no map is bound the loaders go straight
+ * to the database or the reference cache, as before.
+ *
+ * A map holds at most -Didentity.map.maxEntities entities (default 10000); once full,
+ * further loads go to the database without being registered.
+ */
+public class IdentityMap {
+
+    private record Key(Class<?> type, int id) {}
+
+    private static final int MAX_ENTITIES = Integer.getInteger("identity.map.maxEntities", 10_000);
+
+    private static final ThreadLocal<IdentityMap> current = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<Key, Object> entities = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong savedLoads = new AtomicLong();
+    private final AtomicLong unregistered = new AtomicLong();
+
+    /**
+     * Make a map the active one for the calling thread, replacing any previous map
+     * @param map The map to use, or null to turn the identity map off
+     */
+    public static void bind(IdentityMap map) {
+        if (map == null) {
+            current.remove();
+        } else {
+            current.set(map);
+        }
+    }
+
+    /**
+     * Stop using a map on the calling thread, if it is still the active one
+     * @param map The map to unbind
+     */
+    public static void unbind(IdentityMap map) {
+        if (current.get() == map) {
+            current.remove();
+        }
+    }
+
+    /**
+     * @return The map bound to the calling thread, or null; background work passes it on
+     */
+    public static IdentityMap active() {
+        return current.get();
+    }
+
+    /**
+     * Look an entity up in the active map, loading and registering it on first use
+     * @param type The entity class
+     * @param id The entity id
+     * @param loader Loads the entity when it is not in the map
+     * @return The session's instance of the entity
+     * @throws SQLException if the entity has to be loaded and cannot be
+     */
+    static <T> T load(Class<T> type, int id, ReferenceCache.Fetcher<T> loader) throws SQLException {
+        IdentityMap map = current.get();
+        if (map == null) {
+            return loader.fetch(id);
+        }
+        return map.get(type, id, loader);
+    }
+
+    private <T> T get(Class<T> type, int id, ReferenceCache.Fetcher<T> loader) throws SQLException {
+        Key key = new Key(type, id);
+        Object existing = entities.get(key);
+        if (existing != null) {
+            savedLoads.incrementAndGet();
+            return type.cast(existing);
+        }
+        loads.incrementAndGet();
+        T loaded = loader.fetch(id);
+        if (entities.size() >= MAX_ENTITIES) {
+            unregistered.incrementAndGet();
+            return loaded;
+        }
+        Object raced = entities.putIfAbsent(key, loaded);
+        return raced == null ? loaded : type.cast(raced);
+    }
+
+    /**
+     * Register a flight, and the related rows it was loaded with, that the session
+     * already holds, e.g. one picked from the search results
+     * @param flight The flight
+     */
+    public void register(Flight flight) {
+        put(Flight.class, flight.getId(), flight);
+        put(Airport.class, flight.getDepartureAirportId(), flight.getDepartureAirport());
+        put(Airport.class, flight.getArrivalAirportId(), flight.getArrivalAirport());
+        put(WeeklySchedule.class, flight.getFlightScheduleId(), flight.getSchedule());
+        put(Aircraft.class, flight.getAircraftId(), flight.getAircraft());
+        Aircraft aircraft = flight.getAircraft();
+        if (aircraft != null) {
+            put(Airline.class, aircraft.getAirlineId(), flight.getAirline());
+        }
+    }
+
+    private void put(Class<?> type, int id, Object entity) {
+        if (entity != null && id > 0 && entities.size() < MAX_ENTITIES) {
+            entities.putIfAbsent(new Key(type, id), entity);
+        }
+    }
+
+    public int size() { return entities.size(); }
+    public long getLoadCount() { return loads.get(); }
+    public long getSavedLoads() { return savedLoads.get(); }
+    public long getUnregisteredLoads() { return unregistered.get(); }
+
+    /**
+     * Summary of the map counters for logging
+     * @return The counters as text
+     */
+    public String getStats() {
+        return String.format("entities=%d loads=%d savedLoads=%d unregistered=%d",
+                size(), getLoadCount(), getSavedLoads(), getUnregisteredLoads());
+    }
+}
@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import util.*;
 public class Passenger {
     private int id;
@@ -17,6 +18,36 @@ public class Passenger {
         this.passport = passport;
     }
 
+    /**
+     * Insert several passengers for one reservation in a single batch on the given connection
+     * @param conn The connection to use; it is not closed
+     * @param passengers The passengers to insert; their ids are set from the generated keys
+     * @param flightReservationId The reservation they belong to
+     * @throws SQLException if the insert fails
+     */
+    public static void saveAll(Connection conn, List<Passenger> passengers, int flightReservationId) throws SQLException {
+        String sql = "INSERT INTO passenger (user_id, name, passport, flightReservation_id) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            for (Passenger passenger : passengers) {
+                stmt.setObject(1, passenger.userId);
+                stmt.setString(2, passenger.name);
+                stmt.setString(3, passenger.passport);
+                stmt.setInt(4, flightReservationId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (Passenger passenger : passengers) {
+                    if (!rs.next()) {
+                        throw new SQLException("Missing generated key for passenger " + passenger.name);
+                    }
+                    passenger.id = rs.getInt(1);
+                    passenger.flightReservationId = flightReservationId;
+                }
+            }
+        }
+    }
+
     public void save() throws SQLException {
         String sql = "INSERT INTO passenger (user_id, name, passport) VALUES (?, ?, ?)";
         try (Connection conn = DbConnection.getInstance();
@@ -25,9 +25,21 @@ public class Payment {
     }
 
     public void save() throws SQLException {
+        try (Connection conn = DbConnection.getInstance()) {
+            save(conn);
+        }
+        DashboardStats.paymentAdded(paymentAmount);
+    }
+
+    /**
+     * Insert the payment on the given connection, so it can be part of a larger transaction.
+     * The caller reports it to {@link DashboardStats} once the transaction commits.
+     * @param conn The connection to use; it is not closed
+     * @throws SQLException if the insert fails
+     */
+    public void save(Connection conn) throws SQLException {
         String sql = "INSERT INTO payment (user_id, payment_amount, payment_state, payment_method, payment_date) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DbConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, userId);
             stmt.setDouble(2, paymentAmount);
             stmt.setString(3, paymentState.name());
@@ -0,0 +1,146 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import util.DbConnection;
+
+/**
+ * Runs EXPLAIN on the hot queries and fails if any of them has to scan a table because
+ * no index fits, e.g. after a migration dropped an index or a query changed shape.
+ *
+ * On MySQL a plan row fails when its access type is ALL and there are no possible keys.
+ * A scan the optimizer picks even though an index exists is only reported, since it
+ * does that on small tables. On H2 any tableScan in the plan fails.
+ *
+ * Usage: java model.QueryPlanCheck
+ */
+public class QueryPlanCheck {
+
+    private static final class HotQuery {
+        final String name;
+        final String sql;
+        final Object[] params;
+
+        HotQuery(String name, String sql, Object... params) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    private static final List<HotQuery> QUERIES = List.of(
+        new HotQuery("Airport.findByCode", "SELECT * FROM airport WHERE code = ?", "JFK"),
+        new HotQuery("User.loadWithEmail", "SELECT * FROM user WHERE email = ?", "user@example.com"),
+        new HotQuery("Flight.search", Flight.JOINED_SELECT + "WHERE dep.code = ? AND arr.code = ? AND ws.dayOfWeek = ?",
+                "JFK", "LAX", DayOfWeek.MONDAY.name()),
+        new HotQuery("SeatInventory.load", SeatInventory.TAKEN_SEATS_SQL, 1),
+        new HotQuery("User.getReservations", "SELECT id FROM flightReservation WHERE user_id = ?", 1),
+        new HotQuery("BookingHistory.loadPage", BookingHistory.PAGE_SQL, 1, Integer.MAX_VALUE, 50)
+    );
+
+    private QueryPlanCheck() {
+    }
+
+    /**
+     * Explain every hot query and print its plan
+     * @param conn Connection to the database to check
+     * @return The names of the queries that scan a table with no usable index
+     * @throws SQLException if a query cannot be explained
+     */
+    public static List<String> check(Connection conn) throws SQLException {
+        boolean embedded = DbConnection.getProfile().isEmbedded();
+        List<String> failures = new ArrayList<>();
+        for (HotQuery query : QUERIES) {
+            boolean ok = embedded ? checkH2(conn, query) : checkMySql(conn, query);
+            if (!ok) {
+                failures.add(query.name);
+            }
+        }
+        return failures;
+    }
+
+    private static boolean checkMySql(Connection conn, HotQuery query) throws SQLException {
+        boolean ok = true;
+        StringBuilder report = new StringBuilder();
+        for (Map<String, String> row : explain(conn, query)) {
+            String table = row.get("table");
+            String type = row.get("type");
+            String possibleKeys = row.get("possible_keys");
+            String key = row.get("key");
+            String verdict = "";
+            if ("ALL".equals(type)) {
+                if (possibleKeys == null) {
+                    verdict = "  <-- full scan, no usable index";
+                    ok = false;
+                } else {
+                    verdict = "  (scan chosen over " + possibleKeys + ")";
+                }
+            }
+            report.append(String.format("    %-20s type=%-7s key=%s%s%n", table, type, key, verdict));
+        }
+        System.out.print((ok ? "OK    " : "FAIL  ") + query.name + "\n" + report);
+        return ok;
+    }
+
+    private static boolean checkH2(Connection conn, HotQuery query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        for (Map<String, String> row : explain(conn, query)) {
+            for (String value : row.values()) {
+                plan.append(value).append('\n');
+            }
+        }
+        boolean ok = !plan.toString().contains("tableScan");
+        System.out.print((ok ? "OK    " : "FAIL  ") + query.name + "\n");
+        for (String line : plan.toString().split("\n")) {
+            if (line.contains("/*")) {
+                System.out.println("    " + line.trim());
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Run EXPLAIN for a query
+     * @return The plan rows, each mapping lower-cased column labels to values
+     */
+    private static List<Map<String, String>> explain(Connection conn, HotQuery query) throws SQLException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.sql)) {
+            for (int i = 0; i < query.params.length; i++) {
+                stmt.setObject(i + 1, query.params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        row.put(meta.getColumnLabel(i).toLowerCase(), rs.getString(i));
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> failures;
+        try (Connection conn = DbConnection.getInstance()) {
+            failures = check(conn);
+        } finally {
+            DbConnection.closeConnection();
+        }
+        if (!failures.isEmpty()) {
+            System.out.println("Queries without a usable index: " + String.join(", ", failures));
+            System.exit(1);
+        }
+        System.out.println("All hot queries use an index");
+    }
+}
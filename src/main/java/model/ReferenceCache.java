@@ -0,0 +1,193 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-through cache for one kind of reference row (countries, airports, airlines, ...).
+ *
+ * Rows are fetched on the first lookup, or all at once by {@link #getAll()}, and kept
+ * until they are invalidated or older than the TTL. Callers always get a copy, so a
+ * screen that edits the object it loaded cannot change what other screens see. A
+ * generation counter stops a fetch that raced with an invalidation from putting the
+ * stale row back.
+ *
+ * @param <T> The entity type
+ */
+public class ReferenceCache<T> {
+
+    // Entry lifetime, overridable with -Dreference.cache.ttlMs
+    private static final long TTL_MS = Long.getLong("reference.cache.ttlMs", 3_600_000L);
+
+    /**
+     * Loads one row by id from the database
+     */
+    @FunctionalInterface
+    public interface Fetcher<T> {
+        T fetch(int id) throws SQLException;
+    }
+
+    /**
+     * Loads every row from the database
+     */
+    @FunctionalInterface
+    public interface BulkFetcher<T> {
+        List<T> fetchAll() throws SQLException;
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        final long loadedAt;
+
+        Entry(T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isFresh(long now) {
+            return now - loadedAt <= TTL_MS;
+        }
+    }
+
+    private final String name;
+    private final Fetcher<T> fetcher;
+    private final BulkFetcher<T> bulkFetcher;
+    private final ToIntFunction<T> idOf;
+    private final UnaryOperator<T> copier;
+
+    private final ConcurrentHashMap<Integer, Entry<T>> entries = new ConcurrentHashMap<>();
+    // Every row in database order, set only by a bulk load
+    private volatile Entry<List<T>> all;
+    private final AtomicLong generation = new AtomicLong();
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param name Entity name used in the statistics
+     * @param fetcher Loads one row by id
+     * @param bulkFetcher Loads every row
+     * @param idOf Returns an entity's id
+     * @param copier Returns a copy of an entity that is safe to hand out
+     */
+    public ReferenceCache(String name, Fetcher<T> fetcher, BulkFetcher<T> bulkFetcher,
+                          ToIntFunction<T> idOf, UnaryOperator<T> copier) {
+        this.name = name;
+        this.fetcher = fetcher;
+        this.bulkFetcher = bulkFetcher;
+        this.idOf = idOf;
+        this.copier = copier;
+    }
+
+    /**
+     * Get a row by id, fetching it if it is not cached or has expired
+     * @param id The row id
+     * @return A copy of the row
+     * @throws SQLException if the row has to be fetched and cannot be found
+     */
+    public T get(int id) throws SQLException {
+        long now = System.currentTimeMillis();
+        Entry<T> entry = entries.get(id);
+        if (entry != null && entry.isFresh(now)) {
+            hits.incrementAndGet();
+            return copier.apply(entry.value);
+        }
+        misses.incrementAndGet();
+        long gen = generation.get();
+        T value = fetcher.fetch(id);
+        if (generation.get() == gen) {
+            entries.put(id, new Entry<>(value, now));
+        }
+        return copier.apply(value);
+    }
+
+    /**
+     * Get every row, fetching them in one query if the full set is not cached
+     * @return Copies of all rows, in the order the bulk query returned them
+     * @throws SQLException if the rows have to be fetched and the query fails
+     */
+    public ArrayList<T> getAll() throws SQLException {
+        Entry<List<T>> current = all;
+        if (current != null && current.isFresh(System.currentTimeMillis())) {
+            hits.incrementAndGet();
+            return copies(current.value);
+        }
+        misses.incrementAndGet();
+        return copies(refreshAll());
+    }
+
+    /**
+     * Fetch every row and replace the cached contents
+     * @return The fetched rows
+     * @throws SQLException if the query fails
+     */
+    public List<T> refreshAll() throws SQLException {
+        long now = System.currentTimeMillis();
+        long gen = generation.get();
+        List<T> rows = Collections.unmodifiableList(new ArrayList<>(bulkFetcher.fetchAll()));
+        if (generation.get() == gen) {
+            for (T row : rows) {
+                entries.put(idOf.applyAsInt(row), new Entry<>(row, now));
+            }
+            all = new Entry<>(rows, now);
+        }
+        return rows;
+    }
+
+    /**
+     * Drop one row, after it was updated or deleted
+     * @param id The row id
+     */
+    public void invalidate(int id) {
+        generation.incrementAndGet();
+        entries.remove(id);
+        all = null;
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Drop every row, after a change that may touch many of them
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        all = null;
+        invalidations.incrementAndGet();
+    }
+
+    private ArrayList<T> copies(List<T> rows) {
+        ArrayList<T> result = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            result.add(copier.apply(row));
+        }
+        return result;
+    }
+
+    public String getName() { return name; }
+    public int size() { return entries.size(); }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getInvalidations() { return invalidations.get(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Summary of the cache counters for logging and the admin dashboard
+     * @return The counters as text
+     */
+    public String getStats() {
+        return String.format("%s: size=%d hits=%d misses=%d hitRate=%.1f%% invalidations=%d",
+                name, size(), getHits(), getMisses(), getHitRate() * 100, getInvalidations());
+    }
+}
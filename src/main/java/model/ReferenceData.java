@@ -0,0 +1,89 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.List;
+import util.Log;
+
+/**
+ * Entry point for the reference data caches (countries, airports, airlines, aircraft and
+ * roles). These rows change rarely, so they are loaded in bulk at startup and then served
+ * from memory by the entities' load methods. Admin screens that change them call the
+ * matching invalidate method.
+ */
+public class ReferenceData {
+
+    private static final Log LOG = Log.get(ReferenceData.class);
+
+    private ReferenceData() {
+    }
+
+    private static List<ReferenceCache<?>> caches() {
+        return List.of(Country.cache, Airport.cache, Airline.cache, Aircraft.cache, Role.cache);
+    }
+
+    /**
+     * Load every reference table into the caches with one query per table
+     * @throws SQLException if a query fails
+     */
+    public static void warmUp() throws SQLException {
+        long start = System.nanoTime();
+        int rows = 0;
+        for (ReferenceCache<?> cache : caches()) {
+            rows += cache.refreshAll().size();
+        }
+        LOG.info("Reference data cache loaded", "rows", rows, "ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Drop a changed or deleted airport
+     * @param airportId The airport id
+     */
+    public static void invalidateAirport(int airportId) {
+        Airport.cache.invalidate(airportId);
+    }
+
+    /**
+     * Drop a changed or deleted airline, and its aircraft since deleting an airline
+     * deletes them too
+     * @param airlineId The airline id
+     */
+    public static void invalidateAirline(int airlineId) {
+        Airline.cache.invalidate(airlineId);
+        Aircraft.cache.invalidateAll();
+    }
+
+    /**
+     * Drop the cached countries, after one was added outside {@link Country#save()},
+     * e.g. by {@link Country#idForName(String)}
+     */
+    public static void invalidateCountries() {
+        Country.cache.invalidateAll();
+    }
+
+    /**
+     * Drop everything, so the next lookups go back to the database
+     */
+    public static void invalidateAll() {
+        for (ReferenceCache<?> cache : caches()) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Per-entity cache counters for logging and the admin dashboard
+     * @return One line of counters per entity
+     */
+    public static String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (ReferenceCache<?> cache : caches()) {
+            sb.append(cache.getStats()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static ReferenceCache<Country> getCountryCache() { return Country.cache; }
+    public static ReferenceCache<Airport> getAirportCache() { return Airport.cache; }
+    public static ReferenceCache<Airline> getAirlineCache() { return Airline.cache; }
+    public static ReferenceCache<Aircraft> getAircraftCache() { return Aircraft.cache; }
+    public static ReferenceCache<Role> getRoleCache() { return Role.cache; }
+}
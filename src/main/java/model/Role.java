@@ -9,6 +9,9 @@ public class Role {
     private int id;
     private String roleName;
     private String description;
+
+    static final ReferenceCache<Role> cache = new ReferenceCache<>(
+            "role", Role::fetch, Role::fetchAll, Role::getId, Role::copy);
     
     public Role(int id, String roleName, String description) {
         this.id = id;
@@ -42,6 +45,7 @@ public class Role {
                 }
             }
         }
+        cache.invalidate(id);
     }
     
     
@@ -61,7 +65,26 @@ public class Role {
             }
         }
     }
+    /**
+     * Load a role, from the reference cache when possible
+     * @param id The role id
+     * @return The role
+     * @throws SQLException if the role does not exist
+     */
     public static Role load(int id) throws SQLException {
+        return cache.get(id);
+    }
+
+    /**
+     * Load every role, from the reference cache when possible
+     * @return All roles
+     * @throws SQLException if the query fails
+     */
+    public static ArrayList<Role> loadAll() throws SQLException {
+        return cache.getAll();
+    }
+
+    private static Role fetch(int id) throws SQLException {
         String sql = "SELECT * FROM role WHERE id = ?";
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -79,7 +102,7 @@ public class Role {
         }
     }
     
-    public static ArrayList<Role> loadAll() throws SQLException {
+    private static ArrayList<Role> fetchAll() throws SQLException {
         ArrayList<Role> roles = new ArrayList<>();
         String sql = "SELECT * FROM role";
         try (Connection conn = DbConnection.getInstance();
@@ -109,8 +132,13 @@ public class Role {
                 throw new SQLException("Update failed");
             }
         }
+        cache.invalidate(id);
     }
     
+    private Role copy() {
+        return new Role(id, roleName, description);
+    }
+
     // Getters and setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
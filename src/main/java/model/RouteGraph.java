@@ -0,0 +1,393 @@
+package model;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Weekly route network used to find connecting itineraries.
+ *
+ * Airports are nodes and each scheduled flight is an edge departing at a minute of the
+ * week (Sunday 00:00 is minute 0). Every airport keeps its departures sorted by that
+ * minute, so the flights that can be caught after an arrival are found with a binary
+ * search instead of a query per hop. Schedules repeat weekly, so a connection may wrap
+ * past Saturday midnight into the next week.
+ */
+public class RouteGraph {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    // Connection window, overridable with -Droute.minConnectionMinutes / -Droute.maxConnectionMinutes
+    private static final int DEFAULT_MIN_CONNECTION = Integer.getInteger("route.minConnectionMinutes", 45);
+    private static final int DEFAULT_MAX_CONNECTION = Integer.getInteger("route.maxConnectionMinutes", MINUTES_PER_DAY);
+
+    /**
+     * A scheduled flight between two airports
+     */
+    public static class Edge {
+        private final int flightId;
+        private final String from;
+        private final String to;
+        private final int departureMinute;
+        private final int durationMinutes;
+        private final Flight flight;
+
+        public Edge(int flightId, String from, String to, int departureMinute, int durationMinutes) {
+            this(flightId, from, to, departureMinute, durationMinutes, null);
+        }
+
+        private Edge(int flightId, String from, String to, int departureMinute, int durationMinutes, Flight flight) {
+            if (departureMinute < 0 || departureMinute >= MINUTES_PER_WEEK) {
+                throw new IllegalArgumentException("Departure minute must be within the week: " + departureMinute);
+            }
+            this.flightId = flightId;
+            this.from = from.trim().toUpperCase();
+            this.to = to.trim().toUpperCase();
+            this.departureMinute = departureMinute;
+            this.durationMinutes = durationMinutes;
+            this.flight = flight;
+        }
+
+        /**
+         * Build an edge from a flight loaded with its airports and weekly schedule
+         * @param flight The flight
+         * @return The edge, or null if the flight has no duration or related rows loaded
+         */
+        public static Edge of(Flight flight) {
+            if (flight.getDuration() == null || flight.getDepartureAirport() == null
+                    || flight.getArrivalAirport() == null || flight.getSchedule() == null) {
+                return null;
+            }
+            WeeklySchedule schedule = flight.getSchedule();
+            Time time = schedule.getDepartureTime();
+            int minuteOfDay = time == null ? 0 : time.toLocalTime().toSecondOfDay() / 60;
+            return new Edge(flight.getId(),
+                    flight.getDepartureAirport().getCode(),
+                    flight.getArrivalAirport().getCode(),
+                    schedule.getDayOfWeek().ordinal() * MINUTES_PER_DAY + minuteOfDay,
+                    flight.getDuration(),
+                    flight);
+        }
+
+        public int getFlightId() { return flightId; }
+        public String getFrom() { return from; }
+        public String getTo() { return to; }
+        public int getDepartureMinute() { return departureMinute; }
+        public int getDurationMinutes() { return durationMinutes; }
+        /** The flight this edge was built from, or null for edges built directly */
+        public Flight getFlight() { return flight; }
+
+        @Override
+        public String toString() {
+            return from + "->" + to + " #" + flightId;
+        }
+    }
+
+    /**
+     * A sequence of flights from origin to destination with the connection times between them
+     */
+    public static class Itinerary {
+        private final List<Edge> legs;
+        private final int departureMinute;
+        private final int arrivalMinute;
+
+        Itinerary(List<Edge> legs, int departureMinute, int arrivalMinute) {
+            this.legs = legs;
+            this.departureMinute = departureMinute;
+            this.arrivalMinute = arrivalMinute;
+        }
+
+        public List<Edge> getLegs() { return legs; }
+        public int getStops() { return legs.size() - 1; }
+        /** Minute of the week the first leg departs */
+        public int getDepartureMinute() { return departureMinute; }
+        /** Minutes after the start of the departure week that the last leg lands; may exceed a week */
+        public int getArrivalMinute() { return arrivalMinute; }
+        public int getElapsedMinutes() { return arrivalMinute - departureMinute; }
+
+        @Override
+        public String toString() {
+            return legs + " (" + getElapsedMinutes() + " min)";
+        }
+    }
+
+    /**
+     * All flights between one pair of airports, sorted by departure minute
+     */
+    private static class Route {
+        final Edge[] edges;
+        final int[] minutes;
+
+        Route(List<Edge> list) {
+            this.edges = sortByDeparture(list);
+            this.minutes = departureMinutes(edges);
+        }
+    }
+
+    private final Map<String, Integer> nodes = new HashMap<>();
+    private final Edge[][] departures;
+    private final int[][] departureMinutes;
+    // Node each departure lands at, parallel to departures; edges are the caller's and are
+    // not modified
+    private final int[][] departureTargets;
+    // Per airport, the destinations it flies to (sorted) and the flights on each route
+    private final int[][] routeTargets;
+    private final Route[][] routes;
+    private final int edgeCount;
+    private final int minConnection;
+    private final int maxConnection;
+
+    public RouteGraph(Collection<Edge> edges) {
+        this(edges, DEFAULT_MIN_CONNECTION, DEFAULT_MAX_CONNECTION);
+    }
+
+    /**
+     * Build the graph from an in-memory list of flights
+     * @param edges The flights
+     * @param minConnectionMinutes Shortest allowed time between landing and the next departure
+     * @param maxConnectionMinutes Longest allowed time between landing and the next departure
+     */
+    public RouteGraph(Collection<Edge> edges, int minConnectionMinutes, int maxConnectionMinutes) {
+        this.minConnection = minConnectionMinutes;
+        this.maxConnection = maxConnectionMinutes;
+
+        List<List<Edge>> adjacency = new ArrayList<>();
+        for (Edge edge : edges) {
+            int fromNode = node(edge.from, adjacency);
+            node(edge.to, adjacency);
+            adjacency.get(fromNode).add(edge);
+        }
+
+        int count = adjacency.size();
+        this.departures = new Edge[count][];
+        this.departureMinutes = new int[count][];
+        this.departureTargets = new int[count][];
+        this.routeTargets = new int[count][];
+        this.routes = new Route[count][];
+        for (int i = 0; i < count; i++) {
+            departures[i] = sortByDeparture(adjacency.get(i));
+            departureMinutes[i] = departureMinutes(departures[i]);
+            departureTargets[i] = new int[departures[i].length];
+
+            TreeMap<Integer, List<Edge>> byTarget = new TreeMap<>();
+            for (int j = 0; j < departures[i].length; j++) {
+                Edge edge = departures[i][j];
+                int target = nodes.get(edge.to);
+                departureTargets[i][j] = target;
+                byTarget.computeIfAbsent(target, k -> new ArrayList<>()).add(edge);
+            }
+            routeTargets[i] = new int[byTarget.size()];
+            routes[i] = new Route[byTarget.size()];
+            int j = 0;
+            for (Map.Entry<Integer, List<Edge>> entry : byTarget.entrySet()) {
+                routeTargets[i][j] = entry.getKey();
+                routes[i][j] = new Route(entry.getValue());
+                j++;
+            }
+        }
+        this.edgeCount = edges.size();
+    }
+
+    /**
+     * Build the graph from loaded flights, skipping any without a duration or schedule
+     * @param flights Flights with their airports and weekly schedule loaded
+     * @return The route graph
+     */
+    public static RouteGraph fromFlights(Collection<Flight> flights) {
+        List<Edge> edges = new ArrayList<>(flights.size());
+        for (Flight flight : flights) {
+            Edge edge = Edge.of(flight);
+            if (edge != null) {
+                edges.add(edge);
+            }
+        }
+        return new RouteGraph(edges);
+    }
+
+    private int node(String code, List<List<Edge>> adjacency) {
+        Integer index = nodes.get(code);
+        if (index == null) {
+            index = adjacency.size();
+            nodes.put(code, index);
+            adjacency.add(new ArrayList<>());
+        }
+        return index;
+    }
+
+    private Route route(int from, int to) {
+        int index = Arrays.binarySearch(routeTargets[from], to);
+        return index < 0 ? null : routes[from][index];
+    }
+
+    private static Edge[] sortByDeparture(List<Edge> list) {
+        Edge[] sorted = list.toArray(new Edge[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(Edge::getDepartureMinute));
+        return sorted;
+    }
+
+    private static int[] departureMinutes(Edge[] sorted) {
+        int[] minutes = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            minutes[i] = sorted[i].departureMinute;
+        }
+        return minutes;
+    }
+
+    /**
+     * Find the fastest itineraries between two airports with at most the given number of stops
+     * @param from Departure airport code
+     * @param to Arrival airport code
+     * @param day Day the first leg departs, or null for any day of the week
+     * @param maxStops Maximum number of connections (0 to 2)
+     * @param limit Maximum number of itineraries to return
+     * @return Itineraries ordered by total elapsed time, fastest first
+     */
+    public List<Itinerary> findItineraries(String from, String to, DayOfWeek day, int maxStops, int limit) {
+        if (maxStops < 0 || maxStops > 2) {
+            throw new IllegalArgumentException("Only 0 to 2 stops are supported");
+        }
+        Integer origin = nodes.get(from.trim().toUpperCase());
+        Integer destination = nodes.get(to.trim().toUpperCase());
+        if (origin == null || destination == null || origin.equals(destination) || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Max-heap on elapsed time holding the best itineraries found so far
+        PriorityQueue<Itinerary> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingInt(Itinerary::getElapsedMinutes).reversed());
+        int o = origin;
+        int d = destination;
+
+        for (int i = 0; i < departures[o].length; i++) {
+            Edge first = departures[o][i];
+            int hub1 = departureTargets[o][i];
+            if (day != null && first.departureMinute / MINUTES_PER_DAY != day.ordinal()) {
+                continue;
+            }
+            int start = first.departureMinute;
+            int landed1 = start + first.durationMinutes;
+            if (hub1 == d) {
+                offer(best, limit, start, landed1, first);
+                continue;
+            }
+            if (maxStops < 1 || hub1 == o || !canImprove(best, limit, landed1 - start)) {
+                continue;
+            }
+
+            // One stop: flights straight from the first hub to the destination
+            Route onward = route(hub1, d);
+            if (onward != null) {
+                finish(best, limit, onward, start, landed1, first, null);
+            }
+            if (maxStops < 2) {
+                continue;
+            }
+
+            // Two stops: any departure from the first hub within the connection window
+            // that reaches an airport with flights to the destination
+            Edge[] out = departures[hub1];
+            int[] minutes = departureMinutes[hub1];
+            int[] targets = departureTargets[hub1];
+            int readyAt = landed1 + minConnection;
+            int from1 = firstConnection(minutes, readyAt);
+            for (int k = 0; k < out.length; k++) {
+                int index = (from1 + k) % out.length;
+                Edge second = out[index];
+                int depart2 = nextDeparture(second, readyAt);
+                if (depart2 - landed1 > maxConnection || !canImprove(best, limit, depart2 - start)) {
+                    // Later departures can only be slower
+                    break;
+                }
+                int hub2 = targets[index];
+                if (hub2 == d || hub2 == o || hub2 == hub1) {
+                    continue;
+                }
+                Route last = route(hub2, d);
+                if (last != null) {
+                    finish(best, limit, last, start, depart2 + second.durationMinutes, first, second);
+                }
+            }
+        }
+
+        List<Itinerary> results = new ArrayList<>(best);
+        results.sort(Comparator.comparingInt(Itinerary::getElapsedMinutes));
+        return results;
+    }
+
+    /**
+     * Offer every final leg on the route that can be caught after landing at its origin
+     */
+    private void finish(PriorityQueue<Itinerary> best, int limit, Route route, int start, int landed,
+                        Edge first, Edge second) {
+        int readyAt = landed + minConnection;
+        int from = firstConnection(route.minutes, readyAt);
+        for (int k = 0; k < route.edges.length; k++) {
+            Edge last = route.edges[(from + k) % route.edges.length];
+            int depart = nextDeparture(last, readyAt);
+            if (depart - landed > maxConnection || !canImprove(best, limit, depart - start)) {
+                break;
+            }
+            int arrival = depart + last.durationMinutes;
+            if (second == null) {
+                offer(best, limit, start, arrival, first, last);
+            } else {
+                offer(best, limit, start, arrival, first, second, last);
+            }
+        }
+    }
+
+    /**
+     * Index of the first departure at or after the given time of the week, wrapping to 0
+     */
+    private static int firstConnection(int[] minutes, int readyAt) {
+        if (minutes.length == 0) {
+            return 0;
+        }
+        int key = readyAt % MINUTES_PER_WEEK;
+        int index = Arrays.binarySearch(minutes, key);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Step back to the first of several departures at the same minute
+            while (index > 0 && minutes[index - 1] == key) {
+                index--;
+            }
+        }
+        return index == minutes.length ? 0 : index;
+    }
+
+    /**
+     * Absolute minute the edge next departs at or after readyAt, counting from the start week
+     */
+    private static int nextDeparture(Edge edge, int readyAt) {
+        int wait = Math.floorMod(edge.departureMinute - readyAt, MINUTES_PER_WEEK);
+        return readyAt + wait;
+    }
+
+    private static boolean canImprove(PriorityQueue<Itinerary> best, int limit, int elapsed) {
+        return best.size() < limit || elapsed < best.peek().getElapsedMinutes();
+    }
+
+    private static void offer(PriorityQueue<Itinerary> best, int limit, int start, int arrival, Edge... legs) {
+        if (!canImprove(best, limit, arrival - start)) {
+            return;
+        }
+        best.add(new Itinerary(Collections.unmodifiableList(Arrays.asList(legs)), start, arrival));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    public int getAirportCount() { return departures.length; }
+    public int getEdgeCount() { return edgeCount; }
+    public List<String> getAirportCodes() { return new ArrayList<>(nodes.keySet()); }
+}
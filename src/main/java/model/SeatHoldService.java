@@ -0,0 +1,168 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived seat holds taken while a customer picks seats and pays.
+ *
+ * A hold reserves a (flight, seat) pair for one booking session until it is confirmed,
+ * released or its TTL runs out, so two customers can't both select the same seat and
+ * only find out at payment time. Holds live in a concurrent map and are claimed with a
+ * single atomic compute, so no locks are taken. A background thread sweeps expired
+ * holds. The UNIQUE (flight_id, seat_id) constraint on passenger_seat remains the final
+ * guard against double booking.
+ */
+public class SeatHoldService {
+
+    // Hold lifetime, overridable with -Dseat.hold.ttlMs
+    private static final long TTL_MS = Long.getLong("seat.hold.ttlMs", 600_000L);
+    private static final long SWEEP_INTERVAL_MS = Math.max(1_000L, Math.min(TTL_MS / 2, 30_000L));
+
+    private static final class Hold {
+        final String holder;
+        final long expiresAt;
+
+        Hold(String holder, long expiresAt) {
+            this.holder = holder;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private static final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+
+    // Statistics
+    private static final AtomicLong holdCount = new AtomicLong();
+    private static final AtomicLong rejectedCount = new AtomicLong();
+    private static final AtomicLong confirmedCount = new AtomicLong();
+    private static final AtomicLong releasedCount = new AtomicLong();
+    private static final AtomicLong expiredCount = new AtomicLong();
+
+    private static final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "seat-hold-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        sweeper.scheduleWithFixedDelay(SeatHoldService::sweep,
+                SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private SeatHoldService() {
+    }
+
+    private static long key(int flightId, int seatId) {
+        return ((long) flightId << 32) | (seatId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Hold a seat for a booking session, or extend the session's existing hold
+     * @param flightId The flight
+     * @param seatId The seat
+     * @param holder The booking session taking the hold
+     * @return true if the session now holds the seat, false if another session holds it
+     */
+    public static boolean hold(int flightId, int seatId, String holder) {
+        long now = System.currentTimeMillis();
+        Hold mine = new Hold(holder, now + TTL_MS);
+        Hold result = holds.compute(key(flightId, seatId), (k, existing) ->
+                existing == null || existing.isExpired(now) || existing.holder.equals(holder) ? mine : existing);
+        if (result == mine) {
+            holdCount.incrementAndGet();
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Release a seat held by the given session; holds owned by other sessions are left alone
+     * @param flightId The flight
+     * @param seatId The seat
+     * @param holder The booking session that took the hold
+     */
+    public static void release(int flightId, int seatId, String holder) {
+        boolean[] removed = new boolean[1];
+        holds.computeIfPresent(key(flightId, seatId), (k, existing) -> {
+            if (existing.holder.equals(holder)) {
+                removed[0] = true;
+                return null;
+            }
+            return existing;
+        });
+        if (removed[0]) {
+            releasedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Release every hold taken by a session, used when a booking is abandoned
+     * @param holder The booking session
+     */
+    public static void releaseAll(String holder) {
+        holds.forEach((k, hold) -> {
+            if (hold.holder.equals(holder) && holds.remove(k, hold)) {
+                releasedCount.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Convert a hold into a booking once the seat has been written to passenger_seat
+     * @param flightId The flight
+     * @param seatId The seat
+     * @param holder The booking session that took the hold
+     */
+    public static void confirm(int flightId, int seatId, String holder) {
+        Hold hold = holds.get(key(flightId, seatId));
+        if (hold != null && hold.holder.equals(holder) && holds.remove(key(flightId, seatId), hold)) {
+            confirmedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Check whether a seat is held by a session other than the given one
+     * @param flightId The flight
+     * @param seatId The seat
+     * @param holder The asking session
+     * @return true if another session holds an unexpired hold on the seat
+     */
+    public static boolean isHeldByOther(int flightId, int seatId, String holder) {
+        Hold hold = holds.get(key(flightId, seatId));
+        return hold != null && !hold.isExpired(System.currentTimeMillis()) && !hold.holder.equals(holder);
+    }
+
+    private static void sweep() {
+        long now = System.currentTimeMillis();
+        holds.forEach((k, hold) -> {
+            if (hold.isExpired(now) && holds.remove(k, hold)) {
+                expiredCount.incrementAndGet();
+            }
+        });
+    }
+
+    public static int getActiveHolds() { return holds.size(); }
+    public static long getHoldCount() { return holdCount.get(); }
+    public static long getRejectedCount() { return rejectedCount.get(); }
+    public static long getConfirmedCount() { return confirmedCount.get(); }
+    public static long getReleasedCount() { return releasedCount.get(); }
+    public static long getExpiredCount() { return expiredCount.get(); }
+
+    /**
+     * Summary of the hold counters for logging and the admin dashboard
+     * @return The counters as text
+     */
+    public static String getStats() {
+        return String.format("active=%d holds=%d rejected=%d confirmed=%d released=%d expired=%d",
+                getActiveHolds(), getHoldCount(), getRejectedCount(), getConfirmedCount(),
+                getReleasedCount(), getExpiredCount());
+    }
+}
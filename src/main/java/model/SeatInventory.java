@@ -0,0 +1,177 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import util.*;
+
+/**
+ * Seat availability for one flight.
+ *
+ * The aircraft's seats are numbered by ordinal (position when sorted by seat id) and a
+ * bitset marks the taken ones, so availability checks and updates are O(1) and free
+ * counts per seat class are kept alongside. Inventories are cached per flight and
+ * reloaded once they are older than the TTL, so bookings made by other clients show
+ * up without a query on every check.
+ *
+ * Reservations only record a booking date, not a travel date, so seats are tracked per
+ * flight rather than per (flight, date).
+ */
+public class SeatInventory {
+
+    // Reload interval, overridable with -Dseat.inventory.ttlMs
+    private static final long TTL_MS = Long.getLong("seat.inventory.ttlMs", 30_000L);
+
+    private static final ConcurrentHashMap<Integer, SeatInventory> cache = new ConcurrentHashMap<>();
+
+    // Booked seats carry their flight, so this reads the (flight_id, seat_id) key alone
+    static final String TAKEN_SEATS_SQL = "SELECT seat_id FROM passenger_seat WHERE flight_id = ?";
+
+    private final int flightId;
+    private final int aircraftId;
+    private final Seat[] seats;
+    private final int[] seatIds;
+    private final BitSet taken;
+    private final int[] freeByClass = new int[SeatClass.values().length];
+    private final long loadedAt = System.currentTimeMillis();
+
+    private SeatInventory(int flightId, int aircraftId, List<Seat> aircraftSeats) {
+        this.flightId = flightId;
+        this.aircraftId = aircraftId;
+        this.seats = aircraftSeats.toArray(new Seat[0]);
+        Arrays.sort(seats, (a, b) -> Integer.compare(a.getId(), b.getId()));
+        this.seatIds = new int[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            seatIds[i] = seats[i].getId();
+            freeByClass[seats[i].getSeatClass().ordinal()]++;
+        }
+        this.taken = new BitSet(seats.length);
+    }
+
+    /**
+     * Get the seat inventory for a flight, loading it if it is not cached or has expired
+     * @param flightId The flight
+     * @param aircraft The aircraft flying it
+     * @return The flight's seat inventory
+     * @throws SQLException if the seats or bookings cannot be loaded
+     */
+    public static SeatInventory forFlight(int flightId, Aircraft aircraft) throws SQLException {
+        SeatInventory inventory = cache.get(flightId);
+        if (inventory != null && inventory.aircraftId == aircraft.getId()
+                && System.currentTimeMillis() - inventory.loadedAt <= TTL_MS) {
+            return inventory;
+        }
+        inventory = load(flightId, aircraft);
+        cache.put(flightId, inventory);
+        return inventory;
+    }
+
+    private static SeatInventory load(int flightId, Aircraft aircraft) throws SQLException {
+        SeatInventory inventory = new SeatInventory(flightId, aircraft.getId(), aircraft.getSeats());
+
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(TAKEN_SEATS_SQL)) {
+            stmt.setInt(1, flightId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    inventory.markTaken(rs.getInt("seat_id"));
+                }
+            }
+        }
+        return inventory;
+    }
+
+    /**
+     * Record a booked seat in the cached inventory, if the flight is cached
+     * @param flightId The flight
+     * @param seatId The seat that was booked
+     */
+    public static void seatBooked(int flightId, int seatId) {
+        SeatInventory inventory = cache.get(flightId);
+        if (inventory != null) {
+            inventory.markTaken(seatId);
+        }
+    }
+
+    /**
+     * Drop a flight's cached inventory so the next lookup reloads it
+     * @param flightId The flight
+     */
+    public static void invalidate(int flightId) {
+        cache.remove(flightId);
+    }
+
+    private int ordinal(int seatId) {
+        return Arrays.binarySearch(seatIds, seatId);
+    }
+
+    /**
+     * Check whether a seat is free on this flight
+     * @param seatId The seat id
+     * @return true if the seat belongs to the aircraft and is not booked
+     */
+    public synchronized boolean isAvailable(int seatId) {
+        int ordinal = ordinal(seatId);
+        return ordinal >= 0 && !taken.get(ordinal);
+    }
+
+    /**
+     * Mark a seat as booked
+     * @param seatId The seat id
+     * @return true if the seat was free and is now taken
+     */
+    public synchronized boolean markTaken(int seatId) {
+        int ordinal = ordinal(seatId);
+        if (ordinal < 0 || taken.get(ordinal)) {
+            return false;
+        }
+        taken.set(ordinal);
+        freeByClass[seats[ordinal].getSeatClass().ordinal()]--;
+        return true;
+    }
+
+    /**
+     * Mark a seat as free again
+     * @param seatId The seat id
+     * @return true if the seat was taken and is now free
+     */
+    public synchronized boolean release(int seatId) {
+        int ordinal = ordinal(seatId);
+        if (ordinal < 0 || !taken.get(ordinal)) {
+            return false;
+        }
+        taken.clear(ordinal);
+        freeByClass[seats[ordinal].getSeatClass().ordinal()]++;
+        return true;
+    }
+
+    /**
+     * Get the seats that are still free, in seat id order
+     * @return The available seats
+     */
+    public synchronized List<Seat> getAvailableSeats() {
+        List<Seat> available = new ArrayList<>(seats.length - taken.cardinality());
+        for (int i = taken.nextClearBit(0); i < seats.length; i = taken.nextClearBit(i + 1)) {
+            available.add(seats[i]);
+        }
+        return available;
+    }
+
+    public synchronized int getFreeCount(SeatClass seatClass) {
+        return freeByClass[seatClass.ordinal()];
+    }
+
+    public synchronized int getFreeCount() {
+        return seats.length - taken.cardinality();
+    }
+
+    public int getFlightId() { return flightId; }
+    public int getAircraftId() { return aircraftId; }
+    public int getCapacity() { return seats.length; }
+}
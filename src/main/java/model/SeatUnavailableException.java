@@ -0,0 +1,30 @@
+package model;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when a seat being booked is held by another session or already booked.
+ */
+public class SeatUnavailableException extends SQLException {
+    private final int seatId;
+    private final String seatNumber;
+
+    public SeatUnavailableException(int seatId, String seatNumber) {
+        this(seatId, seatNumber, null);
+    }
+
+    /**
+     * @param seatId The seat
+     * @param seatNumber The seat number shown to the customer, or null if unknown
+     * @param cause The duplicate-key error from passenger_seat, or null
+     */
+    public SeatUnavailableException(int seatId, String seatNumber, SQLException cause) {
+        super("Seat " + (seatNumber != null ? seatNumber : String.valueOf(seatId)) + " is no longer available",
+                cause != null ? cause.getSQLState() : null, cause);
+        this.seatId = seatId;
+        this.seatNumber = seatNumber;
+    }
+
+    public int getSeatId() { return seatId; }
+    public String getSeatNumber() { return seatNumber; }
+}
@@ -64,10 +64,13 @@ public class User {
                 }
             }
         }
+        DashboardStats.userAdded();
+        AdminSearchIndex.userAdded(id, username, email);
     }
 
     public static User loadWithId(int id) throws SQLException {
         String sql = "SELECT * FROM user WHERE id = ?";
+        User user;
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -84,21 +87,21 @@ public class User {
                     Timestamp createdAt = rs.getTimestamp("created_at");
                     Timestamp updatedAt = rs.getTimestamp("updated_at");
 
-                    User user = new User(userId, username, email, phone, password, createdAt, updatedAt, age, roleId);
-                    
-                    // Load role
-                    user.role = Role.load(roleId);
-                    
-                    return user;
+                    user = new User(userId, username, email, phone, password, createdAt, updatedAt, age, roleId);
                 } else {
                     throw new SQLException("User not found");
                 }
             }
         }
+
+        // Load role once the connection is back in the pool
+        user.role = Role.load(user.roleId);
+        return user;
     }
 
     public static User loadWithEmail(String email) throws SQLException {
         String sql = "SELECT * FROM user WHERE email = ?";
+        User user;
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -116,12 +119,7 @@ public class User {
                     Timestamp createdAt = rs.getTimestamp("created_at");
                     Timestamp updatedAt = rs.getTimestamp("updated_at");
 
-                    User user = new User(id, username, emailValue, phone, password, createdAt, updatedAt, age, roleId);
-                    
-                    // Load role
-                    user.role = Role.load(roleId);
-                    
-                    return user;
+                    user = new User(id, username, emailValue, phone, password, createdAt, updatedAt, age, roleId);
                 } else {
                     return null;
                 }
@@ -129,6 +127,10 @@ public class User {
                 throw new SQLException("User not found");
             }
         }
+
+        // Load role once the connection is back in the pool
+        user.role = Role.load(user.roleId);
+        return user;
     }
 
     public void register() throws SQLException {
@@ -227,6 +229,7 @@ public class User {
                 throw new SQLException("Update failed");
             }
         }
+        AdminSearchIndex.userUpdated(id, username, email);
     }
     
     /**
@@ -42,7 +42,17 @@ public class WeeklySchedule {
         }
     }
 
+    /**
+     * Load a schedule, reusing the booking session's instance if it already has one
+     * @param id The schedule id
+     * @return The schedule
+     * @throws SQLException if the schedule does not exist
+     */
     public static WeeklySchedule load(int id) throws SQLException {
+        return IdentityMap.load(WeeklySchedule.class, id, WeeklySchedule::fetch);
+    }
+
+    private static WeeklySchedule fetch(int id) throws SQLException {
         String sql = "SELECT * FROM weeklySchedule WHERE id = ?";
         try (Connection conn = DbConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -66,6 +76,15 @@ public class WeeklySchedule {
 
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
+
+    WeeklySchedule copy() {
+        WeeklySchedule schedule = new WeeklySchedule(dayOfWeek,
+                departureTime != null ? new Time(departureTime.getTime()) : null,
+                customDate != null ? new Date(customDate.getTime()) : null);
+        schedule.setId(id);
+        return schedule;
+    }
+
     public DayOfWeek getDayOfWeek() { return dayOfWeek; }
     public void setDayOfWeek(DayOfWeek dayOfWeek) { this.dayOfWeek = dayOfWeek; }
     public Time getDepartureTime() { return departureTime; }
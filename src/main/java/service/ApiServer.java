@@ -0,0 +1,414 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import model.*;
+import util.*;
+
+/**
+ * Headless HTTP front end for {@link SearchService} and {@link BookingService}, so the
+ * booking flow can be driven by load generators and non-Swing clients.
+ *
+ * Built on the JDK's com.sun.net.httpserver with one virtual thread per request.
+ * Requests take query or form-encoded parameters and responses are JSON. There is no
+ * authentication, so the server binds to the loopback address unless -Dapi.host says
+ * otherwise.
+ *
+ * <pre>
+ * GET    /api/search?from=&amp;to=&amp;date=YYYY-MM-DD
+ * GET    /api/connections?from=&amp;to=[&amp;date=][&amp;maxStops=][&amp;limit=]
+ * GET    /api/seats?flightId=
+ * POST   /api/holds            flightId, seatId, session
+ * DELETE /api/holds?flightId=&amp;seatId=&amp;session=
+ * POST   /api/bookings         userId, flightId, session, name*, passport*, seatId*[, method, amount]
+ * POST   /api/payments         userId, reservationId, method, amount
+ * GET    /api/history?userId=[&amp;cursor=][&amp;limit=]
+ * GET    /api/stats
+ * </pre>
+ *
+ * A payment amount must equal the server's price for the seats (BookingService.quote),
+ * otherwise the request fails with 400.
+ *
+ * Usage: java service.ApiServer [port]
+ */
+public class ApiServer {
+
+    @FunctionalInterface
+    private interface Route {
+        String handle(Map<String, List<String>> params) throws SQLException;
+    }
+
+    // Slowest SQL shapes (by total time) included in /api/stats
+    private static final int STATS_QUERY_LIMIT = 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Statistics
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * Create a server bound to the given address; call {@link #start()} to accept requests
+     * @param host Address to bind
+     * @param port Port to bind, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public ApiServer(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.setExecutor(executor);
+        route("/api/search", "GET", this::search);
+        route("/api/connections", "GET", this::connections);
+        route("/api/seats", "GET", this::seats);
+        server.createContext("/api/holds", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                dispatch(exchange, this::hold);
+            } else if ("DELETE".equals(exchange.getRequestMethod())) {
+                dispatch(exchange, this::release);
+            } else {
+                respond(exchange, 405, error("Method not allowed"));
+            }
+        });
+        route("/api/bookings", "POST", this::book);
+        route("/api/payments", "POST", this::pay);
+        route("/api/history", "GET", this::history);
+        route("/api/stats", "GET", params -> stats());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, giving running ones up to the delay to finish
+     * @param delaySeconds Seconds to wait for running requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void route(String path, String method, Route handler) {
+        server.createContext(path, exchange -> {
+            if (!method.equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, error("Method not allowed"));
+                return;
+            }
+            dispatch(exchange, handler);
+        });
+    }
+
+    private void dispatch(HttpExchange exchange, Route handler) throws IOException {
+        requestCount.incrementAndGet();
+        int status = 200;
+        String body;
+        try {
+            body = handler.handle(params(exchange));
+        } catch (SeatUnavailableException e) {
+            status = 409;
+            body = error(e.getMessage());
+        } catch (IllegalStateException e) {
+            status = 409;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (SQLException e) {
+            status = 500;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            status = 500;
+            body = error("Internal error");
+        }
+        if (status >= 400) {
+            errorCount.incrementAndGet();
+        }
+        respond(exchange, status, body);
+    }
+
+    // ----- Handlers -----
+
+    private String search(Map<String, List<String>> p) throws SQLException {
+        List<Flight> flights = SearchService.searchFlights(required(p, "from"), required(p, "to"),
+                LocalDate.parse(required(p, "date")));
+        Json json = new Json().beginArray();
+        for (Flight flight : flights) {
+            writeFlight(json, flight);
+        }
+        return json.endArray().toString();
+    }
+
+    private String connections(Map<String, List<String>> p) throws SQLException {
+        String date = optional(p, "date");
+        List<RouteGraph.Itinerary> itineraries = SearchService.searchConnections(required(p, "from"), required(p, "to"),
+                date != null ? LocalDate.parse(date) : null, intParam(p, "maxStops", 1), intParam(p, "limit", 10));
+        Json json = new Json().beginArray();
+        for (RouteGraph.Itinerary itinerary : itineraries) {
+            json.beginObject()
+                .field("stops", itinerary.getStops())
+                .field("departureMinute", itinerary.getDepartureMinute())
+                .field("arrivalMinute", itinerary.getArrivalMinute())
+                .field("elapsedMinutes", itinerary.getElapsedMinutes())
+                .name("legs").beginArray();
+            for (RouteGraph.Edge leg : itinerary.getLegs()) {
+                json.beginObject()
+                    .field("flightId", leg.getFlightId())
+                    .field("from", leg.getFrom())
+                    .field("to", leg.getTo())
+                    .field("departureMinute", leg.getDepartureMinute())
+                    .field("durationMinutes", leg.getDurationMinutes())
+                    .endObject();
+            }
+            json.endArray().endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    private String seats(Map<String, List<String>> p) throws SQLException {
+        List<Seat> seats = SearchService.getAvailableSeats(intParam(p, "flightId"));
+        Json json = new Json().beginArray();
+        for (Seat seat : seats) {
+            json.beginObject()
+                .field("id", seat.getId())
+                .field("number", seat.getSeatNumber())
+                .field("class", seat.getSeatClass().name())
+                .endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    private String hold(Map<String, List<String>> p) {
+        boolean held = BookingService.holdSeat(intParam(p, "flightId"), intParam(p, "seatId"), required(p, "session"));
+        if (!held) {
+            throw new IllegalStateException("Seat is held by another session");
+        }
+        return new Json().beginObject().field("held", true).endObject().toString();
+    }
+
+    private String release(Map<String, List<String>> p) {
+        BookingService.releaseSeat(intParam(p, "flightId"), intParam(p, "seatId"), required(p, "session"));
+        return new Json().beginObject().field("released", true).endObject().toString();
+    }
+
+    private String book(Map<String, List<String>> p) throws SQLException {
+        int userId = intParam(p, "userId");
+        int flightId = intParam(p, "flightId");
+        List<String> names = p.getOrDefault("name", List.of());
+        List<String> passports = p.getOrDefault("passport", List.of());
+        List<String> seatIds = p.getOrDefault("seatId", List.of());
+        if (names.isEmpty() || names.size() != passports.size() || names.size() != seatIds.size()) {
+            throw new IllegalArgumentException("Each passenger needs a name, a passport and a seatId");
+        }
+
+        List<Passenger> passengers = new ArrayList<>(names.size());
+        List<Integer> ids = new ArrayList<>(seatIds.size());
+        for (int i = 0; i < names.size(); i++) {
+            passengers.add(new Passenger(names.get(i), passports.get(i)));
+            ids.add(parseInt("seatId", seatIds.get(i)));
+        }
+        List<Seat> seats = BookingService.resolveSeats(flightId, ids);
+
+        Payment payment = null;
+        if (optional(p, "method") != null) {
+            payment = new Payment(doubleParam(p, "amount"), paymentMethod(p),
+                    new java.sql.Date(System.currentTimeMillis()));
+        }
+        FlightReservation reservation = BookingService.book(userId, flightId, passengers, seats, payment,
+                required(p, "session"));
+
+        Json json = new Json().beginObject()
+            .field("reservationId", reservation.getId())
+            .field("status", reservation.getStatus().name())
+            .field("qrCode", reservation.getQrCode());
+        if (payment != null) {
+            json.field("paymentId", payment.getId());
+        }
+        return json.endObject().toString();
+    }
+
+    private String pay(Map<String, List<String>> p) throws SQLException {
+        Payment payment = BookingService.pay(intParam(p, "userId"), intParam(p, "reservationId"),
+                paymentMethod(p), doubleParam(p, "amount"));
+        return new Json().beginObject()
+            .field("paymentId", payment.getId())
+            .field("status", payment.getPaymentState().name())
+            .endObject().toString();
+    }
+
+    private String history(Map<String, List<String>> p) throws SQLException {
+        BookingHistory.Page page = BookingService.getHistory(intParam(p, "userId"), intParam(p, "cursor", 0),
+                intParam(p, "limit", BookingHistory.DEFAULT_PAGE_SIZE));
+        Json json = new Json().beginObject()
+            .field("nextCursor", page.getNextCursor())
+            .field("hasMore", page.hasMore())
+            .name("bookings").beginArray();
+        for (BookingHistory.Entry entry : page.getEntries()) {
+            json.beginObject()
+                .field("reservationId", entry.getReservationId())
+                .field("flightId", entry.getFlightId())
+                .field("route", entry.getRoute())
+                .field("schedule", entry.getSchedule())
+                .field("bookingDate", String.valueOf(entry.getBookingDate()))
+                .field("status", entry.getStatus())
+                .endObject();
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    private String stats() {
+        Json json = new Json().beginObject()
+            .field("requests", requestCount.get())
+            .field("errors", errorCount.get())
+            .field("pool", DbConnection.getPoolStats().toString())
+            .field("seatHolds", SeatHoldService.getStats())
+            .field("referenceData", ReferenceData.getStats())
+            .field("flightIndexSize", FlightSearchIndex.size())
+            .name("queries").beginArray();
+        List<QueryStats> queries = DbConnection.getQueryStats();
+        for (QueryStats query : queries.subList(0, Math.min(queries.size(), STATS_QUERY_LIMIT))) {
+            json.beginObject()
+                .field("sql", query.getSql())
+                .field("calls", query.getCalls())
+                .field("errors", query.getErrors())
+                .field("slow", query.getSlowCalls())
+                .field("rows", query.getRows())
+                .field("meanMs", query.getMeanMillis())
+                .field("p99Ms", query.getP99Millis())
+                .field("totalMs", query.getTotalMillis())
+                .endObject();
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    private static void writeFlight(Json json, Flight flight) {
+        json.beginObject()
+            .field("id", flight.getId())
+            .field("from", flight.getDepartureAirport() != null ? flight.getDepartureAirport().getCode() : null)
+            .field("to", flight.getArrivalAirport() != null ? flight.getArrivalAirport().getCode() : null)
+            .field("gate", flight.getGate())
+            .field("duration", flight.getDuration() != null ? flight.getDuration() : 0)
+            .field("departureTime", flight.getSchedule() != null ? String.valueOf(flight.getSchedule().getDepartureTime()) : null)
+            .field("aircraft", flight.getAircraft() != null ? flight.getAircraft().getModel() : null)
+            .field("airline", flight.getAirline() != null ? flight.getAirline().getName() : null)
+            .endObject();
+    }
+
+    // ----- Request and response plumbing -----
+
+    private static Map<String, List<String>> params(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, List<String>> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    private static String optional(Map<String, List<String>> p, String name) {
+        List<String> values = p.get(name);
+        return values == null || values.isEmpty() || values.get(0).isEmpty() ? null : values.get(0);
+    }
+
+    private static String required(Map<String, List<String>> p, String name) {
+        String value = optional(p, name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, List<String>> p, String name) {
+        return parseInt(name, required(p, name));
+    }
+
+    private static int intParam(Map<String, List<String>> p, String name, int defaultValue) {
+        String value = optional(p, name);
+        return value == null ? defaultValue : parseInt(name, value);
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number");
+        }
+    }
+
+    private static double doubleParam(Map<String, List<String>> p, String name) {
+        try {
+            return Double.parseDouble(required(p, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number");
+        }
+    }
+
+    private static PaymentMethod paymentMethod(Map<String, List<String>> p) {
+        return PaymentMethod.valueOf(required(p, "method").toUpperCase());
+    }
+
+    private static String error(String message) {
+        return new Json().beginObject().field("error", message).endObject().toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = System.getProperty("api.host", "127.0.0.1");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("api.port", 8080);
+
+        ReferenceData.warmUp();
+        ApiServer api = new ApiServer(host, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop(1);
+            DbConnection.closeConnection();
+        }, "api-shutdown"));
+        api.start();
+        System.out.println("Booking API listening on http://" + host + ":" + api.getPort() + "/api");
+    }
+}
@@ -0,0 +1,237 @@
+package service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.*;
+import util.*;
+
+/**
+ * The booking flow (price, hold seats, book, pay, history) as plain Java calls, shared by
+ * the Swing client and the HTTP API.
+ */
+public class BookingService {
+
+    /**
+     * Price of a booking, before and after tax
+     */
+    public static class Quote {
+        private final double subtotal;
+        private final double taxes;
+
+        Quote(double subtotal, double taxes) {
+            this.subtotal = subtotal;
+            this.taxes = taxes;
+        }
+
+        public double getSubtotal() { return subtotal; }
+        public double getTaxes() { return taxes; }
+        public double getTotal() { return subtotal + taxes; }
+    }
+
+    private BookingService() {
+    }
+
+    /**
+     * Price a booking from the fare for its seat class
+     * @param seatClass The class of the seats
+     * @param passengerCount Number of passengers
+     * @return The price
+     */
+    public static Quote quote(SeatClass seatClass, int passengerCount) {
+        double subtotal = Fares.subtotal(seatClass, passengerCount);
+        return new Quote(subtotal, Fares.tax(subtotal));
+    }
+
+    /**
+     * Price a booking of the given seats, priced at the class of the first seat as the
+     * checkout screen shows it
+     * @param seats The booked seats, one per passenger
+     * @return The price
+     */
+    public static Quote quote(List<Seat> seats) {
+        if (seats.isEmpty()) {
+            throw new IllegalArgumentException("A booking needs at least one seat");
+        }
+        return quote(seats.get(0).getSeatClass(), seats.size());
+    }
+
+    /**
+     * Reject a payment whose amount is not the price of the booking, so a client cannot
+     * confirm seats by paying less than the quote
+     */
+    private static void checkAmount(double amount, Quote quote) {
+        if (Math.abs(amount - quote.getTotal()) >= 0.005) {
+            throw new IllegalArgumentException(String.format(java.util.Locale.ROOT,
+                    "Payment amount %.2f does not match the price %.2f", amount, quote.getTotal()));
+        }
+    }
+
+    /**
+     * Hold a seat for a booking session while the customer checks out
+     * @param flightId The flight
+     * @param seatId The seat
+     * @param sessionId The booking session
+     * @return true if the session now holds the seat
+     */
+    public static boolean holdSeat(int flightId, int seatId, String sessionId) {
+        return SeatHoldService.hold(flightId, seatId, sessionId);
+    }
+
+    public static void releaseSeat(int flightId, int seatId, String sessionId) {
+        SeatHoldService.release(flightId, seatId, sessionId);
+    }
+
+    public static void releaseAll(String sessionId) {
+        SeatHoldService.releaseAll(sessionId);
+    }
+
+    /**
+     * Look up seats by id among the seats still free on a flight
+     * @param flightId The flight
+     * @param seatIds The seat ids
+     * @return The seats, in the order of the ids
+     * @throws SeatUnavailableException if a seat is booked or not on the flight's aircraft
+     * @throws SQLException if the seats cannot be loaded
+     */
+    public static List<Seat> resolveSeats(int flightId, List<Integer> seatIds) throws SQLException {
+        Map<Integer, Seat> free = new HashMap<>();
+        for (Seat seat : SearchService.getAvailableSeats(flightId)) {
+            free.put(seat.getId(), seat);
+        }
+        List<Seat> seats = new ArrayList<>(seatIds.size());
+        for (int seatId : seatIds) {
+            Seat seat = free.get(seatId);
+            if (seat == null) {
+                throw new SeatUnavailableException(seatId, null);
+            }
+            seats.add(seat);
+        }
+        return seats;
+    }
+
+    /**
+     * Book seats for passengers on a flight. The session must be able to (re)take a hold
+     * on every seat. With a payment the booking is confirmed and paid in the same
+     * transaction; without one it stays pending until {@link #pay} is called.
+     * @param userId The booking user
+     * @param flightId The flight
+     * @param passengers The passengers, not yet saved
+     * @param seats One seat per passenger, in the same order
+     * @param payment The payment, not yet saved, or null to pay later; its amount must match {@link #quote(List)}
+     * @param sessionId The booking session holding the seats
+     * @return The saved reservation
+     * @throws IllegalArgumentException if the payment amount is not the price of the seats
+     * @throws SeatUnavailableException if another session holds or booked one of the seats
+     * @throws SQLException if the booking cannot be written; nothing is saved in that case
+     */
+    public static FlightReservation book(int userId, int flightId, List<Passenger> passengers, List<Seat> seats,
+                                         Payment payment, String sessionId) throws SQLException {
+        if (payment != null) {
+            checkAmount(payment.getPaymentAmount(), quote(seats));
+        }
+
+        FlightReservation reservation = new FlightReservation(flightId, new java.sql.Date(System.currentTimeMillis()));
+        reservation.setUserId(userId);
+        reservation.setQrCode(generateQrCode(userId));
+        reservation.setStatus(payment != null ? ReservationStatus.CONFIRMED : ReservationStatus.PENDING);
+        if (payment != null) {
+            payment.setUserId(userId);
+            payment.setPaymentState(PaymentStatus.COMPLETED);
+        }
+
+        try {
+            // Holds expire if checkout takes too long, so take them again before writing
+            for (Seat seat : seats) {
+                if (!SeatHoldService.hold(flightId, seat.getId(), sessionId)) {
+                    throw new SeatUnavailableException(seat.getId(), seat.getSeatNumber());
+                }
+            }
+            new BookingTransaction(reservation, passengers, seats, payment).commit();
+        } catch (SQLException | RuntimeException e) {
+            // Don't leave the seats blocked for other customers until the holds expire
+            for (Seat seat : seats) {
+                SeatHoldService.release(flightId, seat.getId(), sessionId);
+            }
+            throw e;
+        }
+        for (Seat seat : seats) {
+            SeatHoldService.confirm(flightId, seat.getId(), sessionId);
+        }
+        return reservation;
+    }
+
+    /**
+     * Pay for a pending reservation and confirm it, in one transaction
+     * @param userId The paying user, who must own the reservation
+     * @param reservationId The reservation
+     * @param method How the user pays
+     * @param amount The amount paid, which must match the price of the reserved seats
+     * @return The saved payment
+     * @throws IllegalArgumentException if the reservation belongs to another user or the amount is not its price
+     * @throws IllegalStateException if the reservation is not pending, including when a concurrent payment confirmed it first
+     * @throws SQLException if the reservation does not exist or the payment cannot be written
+     */
+    public static Payment pay(int userId, int reservationId, PaymentMethod method, double amount) throws SQLException {
+        FlightReservation reservation = FlightReservation.load(reservationId);
+        if (reservation.getUserId() != userId) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " does not belong to user " + userId);
+        }
+        if (reservation.getStatus() != ReservationStatus.PENDING) {
+            throw new IllegalStateException("Reservation " + reservationId + " is " + reservation.getStatus());
+        }
+        checkAmount(amount, quote(new ArrayList<>(reservation.getPassengerSeatMap().values())));
+
+        Payment payment = new Payment(amount, method, new java.sql.Date(System.currentTimeMillis()));
+        payment.setUserId(userId);
+        payment.setPaymentState(PaymentStatus.COMPLETED);
+        try (Connection conn = DbConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                // The status check above ran on a copy; only one of two racing payments gets past this
+                if (!reservation.transitionState(conn, ReservationStatus.PENDING, ReservationStatus.CONFIRMED)) {
+                    throw new IllegalStateException("Reservation " + reservationId + " is no longer pending");
+                }
+                payment.save(conn);
+                conn.commit();
+                DashboardStats.paymentAdded(amount);
+            } catch (SQLException | RuntimeException e) {
+                payment.setId(0);
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return payment;
+    }
+
+    /**
+     * Load one page of a user's bookings, newest first
+     * @param userId The user
+     * @param cursor The next cursor of the previous page, or 0 for the first page
+     * @param pageSize Maximum number of bookings to return
+     * @return The page
+     * @throws SQLException if the query fails
+     */
+    public static BookingHistory.Page getHistory(int userId, int cursor, int pageSize) throws SQLException {
+        return BookingHistory.loadPage(userId, cursor, pageSize);
+    }
+
+    /**
+     * Generate a simple QR code (placeholder)
+     * @param userId The booking user
+     * @return The code stored on the reservation
+     */
+    public static String generateQrCode(int userId) {
+        return "QR_" + System.currentTimeMillis() + "_" + userId;
+    }
+}
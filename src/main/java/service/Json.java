@@ -0,0 +1,113 @@
+package service;
+
+/**
+ * Minimal JSON writer for the API responses; the project has no JSON library.
+ */
+class Json {
+    private final StringBuilder sb = new StringBuilder();
+    // True when the next value in the current object or array needs a leading comma
+    private boolean needsComma;
+
+    Json beginObject() {
+        comma();
+        sb.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    Json endObject() {
+        sb.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    Json beginArray() {
+        comma();
+        sb.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    Json endArray() {
+        sb.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    Json name(String name) {
+        comma();
+        string(name);
+        sb.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    Json value(String value) {
+        comma();
+        if (value == null) {
+            sb.append("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    Json value(long value) {
+        comma();
+        sb.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json value(double value) {
+        comma();
+        sb.append(Double.isFinite(value) ? Double.toString(value) : "null");
+        needsComma = true;
+        return this;
+    }
+
+    Json value(boolean value) {
+        comma();
+        sb.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, String value) { return name(name).value(value); }
+    Json field(String name, long value) { return name(name).value(value); }
+    Json field(String name, double value) { return name(name).value(value); }
+    Json field(String name, boolean value) { return name(name).value(value); }
+
+    private void comma() {
+        if (needsComma) {
+            sb.append(',');
+        }
+    }
+
+    private void string(String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package service;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import model.*;
+
+/**
+ * Flight and seat lookups shared by the Swing client and the HTTP API.
+ */
+public class SearchService {
+
+    private SearchService() {
+    }
+
+    /**
+     * Find direct flights between two airports on a date
+     * @param from Departure airport code
+     * @param to Arrival airport code
+     * @param date Travel date
+     * @return Flights on the weekly schedule for that day plus any with a custom schedule on that date
+     * @throws SQLException if the search index has to be loaded and the query fails
+     */
+    public static ArrayList<Flight> searchFlights(String from, String to, LocalDate date) throws SQLException {
+        return Flight.search(from, to, dayOf(date), Date.valueOf(date));
+    }
+
+    /**
+     * Find itineraries with up to the given number of connections
+     * @param from Departure airport code
+     * @param to Arrival airport code
+     * @param date Travel date, or null for any day of the week
+     * @param maxStops Maximum number of connections (0 to 2)
+     * @param limit Maximum number of itineraries to return
+     * @return Itineraries ordered by arrival time
+     * @throws SQLException if the search index has to be loaded and the query fails
+     */
+    public static List<RouteGraph.Itinerary> searchConnections(String from, String to, LocalDate date,
+                                                               int maxStops, int limit) throws SQLException {
+        return Flight.searchConnections(from, to, date != null ? dayOf(date) : null, maxStops, limit);
+    }
+
+    /**
+     * Get the seats still free on a flight
+     * @param flightId The flight
+     * @return The free seats in seat id order
+     * @throws SQLException if the flight or its seats cannot be loaded
+     */
+    public static List<Seat> getAvailableSeats(int flightId) throws SQLException {
+        Flight flight = Flight.load(flightId);
+        return getAvailableSeats(flight, flight.getAircraft());
+    }
+
+    /**
+     * Get the seats still free on a flight whose aircraft is already loaded
+     * @param flight The flight
+     * @param aircraft The aircraft flying it
+     * @return The free seats in seat id order
+     * @throws SQLException if the seats cannot be loaded
+     */
+    public static List<Seat> getAvailableSeats(Flight flight, Aircraft aircraft) throws SQLException {
+        return SeatInventory.forFlight(flight.getId(), aircraft).getAvailableSeats();
+    }
+
+    /**
+     * Map a calendar date to the schedule's day of the week
+     * @param date The date
+     * @return The matching day
+     */
+    public static DayOfWeek dayOf(LocalDate date) {
+        return DayOfWeek.valueOf(date.getDayOfWeek().name());
+    }
+}
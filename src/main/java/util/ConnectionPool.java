@@ -0,0 +1,399 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ *
+ * Callers borrow a logical connection and close it when done; closing hands the
+ * physical connection back to the pool instead of closing the socket. Idle
+ * connections are validated before reuse, evicted after a period of inactivity,
+ * and connections held for too long are reported as potential leaks. Each physical
+ * connection keeps its own prepared statement cache (see {@link StatementCache}).
+ * With a {@link QueryRecorder}, every statement handed out is timed by SQL shape.
+ */
+public class ConnectionPool {
+
+    private static final Log LOG = Log.get(ConnectionPool.class);
+
+    /**
+     * Opens a new physical connection for the pool
+     */
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+    private final QueryRecorder queryRecorder;
+
+    // Connections used more recently than this are handed out without a validation round trip
+    private static final long VALIDATION_INTERVAL_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5000;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        this(factory, maxSize, minIdle, borrowTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis,
+                leakThresholdMillis, statementCacheSize, null);
+    }
+
+    /**
+     * @param queryRecorder Records the statements run on borrowed connections, or null to leave them untimed
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long leakThresholdMillis,
+                          int statementCacheSize, QueryRecorder queryRecorder) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.queryRecorder = queryRecorder;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection from the pool, opening a new one if none is idle
+     * @return A logical connection; closing it returns it to the pool
+     * @throws SQLException if no connection becomes available within the borrow timeout
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("Timed out after " + borrowTimeoutMillis
+                    + " ms waiting for a database connection (" + getStats() + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowThread = Thread.currentThread().getName();
+            pooled.leakReported = false;
+            active.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Take the most recently used idle connection, discarding any that fail validation
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            validationFailures.incrementAndGet();
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.createdAt > maxLifetimeMillis) {
+            return false;
+        }
+        if (now - pooled.lastReturnedAt < VALIDATION_INTERVAL_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = factory.create();
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Return a connection to the pool, resetting any transaction state left by the borrower
+     */
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        pooled.statements.releaseAll();
+        boolean healthy = !closed;
+        try {
+            if (healthy && pooled.physical.isClosed()) {
+                healthy = false;
+            }
+            if (healthy && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        if (healthy) {
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } else {
+            discard(pooled);
+        }
+        permits.release();
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.statements.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            LOG.warn("Error closing pooled connection", "error", e.getMessage());
+        }
+    }
+
+    /**
+     * Evict idle connections past their idle timeout or lifetime and report suspected leaks
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            boolean expired = now - pooled.createdAt > maxLifetimeMillis;
+            boolean idleTooLong = now - pooled.lastReturnedAt > idleTimeoutMillis
+                    && totalConnections.get() > minIdle;
+            if ((expired || idleTooLong) && idle.remove(pooled)) {
+                evictedCount.incrementAndGet();
+                discard(pooled);
+            }
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : active) {
+                long heldFor = now - pooled.borrowedAt;
+                if (heldFor > leakThresholdMillis && !pooled.leakReported) {
+                    pooled.leakReported = true;
+                    leakCount.incrementAndGet();
+                    LOG.warn("Possible connection leak", "thread", pooled.borrowThread, "heldMs", heldFor);
+                }
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Take a snapshot of the pool counters
+     * @return The current pool statistics
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+                active.size(),
+                idle.size(),
+                totalConnections.get(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                createdCount.get(),
+                evictedCount.get(),
+                validationFailures.get(),
+                timeoutCount.get(),
+                leakCount.get(),
+                borrows == 0 ? 0 : totalWaitNanos.get() / borrows,
+                maxWaitNanos.get(),
+                statementHits.get(),
+                statementMisses.get(),
+                statementEvictions.get());
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Close all idle connections and refuse further borrows.
+     * Connections still in use are closed when their borrowers return them.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * A physical connection and its bookkeeping while it belongs to the pool
+     */
+    private class PooledConnection {
+        final Connection physical;
+        final StatementCache statements;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastReturnedAt = createdAt;
+        volatile long borrowedAt;
+        volatile String borrowThread;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize,
+                    statementHits, statementMisses, statementEvictions);
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Logical connection handed to a borrower. Closing it returns the physical connection
+     * to the pool; any use after close fails the same way a closed connection would.
+     */
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            if (isCacheablePrepare(method)) {
+                result = pooled.statements.prepare((String) args[0],
+                        args.length == 2 ? (Integer) args[1] : null, (Connection) proxy);
+            } else {
+                try {
+                    result = method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (queryRecorder != null && result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return queryRecorder.wrap((Statement) result, method.getName(), sql);
+            }
+            return result;
+        }
+
+        /**
+         * prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) go through the cache
+         */
+        private boolean isCacheablePrepare(Method method) {
+            if (!"prepareStatement".equals(method.getName())) {
+                return false;
+            }
+            Class<?>[] params = method.getParameterTypes();
+            return params.length == 1 || (params.length == 2 && params[1] == int.class);
+        }
+    }
+}
@@ -0,0 +1,688 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import model.*;
+
+/**
+ * Generates a production-sized synthetic dataset for profiling: countries, airports,
+ * airlines, aircraft with full seat maps, flights with weekly and custom schedules,
+ * users, and reservations with passengers, seats and payments.
+ *
+ * Output is deterministic for a given seed and size settings. Every table is drawn
+ * from its own stream split off the seed, and ids are assigned by the generator, so
+ * JDBC and CSV output contain the same rows. Users and flights are picked with a
+ * Zipf skew so a few frequent flyers and busy routes dominate, as in real traffic.
+ *
+ * Usage:
+ * <pre>
+ * java util.DataGenerator jdbc            batch insert through DbConnection
+ * java util.DataGenerator csv &lt;dir&gt;      write one CSV per table plus load.sql
+ * </pre>
+ *
+ * Sizes are set with -Dgen.* properties: seed, countries, airports, airlines,
+ * aircraft, flights, users, reservations, skew (Zipf exponent) and batchSize.
+ * Load into an empty schema with the V1 migration applied: rows are written with
+ * explicit ids and passenger_seat includes flight_id.
+ */
+public class DataGenerator {
+
+    private static final long SEED = Long.getLong("gen.seed", 42L);
+    private static final int COUNTRIES = Integer.getInteger("gen.countries", 60);
+    private static final int AIRPORTS = Integer.getInteger("gen.airports", 400);
+    private static final int AIRLINES = Integer.getInteger("gen.airlines", 40);
+    private static final int AIRCRAFT = Integer.getInteger("gen.aircraft", 2_000);
+    private static final int FLIGHTS = Integer.getInteger("gen.flights", 30_000);
+    private static final int USERS = Integer.getInteger("gen.users", 1_000_000);
+    private static final int RESERVATIONS = Integer.getInteger("gen.reservations", 2_000_000);
+    private static final double SKEW = Double.parseDouble(System.getProperty("gen.skew", "1.0"));
+    private static final int BATCH_SIZE = Integer.getInteger("gen.batchSize", 1_000);
+
+    // Every generated user can log in with this password
+    private static final String PASSWORD = "password";
+
+    // Travel and booking dates are relative to this day so reruns match
+    private static final LocalDate EPOCH = LocalDate.of(2025, 1, 1);
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "Ahmed", "Fatma", "Wei", "Yuki", "Carlos", "Ana", "Omar", "Sara",
+        "Liam", "Emma", "Noah", "Olivia", "Hiro", "Mei", "Ivan", "Elena", "Kofi", "Amara",
+        "Lucas", "Sofia", "Arjun", "Priya", "Mohamed", "Nour", "David", "Leah", "Mateo", "Isabel"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Garcia", "Hassan", "Chen", "Tanaka", "Silva", "Mueller", "Rossi", "Kim", "Nguyen",
+        "Ali", "Khan", "Brown", "Martin", "Ivanova", "Okafor", "Lopez", "Dubois", "Sato", "Patel"
+    };
+
+    /** Aircraft models with their seat maps: rows of first, business, premium economy, economy. */
+    private static final Object[][] MODELS = {
+        // model, first rows, business rows, premium rows, economy rows, seats per row
+        {"Airbus A320", 0, 3, 0, 26, 6},
+        {"Boeing 737-800", 0, 4, 0, 27, 6},
+        {"Airbus A321neo", 0, 4, 3, 27, 6},
+        {"Embraer E190", 0, 2, 0, 23, 4},
+        {"Boeing 787-9", 0, 7, 4, 30, 9},
+        {"Airbus A350-900", 2, 8, 4, 32, 9},
+        {"Boeing 777-300ER", 2, 10, 4, 36, 10},
+        {"Airbus A380", 3, 12, 5, 44, 10},
+    };
+
+    private final SplittableRandom root = new SplittableRandom(SEED);
+    private final Sink sink;
+    private final Map<String, Long> rowCounts = new LinkedHashMap<>();
+
+    // Seat map per aircraft, needed to book seats without double booking
+    private int[] aircraftModel;
+    private int[] aircraftFirstSeat;
+    private final SeatMap[] seatMaps = new SeatMap[MODELS.length];
+    private int[] flightAircraft;
+
+    private DataGenerator(Sink sink) {
+        this.sink = sink;
+    }
+
+    private void generate() throws Exception {
+        // Split in a fixed order so each table's stream does not depend on the others' sizes
+        SplittableRandom countryRandom = root.split();
+        SplittableRandom airportRandom = root.split();
+        SplittableRandom airlineRandom = root.split();
+        SplittableRandom aircraftRandom = root.split();
+        SplittableRandom flightRandom = root.split();
+        SplittableRandom userRandom = root.split();
+        SplittableRandom bookingRandom = root.split();
+
+        generateRoles();
+        generateCountries(countryRandom);
+        generateAirports(airportRandom);
+        generateAirlines(airlineRandom);
+        generateAircraft(aircraftRandom);
+        generateFlights(flightRandom);
+        generateUsers(userRandom);
+        generateReservations(bookingRandom);
+    }
+
+    private void generateRoles() throws Exception {
+        Table role = sink.table("role", "id", "role_name", "description");
+        role.add(1, "Admin", "Manages flights, airports and users");
+        role.add(2, "User", "Books flights");
+        finish(role);
+    }
+
+    private void generateCountries(SplittableRandom random) throws Exception {
+        Table country = sink.table("country", "id", "name");
+        // Names are unique in the schema
+        Set<String> names = new HashSet<>();
+        for (int id = 1; id <= COUNTRIES; id++) {
+            String name;
+            do {
+                name = capitalize(word(random, 5 + random.nextInt(6))) + "ia";
+            } while (!names.add(name));
+            country.add(id, name);
+        }
+        finish(country);
+    }
+
+    private void generateAirports(SplittableRandom random) throws Exception {
+        Table airport = sink.table("airport", "id", "country_id", "code", "name", "address", "status");
+        for (int id = 1; id <= AIRPORTS; id++) {
+            String city = capitalize(word(random, 4 + random.nextInt(7)));
+            airport.add(id, 1 + random.nextInt(COUNTRIES), code(id - 1, 3), city + " International Airport",
+                    (1 + random.nextInt(999)) + " Airport Road, " + city, random.nextInt(50) == 0 ? "Inactive" : "Active");
+        }
+        finish(airport);
+    }
+
+    private void generateAirlines(SplittableRandom random) throws Exception {
+        Table airline = sink.table("airline", "id", "name", "code");
+        for (int id = 1; id <= AIRLINES; id++) {
+            airline.add(id, capitalize(word(random, 4 + random.nextInt(5))) + " Airways", code(id - 1, 2));
+        }
+        finish(airline);
+    }
+
+    private void generateAircraft(SplittableRandom random) throws Exception {
+        Table aircraft = sink.table("aircraft", "id", "airline_id", "model", "manufacturing_year");
+        Table seat = sink.table("seat", "id", "aircraft_id", "class", "seat_number");
+        // A few big carriers own most of the fleet
+        Zipf airlines = new Zipf(AIRLINES, SKEW, random.split());
+
+        aircraftModel = new int[AIRCRAFT + 1];
+        aircraftFirstSeat = new int[AIRCRAFT + 1];
+        int seatId = 1;
+        for (int id = 1; id <= AIRCRAFT; id++) {
+            // Narrow-bodies are far more common than wide-bodies
+            int model = Math.min(MODELS.length - 1, (int) (-Math.log(1 - random.nextDouble()) * 2.0));
+            aircraft.add(id, airlines.next(), MODELS[model][0], 1995 + random.nextInt(31));
+
+            SeatMap map = seatMap(model);
+            aircraftModel[id] = model;
+            aircraftFirstSeat[id] = seatId;
+            for (int i = 0; i < map.size(); i++) {
+                seat.add(seatId++, id, map.classes[i].name(), map.numbers[i]);
+            }
+        }
+        finish(aircraft);
+        finish(seat);
+    }
+
+    private void generateFlights(SplittableRandom random) throws Exception {
+        Table schedule = sink.table("weeklySchedule", "id", "dayOfWeek", "departure_time", "customDate");
+        Table flight = sink.table("flight", "id", "arrival_airport_id", "departure_airport_id", "gate", "duration",
+                "flight_schedule_id", "aircraft_id");
+        Table custom = sink.table("customSchedule", "id", "flight_id", "departure_time", "customDate");
+        // Hub airports appear on far more routes than regional ones
+        Zipf airports = new Zipf(AIRPORTS, SKEW, random.split());
+        DayOfWeek[] days = DayOfWeek.values();
+
+        flightAircraft = new int[FLIGHTS + 1];
+        int customId = 1;
+        for (int id = 1; id <= FLIGHTS; id++) {
+            int from = airports.next();
+            int to;
+            do {
+                to = airports.next();
+            } while (to == from);
+            int aircraftId = 1 + random.nextInt(AIRCRAFT);
+            flightAircraft[id] = aircraftId;
+
+            Time departure = departureTime(random);
+            schedule.add(id, days[random.nextInt(days.length)].name(), departure, null);
+            flight.add(id, to, from, (char) ('A' + random.nextInt(8)) + String.valueOf(1 + random.nextInt(40)),
+                    45 + 5 * random.nextInt(140), id, aircraftId);
+
+            // Some flights also run on extra dates, e.g. holiday peaks
+            if (random.nextInt(20) == 0) {
+                int extra = 1 + random.nextInt(3);
+                for (int i = 0; i < extra; i++) {
+                    custom.add(customId++, id, departure, Date.valueOf(EPOCH.plusDays(random.nextInt(365))));
+                }
+            }
+        }
+        finish(schedule);
+        finish(flight);
+        finish(custom);
+    }
+
+    private void generateUsers(SplittableRandom random) throws Exception {
+        Table user = sink.table("user", "id", "username", "email", "phone", "password", "created_at", "age", "role_id");
+        // Hashing is deliberately slow, so hash once with a seed-derived salt and share it
+        String salt = java.util.Base64.getEncoder().encodeToString(Long.toString(random.nextLong()).getBytes(StandardCharsets.UTF_8));
+        String password = SecurityUtil.hashPassword(PASSWORD, salt) + ":" + salt;
+
+        for (int id = 1; id <= USERS; id++) {
+            String username = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].toLowerCase(Locale.ROOT) + id;
+            Timestamp createdAt = Timestamp.valueOf(EPOCH.minusDays(random.nextInt(1_500)).atStartOfDay()
+                    .plusSeconds(random.nextInt(86_400)));
+            user.add(id, username, username + "@example.com", String.format("01%09d", random.nextInt(1_000_000_000)),
+                    password, createdAt, 18 + random.nextInt(62), id <= 10 ? 1 : 2);
+        }
+        finish(user);
+    }
+
+    private void generateReservations(SplittableRandom random) throws Exception {
+        Table reservation = sink.table("flightReservation", "id", "flight_id", "user_id", "qr_code", "booking_date", "status");
+        Table passenger = sink.table("passenger", "id", "user_id", "name", "passport", "flightReservation_id");
+        Table passengerSeat = sink.table("passenger_seat", "passenger_id", "seat_id", "flightReservation_id", "flight_id");
+        Table payment = sink.table("payment", "id", "user_id", "payment_amount", "payment_state", "payment_method",
+                "payment_date", "updated_at");
+        // Frequent flyers book most trips, and popular flights fill up first
+        Zipf users = new Zipf(USERS, SKEW, random.split());
+        Zipf flights = new Zipf(FLIGHTS, SKEW, random.split());
+        BitSet[] booked = new BitSet[FLIGHTS + 1];
+        int[] freeSeats = new int[FLIGHTS + 1];
+        for (int f = 1; f <= FLIGHTS; f++) {
+            freeSeats[f] = seatMaps[aircraftModel[flightAircraft[f]]].size();
+        }
+
+        int passengerId = 1;
+        int paymentId = 1;
+        int skipped = 0;
+        for (int id = 1; id <= RESERVATIONS; id++) {
+            int userId = users.next();
+            int party = partySize(random);
+            int flightId = flights.next();
+            // Popular flights sell out; fall back to a uniformly chosen one with room
+            for (int tries = 0; freeSeats[flightId] < party && tries < 50; tries++) {
+                flightId = 1 + random.nextInt(FLIGHTS);
+            }
+            if (freeSeats[flightId] < party) {
+                skipped++;
+                continue;
+            }
+
+            int aircraftId = flightAircraft[flightId];
+            SeatMap map = seatMaps[aircraftModel[aircraftId]];
+            if (booked[flightId] == null) {
+                booked[flightId] = new BitSet(map.size());
+            }
+            LocalDate bookingDate = EPOCH.plusDays(random.nextInt(365));
+            ReservationStatus status = reservationStatus(random);
+            reservation.add(id, flightId, userId, "QR_" + bookingDate.toEpochDay() + "_" + id, Date.valueOf(bookingDate),
+                    status.name());
+
+            SeatClass seatClass = null;
+            for (int p = 0; p < party; p++) {
+                int seatIndex = freeSeat(random, booked[flightId], map.size());
+                booked[flightId].set(seatIndex);
+                freeSeats[flightId]--;
+                if (seatClass == null) {
+                    seatClass = map.classes[seatIndex];
+                }
+                String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                passenger.add(passengerId, userId, name, (char) ('A' + random.nextInt(26))
+                        + String.valueOf(10_000_000 + random.nextInt(90_000_000)), id);
+                passengerSeat.add(passengerId, aircraftFirstSeat[aircraftId] + seatIndex, id, flightId);
+                passengerId++;
+            }
+
+            // Pending bookings are not paid yet; cancellations were paid and refunded
+            if (status != ReservationStatus.PENDING) {
+                double subtotal = Fares.subtotal(seatClass, party);
+                double total = subtotal + Fares.tax(subtotal);
+                PaymentStatus state = status == ReservationStatus.CANCELED ? PaymentStatus.REFUNDED : PaymentStatus.COMPLETED;
+                payment.add(paymentId++, userId, BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_UP), state.name(),
+                        paymentMethod(random).name(), Date.valueOf(bookingDate),
+                        state == PaymentStatus.REFUNDED ? Timestamp.valueOf(bookingDate.plusDays(1 + random.nextInt(30)).atStartOfDay()) : null);
+            }
+        }
+        finish(reservation);
+        finish(passenger);
+        finish(passengerSeat);
+        finish(payment);
+        if (skipped > 0) {
+            System.out.println("Skipped " + skipped + " reservations because every flight tried was full");
+        }
+    }
+
+    // ----- Distributions -----
+
+    private static int partySize(SplittableRandom random) {
+        int r = random.nextInt(100);
+        return r < 60 ? 1 : r < 85 ? 2 : r < 95 ? 3 : 4;
+    }
+
+    private static ReservationStatus reservationStatus(SplittableRandom random) {
+        int r = random.nextInt(100);
+        if (r < 65) return ReservationStatus.CONFIRMED;
+        if (r < 80) return ReservationStatus.CHECKED_IN;
+        if (r < 92) return ReservationStatus.PENDING;
+        return ReservationStatus.CANCELED;
+    }
+
+    private static PaymentMethod paymentMethod(SplittableRandom random) {
+        int r = random.nextInt(100);
+        if (r < 50) return PaymentMethod.CREDIT_CARD;
+        if (r < 70) return PaymentMethod.DEBIT_CARD;
+        if (r < 85) return PaymentMethod.PAYPAL;
+        if (r < 93) return PaymentMethod.MOBILE_PAYMENT;
+        if (r < 98) return PaymentMethod.BANK_TRANSFER;
+        return PaymentMethod.CASH;
+    }
+
+    /** Departures on a 5 minute grid, bunched around the morning and evening banks. */
+    private static Time departureTime(SplittableRandom random) {
+        double centre = random.nextBoolean() ? 8.0 : 18.0;
+        double hour = centre + (random.nextDouble() + random.nextDouble() + random.nextDouble() - 1.5) * 4.0;
+        int minutes = Math.floorMod((int) Math.round(hour * 12) * 5, 24 * 60);
+        return Time.valueOf(String.format("%02d:%02d:00", minutes / 60, minutes % 60));
+    }
+
+    private static int freeSeat(SplittableRandom random, BitSet booked, int seats) {
+        int start = random.nextInt(seats);
+        int seat = booked.nextClearBit(start);
+        return seat < seats ? seat : booked.nextClearBit(0);
+    }
+
+    /** Seat classes and numbers of one aircraft model, front to back. */
+    private static class SeatMap {
+        final SeatClass[] classes;
+        final String[] numbers;
+
+        SeatMap(List<SeatClass> classes, List<String> numbers) {
+            this.classes = classes.toArray(new SeatClass[0]);
+            this.numbers = numbers.toArray(new String[0]);
+        }
+
+        int size() {
+            return classes.length;
+        }
+    }
+
+    private SeatMap seatMap(int model) {
+        if (seatMaps[model] == null) {
+            Object[] m = MODELS[model];
+            int perRow = (Integer) m[5];
+            SeatClass[] cabins = {SeatClass.FirstClass, SeatClass.Business, SeatClass.PremiumEconomy, SeatClass.Economy};
+            List<SeatClass> classes = new ArrayList<>();
+            List<String> numbers = new ArrayList<>();
+            int row = 1;
+            for (int c = 0; c < cabins.length; c++) {
+                // Premium cabins are laid out with fewer seats per row
+                int width = c == 0 ? Math.max(2, perRow - 4) : c == 1 ? Math.max(2, perRow - 2) : perRow;
+                for (int r = 0; r < (Integer) m[c + 1]; r++, row++) {
+                    for (int seat = 0; seat < width; seat++) {
+                        classes.add(cabins[c]);
+                        numbers.add(row + String.valueOf((char) ('A' + seat)));
+                    }
+                }
+            }
+            seatMaps[model] = new SeatMap(classes, numbers);
+        }
+        return seatMaps[model];
+    }
+
+    /**
+     * Zipf-distributed ids 1..n. The popularity ranks are shuffled over the ids so the
+     * hot rows are spread through the table instead of being the lowest ids.
+     */
+    private static class Zipf {
+        private final double[] cdf;
+        private final int[] idOfRank;
+        private final SplittableRandom random;
+
+        Zipf(int n, double exponent, SplittableRandom random) {
+            this.random = random;
+            cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cdf[rank] /= sum;
+            }
+            idOfRank = new int[n];
+            for (int i = 0; i < n; i++) {
+                idOfRank[i] = i + 1;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = idOfRank[i];
+                idOfRank[i] = idOfRank[j];
+                idOfRank[j] = tmp;
+            }
+        }
+
+        int next() {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble());
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            return idOfRank[Math.min(rank, idOfRank.length - 1)];
+        }
+    }
+
+    // ----- Helpers -----
+
+    private static String word(SplittableRandom random, int length) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            String letters = i % 2 == 0 ? consonants : vowels;
+            sb.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    /** Unique uppercase code for an index, e.g. 0 -> "AAA", 27 -> "ABB". */
+    private static String code(int index, int length) {
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = (char) ('A' + index % 26);
+            index /= 26;
+        }
+        return new String(chars);
+    }
+
+    private void finish(Table table) throws Exception {
+        table.close();
+        rowCounts.put(table.name, table.rows);
+    }
+
+    // ----- Output -----
+
+    /** One table being written; rows must be added in column order. */
+    private abstract static class Table implements AutoCloseable {
+        final String name;
+        long rows;
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        final void add(Object... values) throws Exception {
+            write(values);
+            rows++;
+        }
+
+        abstract void write(Object[] values) throws Exception;
+
+        @Override
+        public abstract void close() throws IOException, SQLException;
+    }
+
+    private interface Sink extends AutoCloseable {
+        Table table(String name, String... columns) throws Exception;
+
+        @Override
+        void close() throws IOException, SQLException;
+    }
+
+    /**
+     * Batched inserts on one connection, committed every batch. Foreign key checks are
+     * off for the load, as in seeder.sql, because related tables are flushed in
+     * separate batches.
+     */
+    private static class JdbcSink implements Sink {
+        private final Connection conn;
+        private final DbProfile profile;
+
+        JdbcSink(Connection conn, DbProfile profile) throws SQLException {
+            this.conn = conn;
+            this.profile = profile;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM user")) {
+                if (rs.next() && rs.getLong(1) > 0) {
+                    throw new SQLException("The user table is not empty; load generated data into an empty schema");
+                }
+            }
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(profile.foreignKeyChecksSql(false));
+            }
+        }
+
+        @Override
+        public Table table(String name, String... columns) throws SQLException {
+            String sql = "INSERT INTO " + name + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", java.util.Collections.nCopies(columns.length, "?")) + ")";
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            return new Table(name) {
+                private int pending;
+
+                @Override
+                void write(Object[] values) throws SQLException {
+                    for (int i = 0; i < values.length; i++) {
+                        stmt.setObject(i + 1, values[i]);
+                    }
+                    stmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        flush();
+                    }
+                }
+
+                private void flush() throws SQLException {
+                    stmt.executeBatch();
+                    conn.commit();
+                    pending = 0;
+                }
+
+                @Override
+                public void close() throws SQLException {
+                    if (pending > 0) {
+                        flush();
+                    }
+                    stmt.close();
+                }
+            };
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(profile.foreignKeyChecksSql(true));
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** One CSV file per table and a load.sql script of LOAD DATA statements for the mysql client. */
+    private static class CsvSink implements Sink {
+        private final Path dir;
+        private final List<String> loads = new ArrayList<>();
+
+        CsvSink(Path dir) throws IOException {
+            this.dir = Files.createDirectories(dir);
+        }
+
+        @Override
+        public Table table(String name, String... columns) throws IOException {
+            Path file = dir.resolve(name + ".csv");
+            BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            loads.add("LOAD DATA LOCAL INFILE '" + file.toAbsolutePath().toString().replace("\\", "/").replace("'", "''")
+                    + "' INTO TABLE " + name + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                    + " ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' IGNORE 1 LINES (" + String.join(", ", columns) + ");");
+            out.write(String.join(",", columns));
+            out.write('\n');
+            return new Table(name) {
+                @Override
+                void write(Object[] values) throws IOException {
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0) {
+                            out.write(',');
+                        }
+                        out.write(csv(values[i]));
+                    }
+                    out.write('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        }
+
+        private static String csv(Object value) {
+            if (value == null) {
+                return "\\N";
+            }
+            if (value instanceof Number) {
+                return value.toString();
+            }
+            String s = value.toString();
+            return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        }
+
+        @Override
+        public void close() throws IOException {
+            List<String> script = new ArrayList<>();
+            script.add("-- Generated by util.DataGenerator; run with mysql --local-infile=1 flights < load.sql");
+            script.add("SET FOREIGN_KEY_CHECKS = 0;");
+            script.add("SET UNIQUE_CHECKS = 0;");
+            script.addAll(loads);
+            script.add("SET UNIQUE_CHECKS = 1;");
+            script.add("SET FOREIGN_KEY_CHECKS = 1;");
+            Files.write(dir.resolve("load.sql"), script, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Generate the dataset into an open connection, e.g. while the embedded database starts
+     * @param conn Connection to an empty schema
+     * @param profile The database behind the connection
+     * @throws SQLException if the schema is not empty or an insert fails
+     */
+    static void load(Connection conn, DbProfile profile) throws SQLException {
+        try (Sink sink = new JdbcSink(conn, profile)) {
+            DataGenerator generator = new DataGenerator(sink);
+            generator.generate();
+            generator.report(0);
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException("Data generation failed", e);
+        }
+    }
+
+    private void report(long startNanos) {
+        long total = 0;
+        for (Map.Entry<String, Long> e : rowCounts.entrySet()) {
+            System.out.printf("%-18s %,12d rows%n", e.getKey(), e.getValue());
+            total += e.getValue();
+        }
+        if (startNanos > 0) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            System.out.printf("Generated %,d rows with seed %d in %.1f s (%,.0f rows/s)%n",
+                    total, SEED, seconds, total / seconds);
+        } else {
+            System.out.printf("Generated %,d rows with seed %d%n", total, SEED);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("jdbc") || (args[0].equals("csv") && args.length > 1))) {
+            System.err.println("Usage: java util.DataGenerator jdbc | csv <dir>");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        if (args[0].equals("jdbc")) {
+            try (Connection conn = DbConnection.getInstance();
+                 Sink sink = new JdbcSink(conn, DbConnection.getProfile())) {
+                DataGenerator generator = new DataGenerator(sink);
+                generator.generate();
+                generator.report(start);
+            } finally {
+                DbConnection.closeConnection();
+            }
+        } else {
+            try (Sink sink = new CsvSink(Paths.get(args[1]))) {
+                DataGenerator generator = new DataGenerator(sink);
+                generator.generate();
+                generator.report(start);
+            }
+        }
+    }
+}
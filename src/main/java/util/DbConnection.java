@@ -1,46 +1,94 @@
 package util;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
- * Database connection utility class with improved connection management
+ * Database connection utility class backed by a bounded connection pool.
+ * Connections returned by {@link #getInstance()} go back to the pool when closed.
+ * The database is chosen by the {@link DbProfile} (-Ddb.profile); the embedded profile
+ * is created and loaded before the first connection is handed out.
+ *
+ * Statements are timed by SQL shape unless -Ddb.queryStats=false; executions slower than
+ * -Ddb.slowQueryMs (default 200) are written to -Ddb.slowQueryLog, or logged as warnings
+ * when no log file is set.
  */
 public class DbConnection {
 
+    private static final Log LOG = Log.get(DbConnection.class);
+
     private static DbConnection instance = null;
-    private Connection conn = null;
-    
+    private final ConnectionPool pool;
+
     // Database configuration
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/flights";
-    private static final String USER = "root";
-    private static final String PASS = "";
-    
+    private static final DbProfile PROFILE = DbProfile.current();
+    private static volatile boolean initialized = !PROFILE.isEmbedded();
+
     // Maximum number of connection attempts
     private static final int MAX_RETRY_ATTEMPTS = 3;
-    
+
+    // Pool sizing, overridable with -Ddb.pool.* system properties
+    private static final int POOL_MAX_SIZE = Integer.getInteger("db.pool.maxSize", 10);
+    private static final int POOL_MIN_IDLE = Integer.getInteger("db.pool.minIdle", 2);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("db.pool.borrowTimeoutMs", 10_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("db.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_MAX_LIFETIME_MS = Long.getLong("db.pool.maxLifetimeMs", 1_800_000L);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("db.pool.leakThresholdMs", 30_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("db.pool.statementCacheSize", 64);
+
+    // Query timing, kept across pool restarts
+    private static final QueryRecorder QUERY_RECORDER = Boolean.parseBoolean(System.getProperty("db.queryStats", "true"))
+            ? new QueryRecorder(Long.getLong("db.slowQueryMs", 200L), openSlowQueryLog(System.getProperty("db.slowQueryLog")))
+            : null;
+
     // Private constructor to prevent direct instantiation
-    private DbConnection() {}
+    private DbConnection() {
+        pool = new ConnectionPool(DbConnection::openPhysicalConnection,
+                POOL_MAX_SIZE, POOL_MIN_IDLE, POOL_BORROW_TIMEOUT_MS,
+                POOL_IDLE_TIMEOUT_MS, POOL_MAX_LIFETIME_MS, POOL_LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE,
+                QUERY_RECORDER);
+    }
+
+    /**
+     * @return The slow query log file, or null to log slow queries through {@link Log}
+     */
+    private static PrintStream openSlowQueryLog(String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        try {
+            return new PrintStream(new FileOutputStream(path, true), true, StandardCharsets.UTF_8);
+        } catch (FileNotFoundException e) {
+            LOG.warn("Cannot open slow query log, logging slow queries instead", "path", path, "error", e.getMessage());
+            return null;
+        }
+    }
 
     /**
-     * Initialize the database connection
+     * Open a new physical database connection for the pool
      * @throws SQLException if connection fails after retry attempts
      */
-    private void init() throws SQLException {
+    private static Connection openPhysicalConnection() throws SQLException {
         int attempts = 0;
         SQLException lastException = null;
-        
+
         // Try to connect with retry logic
         while (attempts < MAX_RETRY_ATTEMPTS) {
             try {
-                conn = DriverManager.getConnection(DB_URL, USER, PASS);
-                System.out.println("Connected to database successfully");
-                return;
+                Connection conn = DriverManager.getConnection(PROFILE.getUrl(), PROFILE.getUser(), PROFILE.getPassword());
+                LOG.debug("Opened database connection", "url", PROFILE.getUrl());
+                return conn;
             } catch (SQLException e) {
                 lastException = e;
                 attempts++;
-                System.err.println("Connection attempt " + attempts + " failed: " + e.getMessage());
-                
+                LOG.warn("Connection attempt failed", "attempt", attempts, "of", MAX_RETRY_ATTEMPTS,
+                        "error", e.getMessage());
+
                 // Wait before retrying
                 try {
                     Thread.sleep(1000);
@@ -49,43 +97,95 @@ public class DbConnection {
                 }
             }
         }
-        
+
         // If we get here, all attempts failed
         throw new SQLException("Failed to connect to database after " + MAX_RETRY_ATTEMPTS + " attempts", lastException);
     }
 
+    private static synchronized DbConnection get() {
+        if (instance == null) {
+            instance = new DbConnection();
+        }
+        return instance;
+    }
+
     /**
-     * Get the current connection
-     * @return The database connection
+     * Borrow a connection from the pool
+     * @return A pooled database connection; close it to return it to the pool
+     * @throws SQLException if connection cannot be established
      */
-    public Connection getConnection() {
-        return conn;
+    public Connection getConnection() throws SQLException {
+        return pool.borrow();
     }
 
     /**
      * Get a database connection instance
-     * @return A valid database connection
+     * @return A valid database connection, returned to the pool when closed
      * @throws SQLException if connection cannot be established
      */
     public static Connection getInstance() throws SQLException {
-        if (instance == null || instance.getConnection() == null || instance.getConnection().isClosed()) {
-            instance = new DbConnection();
-            instance.init();
+        if (!initialized) {
+            initializeEmbedded();
+        }
+        return get().getConnection();
+    }
+
+    private static synchronized void initializeEmbedded() throws SQLException {
+        if (!initialized) {
+            EmbeddedDatabase.initialize(PROFILE);
+            initialized = true;
         }
-        return instance.getConnection();
     }
-    
+
     /**
-     * Close the database connection
+     * Get the database profile in use
+     * @return The profile selected with -Ddb.profile
      */
-    public static void closeConnection() {
-        if (instance != null && instance.conn != null) {
-            try {
-                instance.conn.close();
-                System.out.println("Database connection closed");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
+    public static DbProfile getProfile() {
+        return PROFILE;
+    }
+
+    /**
+     * Get the current pool statistics (active, idle, wait time, statement cache hits)
+     * @return A snapshot of the pool counters
+     */
+    public static PoolStats getPoolStats() {
+        return get().pool.getStats();
+    }
+
+    /**
+     * Get the statement timings recorded since startup or the last reset
+     * @return One entry per SQL shape, most total time first; empty when timing is disabled
+     */
+    public static List<QueryStats> getQueryStats() {
+        return QUERY_RECORDER == null ? List.of() : QUERY_RECORDER.snapshot();
+    }
+
+    /**
+     * Clear the recorded statement timings
+     */
+    public static void resetQueryStats() {
+        if (QUERY_RECORDER != null) {
+            QUERY_RECORDER.reset();
+        }
+    }
+
+    /**
+     * Get the maximum number of connections the pool will open
+     * @return The pool size limit
+     */
+    public static int getPoolSize() {
+        return get().pool.getMaxSize();
+    }
+
+    /**
+     * Close all pooled database connections
+     */
+    public static synchronized void closeConnection() {
+        if (instance != null) {
+            instance.pool.shutdown();
+            instance = null;
+            LOG.info("Database connection pool closed");
         }
     }
 }
@@ -0,0 +1,63 @@
+package util;
+
+/**
+ * Database the application connects to, selected with -Ddb.profile=mysql (the default)
+ * or -Ddb.profile=h2. The URL and credentials can be overridden with -Ddb.url,
+ * -Ddb.user and -Ddb.password.
+ */
+public enum DbProfile {
+
+    /** The MySQL server the application is deployed against. */
+    MYSQL("jdbc:mysql://localhost:3306/flights", "root", ""),
+
+    /**
+     * In-process H2 database in MySQL compatibility mode, created and loaded on first use
+     * by {@link EmbeddedDatabase}. Needs no server, so the model layer can be run and
+     * benchmarked anywhere. Kept for the life of the JVM; point -Ddb.url at a
+     * jdbc:h2:file: URL to keep it between runs.
+     */
+    H2("jdbc:h2:mem:flights;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;"
+            + "NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final String defaultUrl;
+    private final String defaultUser;
+    private final String defaultPassword;
+
+    DbProfile(String defaultUrl, String defaultUser, String defaultPassword) {
+        this.defaultUrl = defaultUrl;
+        this.defaultUser = defaultUser;
+        this.defaultPassword = defaultPassword;
+    }
+
+    /**
+     * Get the profile selected by the db.profile system property
+     * @return The selected profile
+     * @throws IllegalArgumentException if the property names no known profile
+     */
+    public static DbProfile current() {
+        return valueOf(System.getProperty("db.profile", "mysql").toUpperCase());
+    }
+
+    public String getUrl() { return System.getProperty("db.url", defaultUrl); }
+    public String getUser() { return System.getProperty("db.user", defaultUser); }
+    public String getPassword() { return System.getProperty("db.password", defaultPassword); }
+
+    public boolean isEmbedded() {
+        return this == H2;
+    }
+
+    /**
+     * SQL that turns foreign key checking off or on, for bulk loads that insert related
+     * rows out of order. On MySQL this applies to the session only; on H2 it applies to
+     * the whole database, so only use it while nothing else is writing, e.g. while the
+     * embedded database is being initialized
+     * @param enabled Whether checks should be on
+     * @return The statement for this database
+     */
+    public String foreignKeyChecksSql(boolean enabled) {
+        if (this == H2) {
+            return "SET REFERENTIAL_INTEGRITY " + (enabled ? "TRUE" : "FALSE");
+        }
+        return "SET FOREIGN_KEY_CHECKS = " + (enabled ? 1 : 0);
+    }
+}
@@ -0,0 +1,171 @@
+package util;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Creates and loads the embedded H2 database the first time the H2 profile is used:
+ * applies schema.sql, optionally loads seed data, runs the pending migrations, and
+ * reports how long startup took.
+ * A database that already has the schema (a file database, or a second pool in the same
+ * JVM) is left as it is.
+ *
+ * The MySQL scripts are adapted while they run: CREATE DATABASE and USE are dropped,
+ * TEXT columns become VARCHAR so they can be compared and indexed as in MySQL (H2 treats
+ * TEXT as a CLOB), and foreign key checks stay off for the whole seed script.
+ *
+ * Settings:
+ * <pre>
+ * -Ddb.schema=schema.sql     schema script, from the working directory or the classpath
+ * -Ddb.seed=sample           sample (seeder.sql), generated (util.DataGenerator) or none
+ * </pre>
+ */
+public class EmbeddedDatabase {
+
+    private static final Log LOG = Log.get(EmbeddedDatabase.class);
+
+    private static final String SCHEMA = System.getProperty("db.schema", "schema.sql");
+    private static final String SEED = System.getProperty("db.seed", "sample");
+    private static final String SAMPLE_SEED = "seeder.sql";
+
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * Create the schema and load the seed data unless the database already has them
+     * @param profile The embedded profile to connect with
+     * @throws SQLException if a statement fails or a script cannot be read
+     */
+    static void initialize(DbProfile profile) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(profile.getUrl(), profile.getUser(), profile.getPassword())) {
+            if (hasSchema(conn)) {
+                LOG.info("Embedded database already initialized");
+                return;
+            }
+
+            int statements = run(conn, script(SCHEMA));
+            long schemaNanos = System.nanoTime() - start;
+
+            long seedStart = System.nanoTime();
+            String seed = SEED.toLowerCase(Locale.ROOT);
+            switch (seed) {
+                case "sample":
+                    // The sample rows are inserted out of dependency order
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(profile.foreignKeyChecksSql(false));
+                        run(conn, script(SAMPLE_SEED));
+                        stmt.execute(profile.foreignKeyChecksSql(true));
+                    }
+                    break;
+                case "generated":
+                    DataGenerator.load(conn, profile);
+                    restartIdentities(conn);
+                    break;
+                case "none":
+                    break;
+                default:
+                    throw new SQLException("Unknown db.seed value: " + SEED);
+            }
+            long seedNanos = System.nanoTime() - seedStart;
+
+            // Seeded after schema.sql so the migrations also run over existing rows, as in production
+            long migrateStart = System.nanoTime();
+            int migrations = MigrationRunner.migrate(conn);
+            long migrateNanos = System.nanoTime() - migrateStart;
+
+            LOG.info("Embedded database ready", "ms", (System.nanoTime() - start) / 1_000_000,
+                    "statements", statements, "schemaMs", schemaNanos / 1_000_000, "seed", seed,
+                    "seedMs", seedNanos / 1_000_000, "migrations", migrations, "migrateMs", migrateNanos / 1_000_000);
+        }
+    }
+
+    private static boolean hasSchema(Connection conn) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(null, null, "flight", new String[] {"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static List<String> script(String path) throws SQLException {
+        try {
+            return SqlScript.load(path);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read " + path, e);
+        }
+    }
+
+    /**
+     * Run MySQL statements against H2, adapting or skipping the ones H2 does not accept
+     * @return The number of statements run
+     */
+    private static int run(Connection conn, List<String> statements) throws SQLException {
+        int count = 0;
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                String adapted = adapt(sql);
+                if (adapted == null) {
+                    continue;
+                }
+                try {
+                    stmt.execute(adapted);
+                } catch (SQLException e) {
+                    throw new SQLException("Failed to run: " + adapted, e);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String adapt(String sql) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")
+                || upper.startsWith("START TRANSACTION") || upper.equals("COMMIT")
+                || upper.startsWith("TRUNCATE")) {
+            // One fresh database, loaded in auto-commit mode
+            return null;
+        }
+        if (upper.startsWith("SET FOREIGN_KEY_CHECKS")) {
+            // initialize() keeps checks off for the whole seed script instead
+            return null;
+        }
+        if (upper.startsWith("CREATE TABLE")) {
+            return sql.replaceAll("(?i)\\bTEXT\\b", "VARCHAR(1000)");
+        }
+        return sql;
+    }
+
+    /**
+     * The generator writes explicit ids, which H2 does not feed back into the identity
+     * counters, so move each counter past the highest id
+     */
+    private static void restartIdentities(Connection conn) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = conn.getMetaData().getColumns(null, conn.getSchema(), null, "id")) {
+            while (rs.next()) {
+                if ("YES".equals(rs.getString("IS_AUTOINCREMENT"))) {
+                    tables.add(rs.getString("TABLE_NAME"));
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : tables) {
+                long next;
+                try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    next = rs.getLong(1);
+                }
+                stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            }
+        }
+    }
+}
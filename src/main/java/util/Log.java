@@ -0,0 +1,279 @@
+package util;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small asynchronous logger with levels and key/value fields.
+ *
+ * Logging a message only captures the time, thread, message and fields and offers them to
+ * a bounded queue, so the calling thread (often the EDT) never waits on console I/O. A
+ * daemon thread formats the events, writes them to stdout or -Dlog.file, and keeps the
+ * most recent ones in a ring buffer that {@link #recent()} returns. When the queue is
+ * full, new events are dropped and counted rather than blocking the caller.
+ *
+ * A disabled level costs one comparison. Build expensive fields inside an
+ * {@code isDebugEnabled()} check, and pass values instead of concatenated strings:
+ * <pre>
+ * LOG.debug("Seat map built", "seats", seats.size(), "ms", millis);
+ * 2026-10-18T10:15:30.123 DEBUG [AWT-EventQueue-0] view.SeatSelectionPanel - Seat map built seats=312 ms=4.2
+ * </pre>
+ *
+ * Settings:
+ * <pre>
+ * -Dlog.level=INFO              default level: TRACE, DEBUG, INFO, WARN, ERROR or OFF
+ * -Dlog.level.&lt;name&gt;=DEBUG     level for one logger, e.g. -Dlog.level.view.SeatSelectionPanel=DEBUG
+ * -Dlog.file=app.log            append to this file instead of stdout
+ * -Dlog.queueSize=8192          events waiting to be written before new ones are dropped
+ * -Dlog.ringSize=1000           recent events kept in memory
+ * </pre>
+ */
+public class Log {
+
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final Level DEFAULT_LEVEL = parseLevel(System.getProperty("log.level"), Level.INFO);
+    private static final int QUEUE_SIZE = Integer.getInteger("log.queueSize", 8192);
+    private static final int RING_SIZE = Integer.getInteger("log.ringSize", 1000);
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final ConcurrentHashMap<String, Log> loggers = new ConcurrentHashMap<>();
+    private static final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static final PrintStream out = openOutput(System.getProperty("log.file"));
+
+    // Ring buffer of formatted events, guarded by its own monitor
+    private static final String[] ring = new String[Math.max(1, RING_SIZE)];
+    private static long ringCount;
+
+    static {
+        Thread writer = new Thread(Log::drain, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+    }
+
+    private final String name;
+    private volatile Level level;
+
+    private Log(String name) {
+        this.name = name;
+        this.level = parseLevel(System.getProperty("log.level." + name), DEFAULT_LEVEL);
+    }
+
+    /**
+     * Get the logger for a class, named after its fully qualified name
+     * @param type The class that logs
+     * @return The shared logger for that name
+     */
+    public static Log get(Class<?> type) {
+        return get(type.getName());
+    }
+
+    /**
+     * Get a logger by name
+     * @param name Logger name, e.g. "view.SeatSelectionPanel"
+     * @return The shared logger for that name
+     */
+    public static Log get(String name) {
+        return loggers.computeIfAbsent(name, Log::new);
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(Level at) {
+        return at.compareTo(level) >= 0;
+    }
+
+    public boolean isTraceEnabled() { return isEnabled(Level.TRACE); }
+    public boolean isDebugEnabled() { return isEnabled(Level.DEBUG); }
+
+    public void trace(String message, Object... fields) { log(Level.TRACE, message, null, fields); }
+    public void debug(String message, Object... fields) { log(Level.DEBUG, message, null, fields); }
+    public void info(String message, Object... fields) { log(Level.INFO, message, null, fields); }
+    public void warn(String message, Object... fields) { log(Level.WARN, message, null, fields); }
+    public void error(String message, Throwable error, Object... fields) { log(Level.ERROR, message, error, fields); }
+
+    /**
+     * Queue an event if the level is enabled
+     * @param at The event's level
+     * @param message What happened
+     * @param error Exception to print with the event, or null
+     * @param fields Alternating keys and values, written as key=value after the message
+     */
+    public void log(Level at, String message, Throwable error, Object... fields) {
+        if (!isEnabled(at)) {
+            return;
+        }
+        Event event = new Event(System.currentTimeMillis(), at, Thread.currentThread().getName(),
+                name, message, error, fields);
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the most recently written events, oldest first
+     * @return Formatted events, at most -Dlog.ringSize of them
+     */
+    public static List<String> recent() {
+        synchronized (ring) {
+            int size = (int) Math.min(ringCount, ring.length);
+            List<String> events = new ArrayList<>(size);
+            for (long i = ringCount - size; i < ringCount; i++) {
+                events.add(ring[(int) (i % ring.length)]);
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Get the number of events dropped because the queue was full
+     * @return The dropped event count since startup
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of events written
+     * @return The written event count since startup
+     */
+    public static long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Write out everything queued so far, e.g. before the JVM exits
+     */
+    public static void flush() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            write(event);
+        }
+        out.flush();
+    }
+
+    private static void drain() {
+        List<Event> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Event first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (Event event : batch) {
+                    write(event);
+                }
+                batch.clear();
+                out.flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // A field's toString() failed; keep the writer alive
+                batch.clear();
+                System.err.println("Log writer error: " + e);
+            }
+        }
+    }
+
+    private static void write(Event event) {
+        String line = event.format();
+        synchronized (ring) {
+            ring[(int) (ringCount % ring.length)] = line;
+            ringCount++;
+        }
+        out.println(line);
+        if (event.error != null) {
+            event.error.printStackTrace(out);
+        }
+        written.incrementAndGet();
+    }
+
+    private static PrintStream openOutput(String path) {
+        if (path == null || path.isEmpty()) {
+            return System.out;
+        }
+        try {
+            return new PrintStream(new FileOutputStream(path, true), false, StandardCharsets.UTF_8);
+        } catch (FileNotFoundException e) {
+            System.err.println("Cannot open log file " + path + ", using stdout: " + e.getMessage());
+            return System.out;
+        }
+    }
+
+    private static Level parseLevel(String value, Level fallback) {
+        if (value == null || value.isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level: " + value);
+            return fallback;
+        }
+    }
+
+    /**
+     * One log call, formatted on the writer thread
+     */
+    private static class Event {
+        final long time;
+        final Level level;
+        final String thread;
+        final String logger;
+        final String message;
+        final Throwable error;
+        final Object[] fields;
+
+        Event(long time, Level level, String thread, String logger, String message, Throwable error, Object[] fields) {
+            this.time = time;
+            this.level = level;
+            this.thread = thread;
+            this.logger = logger;
+            this.message = message;
+            this.error = error;
+            this.fields = fields;
+        }
+
+        String format() {
+            StringBuilder sb = new StringBuilder(96);
+            TIME_FORMAT.formatTo(Instant.ofEpochMilli(time), sb);
+            sb.append(' ').append(level).append(" [").append(thread).append("] ")
+              .append(logger).append(" - ").append(message);
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                sb.append(' ').append(fields[i]).append('=');
+                Object value = fields[i + 1];
+                if (value instanceof Double || value instanceof Float) {
+                    sb.append(String.format(Locale.ROOT, "%.1f", ((Number) value).doubleValue()));
+                } else {
+                    sb.append(value);
+                }
+            }
+            if (error != null) {
+                sb.append(" error=").append(error);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned schema migrations in migrations/ (files named
+ * V&lt;version&gt;__&lt;description&gt;.sql) in version order, recording each one in the
+ * schema_version table so it runs once per database.
+ *
+ * schema.sql creates a database that already includes the migrations it records in
+ * schema_version, so only later ones run on top of it. A database created before
+ * schema_version existed starts at version 0; pass -Dmigrations.baseline=N to record
+ * versions up to N as applied without running them.
+ *
+ * MySQL commits each DDL statement on its own, so a migration that fails halfway is not
+ * recorded and has to be finished by hand before the runner is started again.
+ *
+ * Usage: java util.MigrationRunner [info]
+ */
+public class MigrationRunner {
+
+    private static final Log LOG = Log.get(MigrationRunner.class);
+
+    private static final String DIRECTORY = System.getProperty("migrations.dir", "migrations");
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "checksum BIGINT, " +
+            "installed_on TIMESTAMP NOT NULL, " +
+            "execution_ms BIGINT)";
+
+    private MigrationRunner() {
+    }
+
+    /**
+     * A migration script found on disk
+     */
+    private static class Migration {
+        final int version;
+        final String description;
+        final Path file;
+        final String script;
+        final long checksum;
+
+        Migration(int version, String description, Path file) throws IOException {
+            this.version = version;
+            this.description = description.replace('_', ' ');
+            this.file = file;
+            this.script = Files.readString(file, StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+
+    /**
+     * Apply every migration newer than the database's current version
+     * @param conn Connection to the database to migrate
+     * @return The number of migrations applied
+     * @throws SQLException if a migration fails or the scripts cannot be read
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        TreeMap<Integer, Migration> migrations = findMigrations();
+        Map<Integer, Long> applied = ensureVersionTable(conn);
+        verifyChecksums(migrations, applied);
+
+        int baseline = Integer.getInteger("migrations.baseline", 0);
+        int count = 0;
+        for (Migration migration : migrations.values()) {
+            if (applied.containsKey(migration.version)) {
+                continue;
+            }
+            if (migration.version <= baseline) {
+                record(conn, migration, null, 0);
+                LOG.info("Baselined migration", "version", migration.version, "description", migration.description);
+                continue;
+            }
+            if (!applied.isEmpty() && migration.version < applied.keySet().stream().max(Integer::compare).get()) {
+                throw new SQLException("Migration V" + migration.version + " is older than the database's version; "
+                        + "renumber it or apply it by hand");
+            }
+
+            long start = System.nanoTime();
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : SqlScript.split(migration.script)) {
+                    try {
+                        stmt.execute(sql);
+                    } catch (SQLException e) {
+                        throw new SQLException("Migration V" + migration.version + " failed on: " + sql, e);
+                    }
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            record(conn, migration, migration.checksum, millis);
+            LOG.info("Applied migration", "version", migration.version, "description", migration.description,
+                    "ms", millis);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the highest migration version recorded in the database
+     * @param conn Connection to the database
+     * @return The version, or 0 if none is recorded
+     * @throws SQLException if the version table cannot be created or read
+     */
+    public static int currentVersion(Connection conn) throws SQLException {
+        return ensureVersionTable(conn).keySet().stream().max(Integer::compare).orElse(0);
+    }
+
+    private static TreeMap<Integer, Migration> findMigrations() throws SQLException {
+        TreeMap<Integer, Migration> migrations = new TreeMap<>();
+        Path dir = Paths.get(DIRECTORY);
+        if (!Files.isDirectory(dir)) {
+            LOG.warn("Migrations directory not found", "dir", dir.toAbsolutePath());
+            return migrations;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "V*.sql")) {
+            for (Path file : files) {
+                Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+                if (!m.matches()) {
+                    LOG.warn("Skipping migration with unexpected name", "file", file.getFileName());
+                    continue;
+                }
+                Migration migration = new Migration(Integer.parseInt(m.group(1)), m.group(2), file);
+                Migration clash = migrations.put(migration.version, migration);
+                if (clash != null) {
+                    throw new SQLException("Two migrations share version " + migration.version + ": "
+                            + clash.file.getFileName() + " and " + file.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot read migrations from " + dir.toAbsolutePath(), e);
+        }
+        return migrations;
+    }
+
+    /**
+     * Create the version table if needed and read the applied versions
+     * @return Applied version to checksum; baselined versions have a null checksum
+     */
+    private static Map<Integer, Long> ensureVersionTable(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE_SQL);
+            try (ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+                while (rs.next()) {
+                    long checksum = rs.getLong("checksum");
+                    applied.put(rs.getInt("version"), rs.wasNull() ? null : checksum);
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static void verifyChecksums(Map<Integer, Migration> migrations, Map<Integer, Long> applied) {
+        for (Map.Entry<Integer, Long> e : applied.entrySet()) {
+            Migration migration = migrations.get(e.getKey());
+            if (migration != null && e.getValue() != null && e.getValue() != migration.checksum) {
+                LOG.warn("Migration was changed after it was applied", "version", e.getKey());
+            }
+        }
+    }
+
+    private static void record(Connection conn, Migration migration, Long checksum, long millis) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, checksum, installed_on, execution_ms) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setObject(3, checksum);
+            stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            stmt.setLong(5, millis);
+            stmt.executeUpdate();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (Connection conn = DbConnection.getInstance()) {
+            if (args.length > 0 && args[0].equals("info")) {
+                LOG.info("Schema version", "version", currentVersion(conn));
+                return;
+            }
+            int applied = migrate(conn);
+            LOG.info(applied == 0 ? "Schema is up to date" : "Migrations applied", "applied", applied,
+                    "version", currentVersion(conn));
+        } finally {
+            DbConnection.closeConnection();
+            Log.flush();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory trigram index for case-insensitive substring search over short texts, such
+ * as "username email" per user.
+ *
+ * Every three-character sequence of a text maps to the ids of the texts containing it.
+ * A query is answered by intersecting the lists of its trigrams, rarest first, and then
+ * checking the remaining candidates against the stored text, so the result is exact.
+ * Queries shorter than three characters merge the lists of every trigram containing
+ * them.
+ *
+ * Ids must be added in ascending order, so a changed text cannot be indexed again under
+ * its id; {@link #remove(int)} hides it from searches instead. Each id list is stored as variable-length deltas
+ * in one byte array, which keeps a list of a million ids to a few megabytes; texts are
+ * stored as UTF-8 in one shared buffer. All methods are synchronized: adds are rare and
+ * a search takes milliseconds.
+ */
+public class NgramIndex {
+
+    private static final int GRAM = 3;
+
+    /**
+     * Ascending ids as variable-length deltas
+     */
+    private static final class Postings {
+        byte[] data = new byte[8];
+        int length;
+        int count;
+        int lastId = -1;
+
+        void add(int id) {
+            if (id == lastId) {
+                return;
+            }
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int delta = id - lastId;
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            lastId = id;
+            count++;
+        }
+    }
+
+    /**
+     * Reads a postings list forward
+     */
+    private static final class Cursor {
+        final Postings postings;
+        int position;
+        int id = -1;
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        /**
+         * @return The next id, or -1 at the end of the list
+         */
+        int next() {
+            if (position >= postings.length) {
+                return id = -1;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings.data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return id += delta;
+        }
+
+        /**
+         * @return The first id at or after the target, or -1 if there is none
+         */
+        int advanceTo(int target) {
+            while (id < target) {
+                if (next() < 0) {
+                    return -1;
+                }
+            }
+            return id;
+        }
+    }
+
+    private final Map<Long, Postings> grams = new HashMap<>();
+
+    // Texts in id order: ids[i] has its UTF-8 text at textStart[i] .. textStart[i + 1]
+    private int[] ids = new int[1024];
+    private int[] textStart = new int[1025];
+    private byte[] texts = new byte[16 * 1024];
+    private int size;
+
+    // Positions (indexes into ids) of removed texts
+    private final BitSet removed = new BitSet();
+
+    // Ids of texts shorter than a trigram
+    private int[] shortIds = new int[0];
+    private int shortCount;
+
+    /**
+     * Index a text
+     * @param id Id of the text, greater than every id added before
+     * @param text The text; searched case-insensitively
+     * @throws IllegalArgumentException if the id is not greater than the last one
+     */
+    public synchronized void add(int id, String text) {
+        if (size > 0 && id <= ids[size - 1]) {
+            throw new IllegalArgumentException("Ids must be added in ascending order: " + id);
+        }
+        String normalized = normalize(text);
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.computeIfAbsent(key(normalized, i), k -> new Postings()).add(id);
+        }
+        if (normalized.length() < GRAM) {
+            if (shortCount == shortIds.length) {
+                shortIds = Arrays.copyOf(shortIds, shortCount * 2 + 8);
+            }
+            shortIds[shortCount++] = id;
+        }
+
+        byte[] bytes = normalized.getBytes(StandardCharsets.UTF_8);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            textStart = Arrays.copyOf(textStart, size * 2 + 1);
+        }
+        int start = textStart[size];
+        if (start + bytes.length > texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(texts.length * 2, start + bytes.length));
+        }
+        System.arraycopy(bytes, 0, texts, start, bytes.length);
+        ids[size] = id;
+        textStart[size + 1] = start + bytes.length;
+        size++;
+    }
+
+    /**
+     * Remove a text, e.g. because it changed; its id is no longer returned by searches
+     * @param id Id of the text
+     * @return Whether the id was in the index
+     */
+    public synchronized boolean remove(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return false;
+        }
+        removed.set(index);
+        return true;
+    }
+
+    /**
+     * @return The id added last, or -1 if the index is empty
+     */
+    public synchronized int lastId() {
+        return size == 0 ? -1 : ids[size - 1];
+    }
+
+    /**
+     * Find the texts containing a query
+     * @param query The substring to look for; case-insensitive
+     * @param limit Maximum number of ids to return
+     * @return Matching ids in ascending order
+     */
+    public synchronized int[] search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        byte[] needle = normalized.getBytes(StandardCharsets.UTF_8);
+        if (normalized.length() < GRAM) {
+            return searchShort(normalized, needle, limit);
+        }
+
+        Cursor[] cursors = new Cursor[normalized.length() - GRAM + 1];
+        for (int i = 0; i < cursors.length; i++) {
+            Postings postings = grams.get(key(normalized, i));
+            if (postings == null) {
+                return new int[0];
+            }
+            cursors[i] = new Cursor(postings);
+        }
+        Arrays.sort(cursors, (a, b) -> Integer.compare(a.postings.count, b.postings.count));
+
+        int[] found = new int[Math.min(limit, cursors[0].postings.count)];
+        int count = 0;
+        int candidate = cursors[0].next();
+        while (candidate >= 0 && count < found.length) {
+            boolean all = true;
+            for (int i = 1; i < cursors.length; i++) {
+                int id = cursors[i].advanceTo(candidate);
+                if (id < 0) {
+                    return Arrays.copyOf(found, count);
+                }
+                if (id != candidate) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                int index = Arrays.binarySearch(ids, 0, size, candidate);
+                if (!removed.get(index) && contains(index, needle)) {
+                    found[count++] = candidate;
+                }
+            }
+            candidate = cursors[0].next();
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Queries of one or two characters: every text containing one is in the list of a
+     * trigram containing it, so merge those lists in id order. Texts too short to have a
+     * trigram are checked directly.
+     */
+    private int[] searchShort(String query, byte[] needle, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>((a, b) -> Integer.compare(a.id, b.id));
+        for (Map.Entry<Long, Postings> entry : grams.entrySet()) {
+            if (gram(entry.getKey()).contains(query)) {
+                Cursor cursor = new Cursor(entry.getValue());
+                if (cursor.next() >= 0) {
+                    heap.add(cursor);
+                }
+            }
+        }
+
+        int[] found = new int[Math.min(limit, size)];
+        int count = 0;
+        while (!heap.isEmpty() && count < found.length) {
+            Cursor cursor = heap.poll();
+            if ((count == 0 || found[count - 1] != cursor.id) && !isRemoved(cursor.id)) {
+                found[count++] = cursor.id;
+            }
+            if (cursor.next() >= 0) {
+                heap.add(cursor);
+            }
+        }
+
+        if (shortCount > 0) {
+            int[] merged = Arrays.copyOf(found, count + shortCount);
+            for (int i = 0; i < shortCount; i++) {
+                int index = Arrays.binarySearch(ids, 0, size, shortIds[i]);
+                if (!removed.get(index) && contains(index, needle)) {
+                    merged[count++] = shortIds[i];
+                }
+            }
+            Arrays.sort(merged, 0, count);
+            return Arrays.copyOf(merged, Math.min(count, limit));
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private boolean isRemoved(int id) {
+        return !removed.isEmpty() && removed.get(Arrays.binarySearch(ids, 0, size, id));
+    }
+
+    private boolean contains(int index, byte[] needle) {
+        int end = textStart[index + 1] - needle.length;
+        outer:
+        for (int i = textStart[index]; i <= end; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (texts[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Release the spare capacity left by adding, e.g. after a bulk load
+     */
+    public synchronized void trim() {
+        for (Postings postings : grams.values()) {
+            postings.data = Arrays.copyOf(postings.data, postings.length);
+        }
+        texts = Arrays.copyOf(texts, textStart[size]);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int gramCount() {
+        return grams.size();
+    }
+
+    /**
+     * Estimate the memory held by the id lists and texts
+     * @return Approximate size in bytes, excluding map overhead
+     */
+    public synchronized long estimatedBytes() {
+        long bytes = (long) ids.length * 4 + (long) textStart.length * 4 + texts.length;
+        for (Postings postings : grams.values()) {
+            bytes += postings.data.length;
+        }
+        return bytes;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String gram(long key) {
+        return new String(new char[] { (char) (key >>> 32), (char) (key >>> 16), (char) key });
+    }
+
+    private static long key(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
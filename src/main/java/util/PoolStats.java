@@ -0,0 +1,78 @@
+package util;
+
+/**
+ * Point-in-time snapshot of connection pool counters, used to size the pool
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int maxSize;
+    private final int waitingThreads;
+    private final long borrowCount;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long validationFailures;
+    private final long timeoutCount;
+    private final long leakCount;
+    private final long averageWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementHits;
+    private final long statementMisses;
+    private final long statementEvictions;
+
+    public PoolStats(int active, int idle, int total, int maxSize, int waitingThreads, long borrowCount,
+                     long createdCount, long evictedCount, long validationFailures, long timeoutCount,
+                     long leakCount, long averageWaitNanos, long maxWaitNanos,
+                     long statementHits, long statementMisses, long statementEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.waitingThreads = waitingThreads;
+        this.borrowCount = borrowCount;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.validationFailures = validationFailures;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+        this.averageWaitNanos = averageWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return total; }
+    public int getMaxSize() { return maxSize; }
+    public int getWaitingThreads() { return waitingThreads; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getCreatedCount() { return createdCount; }
+    public long getEvictedCount() { return evictedCount; }
+    public long getValidationFailures() { return validationFailures; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getLeakCount() { return leakCount; }
+    public double getAverageWaitMillis() { return averageWaitNanos / 1_000_000.0; }
+    public double getMaxWaitMillis() { return maxWaitNanos / 1_000_000.0; }
+    public long getStatementHits() { return statementHits; }
+    public long getStatementMisses() { return statementMisses; }
+    public long getStatementEvictions() { return statementEvictions; }
+
+    public double getStatementHitRate() {
+        long lookups = statementHits + statementMisses;
+        return lookups == 0 ? 0 : (double) statementHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "active=%d idle=%d total=%d/%d waiting=%d borrows=%d created=%d evicted=%d "
+                        + "invalid=%d timeouts=%d leaks=%d avgWait=%.3fms maxWait=%.3fms "
+                        + "stmtHits=%d stmtMisses=%d stmtEvictions=%d",
+                active, idle, total, maxSize, waitingThreads, borrowCount, createdCount, evictedCount,
+                validationFailures, timeoutCount, leakCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                statementHits, statementMisses, statementEvictions);
+    }
+}
@@ -0,0 +1,471 @@
+package util;
+
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Records how long every statement run through the connection pool takes, grouped by SQL
+ * shape: the statement text with string and number literals replaced by ?, whitespace
+ * collapsed and IN lists and multi-row VALUES folded, so "WHERE id = 3" and
+ * "WHERE id = 4" count as one query. Prepared statements are already in that form.
+ *
+ * For each shape it keeps call, error and row counts and a latency histogram. Latency is
+ * the time spent in execute*, which for MySQL's default (non-streaming) result sets
+ * includes transferring the rows. Rows are those read through next() for queries and the
+ * update counts for updates and batches. Executions at or above the slow threshold are
+ * also written to the slow-query log, or logged as warnings when there is none.
+ *
+ * Statements are wrapped in a proxy that only times the execute calls; result sets are
+ * wrapped to count rows. bench.QueryStatsBenchmark measures what this adds per query.
+ */
+public class QueryRecorder {
+
+    // Bounds memory if a caller builds SQL with literals instead of parameters
+    private static final int MAX_SHAPES = 1000;
+    private static final int MAX_CACHED_TEXTS = 4000;
+    private static final int MAX_SHAPE_LENGTH = 2000;
+    private static final String OVERFLOW_SHAPE = "(other statements)";
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(?:, \\?)+\\)");
+    private static final Pattern VALUES_ROWS = Pattern.compile("(\\([^()]*\\))(?:, \\([^()]*\\))+");
+
+    // Proxy classes resolved once; Proxy.newProxyInstance looks them up on every call
+    private static final Constructor<?> STATEMENT_PROXY = proxyConstructor(Statement.class);
+    private static final Constructor<?> PREPARED_PROXY = proxyConstructor(PreparedStatement.class);
+    private static final Constructor<?> CALLABLE_PROXY = proxyConstructor(CallableStatement.class);
+    private static final Constructor<?> RESULT_SET_PROXY = proxyConstructor(ResultSet.class);
+
+    private static final Log LOG = Log.get(QueryRecorder.class);
+
+    private final long slowThresholdNanos;
+    private final PrintStream slowLog;
+    private final ConcurrentHashMap<String, Shape> shapes = new ConcurrentHashMap<>();
+    // Raw SQL text to its shape, so each distinct text is normalized once
+    private final ConcurrentHashMap<String, Shape> byText = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowThresholdMillis Executions taking at least this long are logged; 0 or less logs none
+     * @param slowLog Where slow executions are written, or null to log them through {@link Log}
+     */
+    public QueryRecorder(long slowThresholdMillis, PrintStream slowLog) {
+        this.slowThresholdNanos = slowThresholdMillis > 0 ? slowThresholdMillis * 1_000_000 : Long.MAX_VALUE;
+        this.slowLog = slowLog;
+    }
+
+    /**
+     * Take a snapshot of every shape recorded since the last reset
+     * @return The shapes, most total time first
+     */
+    public List<QueryStats> snapshot() {
+        List<QueryStats> stats = new ArrayList<>();
+        for (Shape shape : shapes.values()) {
+            stats.add(shape.snapshot());
+        }
+        stats.sort(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed());
+        return stats;
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        byText.clear();
+        shapes.clear();
+    }
+
+    /**
+     * Wrap a statement so its executions are recorded
+     * @param stmt The statement to wrap
+     * @param factoryMethod The Connection method that created it: createStatement, prepareStatement or prepareCall
+     * @param sql The SQL it was prepared with, or null for a plain Statement
+     * @return The wrapped statement, implementing the same JDBC interface
+     */
+    Statement wrap(Statement stmt, String factoryMethod, String sql) {
+        Constructor<?> proxy;
+        switch (factoryMethod) {
+            case "prepareStatement":
+                proxy = PREPARED_PROXY;
+                break;
+            case "prepareCall":
+                proxy = CALLABLE_PROXY;
+                break;
+            default:
+                proxy = STATEMENT_PROXY;
+                break;
+        }
+        return (Statement) newProxy(proxy, new TimedStatement(stmt, sql));
+    }
+
+    private static Constructor<?> proxyConstructor(Class<?> type) {
+        try {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (p, m, a) -> null)
+                    .getClass().getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object newProxy(Constructor<?> constructor, InvocationHandler handler) {
+        try {
+            return constructor.newInstance(handler);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Shape shapeOf(String sql) {
+        Shape shape = byText.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        String normalized = normalize(sql);
+        shape = shapes.get(normalized);
+        if (shape == null) {
+            String key = shapes.size() < MAX_SHAPES ? normalized : OVERFLOW_SHAPE;
+            shape = shapes.computeIfAbsent(key, Shape::new);
+        }
+        if (byText.size() < MAX_CACHED_TEXTS) {
+            byText.put(sql, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * Reduce SQL text to its shape
+     * @param sql The SQL as executed
+     * @return The text with literals replaced by ? and whitespace collapsed
+     */
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(Math.min(sql.length(), MAX_SHAPE_LENGTH));
+        int length = sql.length();
+        boolean space = false;
+        for (int i = 0; i < length && out.length() < MAX_SHAPE_LENGTH; i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            if (c == '\'' || c == '"') {
+                // String literal, with backslash and doubled-quote escapes
+                i++;
+                while (i < length) {
+                    char d = sql.charAt(i);
+                    if (d == '\\') {
+                        i++;
+                    } else if (d == c) {
+                        if (i + 1 < length && sql.charAt(i + 1) == c) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    i++;
+                }
+                out.append('?');
+            } else if (c == '`') {
+                int end = sql.indexOf('`', i + 1);
+                end = end < 0 ? length - 1 : end;
+                out.append(sql, i, end + 1);
+                i = end;
+            } else if (Character.isDigit(c) && !isIdentifierEnd(out)) {
+                while (i + 1 < length && (Character.isLetterOrDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(c);
+            }
+        }
+        String shape = out.toString();
+        if (shape.indexOf('(') >= 0) {
+            shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+            shape = VALUES_ROWS.matcher(shape).replaceAll("$1, ...");
+        }
+        return shape;
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    private void logSlow(Shape shape, String sql, long nanos, boolean failed) {
+        shape.slowCalls.increment();
+        if (slowLog == null) {
+            LOG.warn("Slow query", "ms", nanos / 1_000_000, "failed", failed, "sql", sql.replaceAll("\\s+", " "));
+            return;
+        }
+        slowLog.printf(Locale.ROOT, "%s SLOW %.1f ms%s [%s] %s%n",
+                LocalDateTime.now(), nanos / 1e6, failed ? " (failed)" : "",
+                Thread.currentThread().getName(), sql.replaceAll("\\s+", " "));
+    }
+
+    /**
+     * Counters for one SQL shape
+     */
+    private static class Shape {
+        // Log-linear buckets: each power of two split into 8, so percentiles are within about 12%
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        final String sql;
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder slowCalls = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long nanos, boolean failed) {
+            long value = Math.max(0, nanos);
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(value);
+            buckets.incrementAndGet(index(value));
+            if (value > maxNanos.get()) {
+                maxNanos.accumulateAndGet(value, Math::max);
+            }
+        }
+
+        QueryStats snapshot() {
+            long[] counts = new long[buckets.length()];
+            long count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            long max = maxNanos.get();
+            return new QueryStats(sql, calls.sum(), errors.sum(), slowCalls.sum(), rows.sum(), totalNanos.sum(),
+                    percentile(counts, count, 0.50, max), percentile(counts, count, 0.95, max),
+                    percentile(counts, count, 0.99, max), max);
+        }
+
+        private static long percentile(long[] counts, long count, double p, long max) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, upperBound(i));
+                }
+            }
+            return max;
+        }
+
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            int sub = (int) (value >>> shift) - SUB_BUCKETS;
+            return (shift + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int index) {
+            int group = index / SUB_BUCKETS;
+            int sub = index % SUB_BUCKETS;
+            if (group == 0) {
+                return sub;
+            }
+            int shift = group - 1;
+            long lower = (long) (SUB_BUCKETS + sub) << shift;
+            return lower + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * Times the execute calls of one statement and counts the rows they return or change
+     */
+    private class TimedStatement implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        // Plain statements: the first SQL added to the pending batch, and the last executed
+        private String batchSql;
+        private String lastSql;
+
+        TimedStatement(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            switch (name) {
+                case "getResultSet":
+                    ResultSet rs = (ResultSet) call(method, args);
+                    return rs == null || lastSql == null ? rs : countRows(rs, shapeOf(lastSql));
+                case "addBatch":
+                    if (preparedSql == null && batchSql == null && args != null) {
+                        batchSql = (String) args[0];
+                    }
+                    break;
+                case "clearBatch":
+                    batchSql = null;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Timed[" + target + "]";
+                default:
+                    break;
+            }
+            return call(method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String sql = preparedSql;
+            if (sql == null) {
+                sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : batchSql;
+            }
+            if (method.getName().contains("Batch")) {
+                batchSql = null;
+            }
+            if (sql == null) {
+                return call(method, args);
+            }
+            lastSql = sql;
+
+            Object result;
+            long start = System.nanoTime();
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                finish(sql, System.nanoTime() - start, true);
+                throw e.getCause();
+            }
+            Shape shape = finish(sql, System.nanoTime() - start, false);
+
+            if (result instanceof ResultSet) {
+                return countRows((ResultSet) result, shape);
+            } else if (result instanceof Integer || result instanceof Long) {
+                shape.rows.add(Math.max(0, ((Number) result).longValue()));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    shape.rows.add(Math.max(0, count));
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    shape.rows.add(Math.max(0, count));
+                }
+            }
+            return result;
+        }
+
+        private Shape finish(String sql, long nanos, boolean failed) {
+            Shape shape = shapeOf(sql);
+            shape.record(nanos, failed);
+            if (nanos >= slowThresholdNanos) {
+                logSlow(shape, sql, nanos, failed);
+            }
+            return shape;
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static ResultSet countRows(ResultSet rs, Shape shape) {
+        return (ResultSet) newProxy(RESULT_SET_PROXY, new CountingResultSet(rs, shape));
+    }
+
+    /**
+     * Counts the rows read from a result set and adds them to its shape once it is
+     * exhausted or closed
+     */
+    private static class CountingResultSet implements InvocationHandler {
+        private final ResultSet target;
+        private final Shape shape;
+        private long rows;
+        private boolean counted;
+
+        CountingResultSet(ResultSet target, Shape shape) {
+            this.target = target;
+            this.shape = shape;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean more = target.next();
+                    if (more) {
+                        rows++;
+                    } else {
+                        count();
+                    }
+                    return more;
+                case "close":
+                    count();
+                    target.close();
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Counting[" + target + "]";
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void count() {
+            if (!counted) {
+                counted = true;
+                shape.rows.add(rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package util;
+
+import java.util.Locale;
+
+/**
+ * Point-in-time snapshot of the timings recorded for one SQL shape, i.e. one statement
+ * with its literals replaced by placeholders
+ */
+public class QueryStats {
+    private final String sql;
+    private final long calls;
+    private final long errors;
+    private final long slowCalls;
+    private final long rows;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    public QueryStats(String sql, long calls, long errors, long slowCalls, long rows, long totalNanos,
+                      long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+        this.sql = sql;
+        this.calls = calls;
+        this.errors = errors;
+        this.slowCalls = slowCalls;
+        this.rows = rows;
+        this.totalNanos = totalNanos;
+        this.p50Nanos = p50Nanos;
+        this.p95Nanos = p95Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getSql() { return sql; }
+    public long getCalls() { return calls; }
+    public long getErrors() { return errors; }
+    public long getSlowCalls() { return slowCalls; }
+    public long getRows() { return rows; }
+    public double getTotalMillis() { return totalNanos / 1_000_000.0; }
+    public double getMeanMillis() { return calls == 0 ? 0 : totalNanos / 1_000_000.0 / calls; }
+    public double getP50Millis() { return p50Nanos / 1_000_000.0; }
+    public double getP95Millis() { return p95Nanos / 1_000_000.0; }
+    public double getP99Millis() { return p99Nanos / 1_000_000.0; }
+    public double getMaxMillis() { return maxNanos / 1_000_000.0; }
+
+    public double getRowsPerCall() {
+        return calls == 0 ? 0 : (double) rows / calls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "calls=%d errors=%d slow=%d rows=%d total=%.1fms mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms %s",
+                calls, errors, slowCalls, rows, getTotalMillis(), getMeanMillis(), getP50Millis(), getP95Millis(),
+                getP99Millis(), getMaxMillis(), sql);
+    }
+}
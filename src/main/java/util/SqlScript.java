@@ -0,0 +1,89 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits SQL scripts such as schema.sql and seeder.sql into statements that can be
+ * run one at a time over JDBC.
+ */
+public class SqlScript {
+
+    private SqlScript() {
+    }
+
+    /**
+     * Read a script from a file, or from the classpath when the file does not exist
+     * @param path Path of the script, relative to the working directory
+     * @return The statements in order
+     * @throws IOException if the script is in neither place
+     */
+    public static List<String> load(String path) throws IOException {
+        Path file = Path.of(path);
+        if (Files.exists(file)) {
+            return split(Files.readString(file, StandardCharsets.UTF_8));
+        }
+        try (InputStream in = SqlScript.class.getResourceAsStream("/" + path)) {
+            if (in == null) {
+                throw new IOException("SQL script not found: " + path);
+            }
+            return split(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Split a script on semicolons, dropping comments and blank statements. Semicolons
+     * and comment markers inside quoted strings are left alone.
+     * @param script The script text
+     * @return The statements in order, without their trailing semicolons
+     */
+    public static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        int length = script.length();
+        for (int i = 0; i < length; i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                current.append(c);
+                if (c == '\\' && i + 1 < length) {
+                    current.append(script.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                current.append(c);
+            } else if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-' || c == '#') {
+                // Line comment: skip to the end of the line
+                while (i < length && script.charAt(i) != '\n') {
+                    i++;
+                }
+                current.append('\n');
+            } else if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                // Block comment, including MySQL's /*!...*/ version comments
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+            } else if (c == ';') {
+                add(statements, current);
+            } else {
+                current.append(c);
+            }
+        }
+        add(statements, current);
+        return statements;
+    }
+
+    private static void add(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+}
@@ -0,0 +1,264 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for a single physical connection, keyed by SQL text.
+ *
+ * Closing a statement obtained from the cache only clears its parameters so the next
+ * caller preparing the same SQL on this connection skips the parse round trip. If the
+ * cached statement is still open when the same SQL is prepared again, an uncached
+ * statement is returned instead. A statement whose settings the caller changed (max rows,
+ * fetch size, query timeout, ...) is closed rather than cached, so the next caller gets
+ * the driver defaults.
+ *
+ * Every statement handed out, cached or not, returns the borrower's logical connection
+ * from getConnection(), never the physical one.
+ */
+class StatementCache {
+
+    private static final Log LOG = Log.get(StatementCache.class);
+
+    // Statement settings that would carry over to the next caller of a cached statement
+    private static final Set<String> SETTINGS = Set.of("setMaxRows", "setLargeMaxRows", "setFetchSize",
+            "setFetchDirection", "setQueryTimeout", "setMaxFieldSize", "setEscapeProcessing", "setCursorName",
+            "setPoolable", "closeOnCompletion");
+
+    private final Connection physical;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StatementCache(Connection physical, int capacity, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Prepare a statement, reusing the cached one for this SQL when it is free
+     * @param sql The SQL text
+     * @param autoGeneratedKeys The generated keys flag, or null when not requested
+     * @param logical The borrower's connection handle, returned by getConnection()
+     * @return A statement whose close() returns it to the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(String sql, Integer autoGeneratedKeys, Connection logical) throws SQLException {
+        if (capacity <= 0) {
+            misses.incrementAndGet();
+            return uncached(autoGeneratedKeys == null
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys), logical);
+        }
+
+        String key = autoGeneratedKeys == null ? sql : sql + '\u0000' + autoGeneratedKeys;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.owner == null) {
+            hits.incrementAndGet();
+            return entry.checkOut(logical);
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement stmt = autoGeneratedKeys == null
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        if (entry != null) {
+            // The cached copy is still open by this borrower; hand out a throwaway statement
+            return uncached(stmt, logical);
+        }
+
+        entry = new Entry(stmt);
+        entries.put(key, entry);
+        evictOverflow();
+        return entry.checkOut(logical);
+    }
+
+    private static PreparedStatement uncached(PreparedStatement stmt, Connection logical) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new Uncached(stmt, logical));
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            evictions.incrementAndGet();
+            eldest.evicted = true;
+            if (eldest.owner == null) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Detach every statement from the borrower that is returning the connection.
+     * Handles the borrower kept open stop working; the statements stay cached.
+     */
+    void releaseAll() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.owner != null) {
+                entry.checkIn();
+            }
+        }
+    }
+
+    /**
+     * Close every cached statement, used when the physical connection is discarded
+     */
+    void closeAll() {
+        for (Entry entry : entries.values()) {
+            entry.closeQuietly();
+        }
+        entries.clear();
+    }
+
+    private class Entry {
+        final PreparedStatement stmt;
+        Handle owner;
+        boolean evicted;
+        // Set when the borrower changed a statement setting
+        boolean modified;
+
+        Entry(PreparedStatement stmt) {
+            this.stmt = stmt;
+        }
+
+        PreparedStatement checkOut(Connection logical) {
+            owner = new Handle(this, logical);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    owner);
+        }
+
+        void checkIn() {
+            owner = null;
+            if (modified && !evicted) {
+                evicted = true;
+                entries.values().remove(this);
+                evictions.incrementAndGet();
+            }
+            try {
+                stmt.clearParameters();
+                stmt.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                entries.values().remove(this);
+            }
+            if (evicted) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                LOG.warn("Error closing cached statement", "error", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Statement handle given to one caller; close() puts the statement back in the cache
+     */
+    private static class Handle implements InvocationHandler {
+        private final Entry entry;
+        private final Connection logical;
+
+        Handle(Entry entry, Connection logical) {
+            this.entry = entry;
+            this.logical = logical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean current = entry.owner == this;
+            switch (method.getName()) {
+                case "close":
+                    if (current) {
+                        entry.checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return !current || entry.stmt.isClosed();
+                case "getConnection":
+                    return logical;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + entry.stmt + "]";
+                default:
+                    break;
+            }
+
+            if (!current) {
+                throw new SQLException("Statement has already been closed");
+            }
+            if (SETTINGS.contains(method.getName())) {
+                entry.modified = true;
+            }
+            try {
+                return method.invoke(entry.stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A statement that is not cached; only getConnection() differs from the driver's
+     */
+    private static class Uncached implements InvocationHandler {
+        private final PreparedStatement stmt;
+        private final Connection logical;
+
+        Uncached(PreparedStatement stmt, Connection logical) {
+            this.stmt = stmt;
+            this.logical = logical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return logical;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Uncached[" + stmt + "]";
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -17,8 +17,12 @@ import javax.swing.text.PlainDocument;
 import javax.swing.border.EmptyBorder;
 import model.*;
 import util.DbConnection;
+import util.Log;
+import util.QueryStats;
 
 public class AdminDashboard extends JFrame {
+    private static final Log LOG = Log.get(AdminDashboard.class);
+
     private User currentUser;
     private JPanel mainPanel;
     private CardLayout cardLayout;
@@ -33,6 +37,14 @@ public class AdminDashboard extends JFrame {
     // Tables
     private JTable usersTable;
     private JTable flightsTable;
+    private PagedTableModel usersModel;
+    private PagedTableModel flightsModel;
+    private PagedTableModel airportsModel;
+    private String airportSearch;
+    private String airportStatus;
+
+    // Most matches a users or flights search shows, overridable with -Dadmin.search.limit
+    private static final int SEARCH_LIMIT = Integer.getInteger("admin.search.limit", 1000);
 
     public AdminDashboard(User user) {
         this.currentUser = user;
@@ -172,35 +184,12 @@ public class AdminDashboard extends JFrame {
 
     private Map<String, String> getDashboardStats() {
         Map<String, String> stats = new HashMap<>();
-        try (Connection conn = DbConnection.getInstance()) {
-            // Total Users
-            String userQuery = "SELECT COUNT(*) AS total FROM user";
-            try (PreparedStatement stmt = conn.prepareStatement(userQuery);
-                    ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    stats.put("users", String.valueOf(rs.getInt("total")));
-                }
-            }
-
-            // Total Flights
-            String flightQuery = "SELECT COUNT(*) AS total FROM flight";
-            try (PreparedStatement stmt = conn.prepareStatement(flightQuery);
-                    ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    stats.put("flights", String.valueOf(rs.getInt("total")));
-                }
-            }
-
-            // Total Revenue
-            String revenueQuery = "SELECT SUM(payment_amount) AS total FROM payment";
-            try (PreparedStatement stmt = conn.prepareStatement(revenueQuery);
-                    ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    double revenue = rs.getDouble("total");
-                    stats.put("revenue", "$" + String.format("%.2f", revenue));
-                }
-            }
-
+        try {
+            // Running totals; only the first call after startup counts the tables
+            DashboardStats.Snapshot totals = DashboardStats.get();
+            stats.put("users", String.valueOf(totals.getUsers()));
+            stats.put("flights", String.valueOf(totals.getFlights()));
+            stats.put("revenue", "$" + String.format("%.2f", totals.getRevenue()));
         } catch (Exception e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(null,
@@ -288,17 +277,20 @@ public class AdminDashboard extends JFrame {
 
         // User table
         String[] columns = { "ID", "Username", "Email", "Phone", "Age", "Role", "Creation Date" };
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 5; // Only actions column is editable
-            }
-        };
-
-        usersTable = new JTable(model);
+        usersModel = new PagedTableModel("users", columns, new PagedTableModel.Query(
+                "SELECT u.id, u.username, u.email, u.phone, u.age, r.role_name, u.created_at",
+                "FROM user u JOIN role r ON u.role_id = r.id",
+                "u.id",
+                new String[] { "u.id", "u.username", "u.email", "u.phone", "u.age", "r.role_name", "u.created_at" },
+                rs -> new Object[] { rs.getInt("id"), rs.getString("username"), rs.getString("email"),
+                        rs.getString("phone"), rs.getInt("age"), rs.getString("role_name"),
+                        rs.getString("created_at") }));
+
+        usersTable = new JTable(usersModel);
         usersTable.setFillsViewportHeight(true);
 
         JScrollPane scrollPane = new JScrollPane(usersTable);
+        usersModel.install(usersTable, scrollPane);
         panel.add(scrollPane, BorderLayout.CENTER);
 
         // Control panel
@@ -341,17 +333,34 @@ public class AdminDashboard extends JFrame {
 
         // Flight table
         String[] columns = { "ID", "From", "To", "Gate", "Aircraft", "Schedule", "Duration" };
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only actions column is editable
-            }
-        };
-
-        flightsTable = new JTable(model);
+        flightsModel = new PagedTableModel("flights", columns, new PagedTableModel.Query(
+                """
+                    SELECT
+                        f.id,
+                        dep.name AS departure_airport,
+                        arr.name AS arrival_airport,
+                        f.gate,
+                        a.model AS aircraft_model,
+                        CONCAT(fs.dayOfWeek, ' ', fs.departure_time) AS schedule,
+                        f.duration""",
+                """
+                    FROM flight f
+                    JOIN airport dep ON f.departure_airport_id = dep.id
+                    JOIN airport arr ON f.arrival_airport_id = arr.id
+                    JOIN aircraft a ON f.aircraft_id = a.id
+                    JOIN weeklyschedule fs ON f.flight_schedule_id = fs.id""",
+                "f.id",
+                // Schedule is a computed string; sorting it would not follow the day order
+                new String[] { "f.id", "dep.name", "arr.name", "f.gate", "a.model", null, "f.duration" },
+                rs -> new Object[] { rs.getInt("id"), rs.getString("departure_airport"),
+                        rs.getString("arrival_airport"), rs.getString("gate"), rs.getString("aircraft_model"),
+                        rs.getString("schedule"), rs.getString("duration") }));
+
+        flightsTable = new JTable(flightsModel);
         flightsTable.setFillsViewportHeight(true);
 
         JScrollPane scrollPane = new JScrollPane(flightsTable);
+        flightsModel.install(flightsTable, scrollPane);
         panel.add(scrollPane, BorderLayout.CENTER);
 
         // Control panel
@@ -418,12 +427,94 @@ public class AdminDashboard extends JFrame {
         // Add tabs
         tabbedPane.addTab("Airports", airportsPanel);
         tabbedPane.addTab("System Settings", settingsPanel);
+        tabbedPane.addTab("Query Stats", createQueryStatsPanel());
 
         panel.add(tabbedPane, BorderLayout.CENTER);
 
         return panel;
     }
 
+    // Per-query timings recorded by the connection pool, refreshed while the tab is showing
+    private JPanel createQueryStatsPanel() {
+        JPanel statsPanel = new JPanel(new BorderLayout(10, 10));
+        statsPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
+        statsPanel.setBackground(Color.WHITE);
+
+        String[] columns = { "Calls", "Errors", "Slow", "Rows/Call", "Mean ms", "p50 ms", "p95 ms", "p99 ms",
+                "Max ms", "Total ms", "SQL" };
+        DefaultTableModel statsModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable statsTable = new JTable(statsModel);
+        statsTable.setFillsViewportHeight(true);
+        statsTable.setAutoCreateRowSorter(true);
+        for (int i = 0; i < columns.length - 1; i++) {
+            statsTable.getColumnModel().getColumn(i).setPreferredWidth(70);
+        }
+        statsTable.getColumnModel().getColumn(columns.length - 1).setPreferredWidth(600);
+        statsPanel.add(new JScrollPane(statsTable), BorderLayout.CENTER);
+
+        JLabel poolLabel = new JLabel(" ");
+        statsPanel.add(poolLabel, BorderLayout.NORTH);
+
+        Runnable refresh = () -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (QueryStats stats : DbConnection.getQueryStats()) {
+                rows.add(new Object[] {
+                        stats.getCalls(),
+                        stats.getErrors(),
+                        stats.getSlowCalls(),
+                        round(stats.getRowsPerCall()),
+                        round(stats.getMeanMillis()),
+                        round(stats.getP50Millis()),
+                        round(stats.getP95Millis()),
+                        round(stats.getP99Millis()),
+                        round(stats.getMaxMillis()),
+                        round(stats.getTotalMillis()),
+                        stats.getSql()
+                });
+            }
+            fillTable(statsTable, rows);
+            poolLabel.setText("Connection pool: " + DbConnection.getPoolStats());
+        };
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.setBackground(Color.WHITE);
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh.run());
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            DbConnection.resetQueryStats();
+            refresh.run();
+        });
+        controls.add(refreshButton);
+        controls.add(resetButton);
+        statsPanel.add(controls, BorderLayout.SOUTH);
+
+        // The snapshot is read from memory, so it is cheap enough to take on the EDT
+        javax.swing.Timer timer = new javax.swing.Timer(2000, e -> {
+            if (statsPanel.isShowing()) {
+                refresh.run();
+            }
+        });
+        timer.start();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                timer.stop();
+            }
+        });
+
+        return statsPanel;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
     // 2. Create a dedicated panel for airport management
     private JPanel createAirportsPanel() {
         JPanel airportsPanel = new JPanel(new BorderLayout(10, 10));
@@ -432,12 +523,17 @@ public class AdminDashboard extends JFrame {
 
         // Create table model with non-editable cells
         String[] airportColumns = { "ID", "Code", "Name", "Country", "Address", "Status", "Actions" };
-        DefaultTableModel airportsModel = new DefaultTableModel(airportColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only actions column is editable
-            }
-        };
+        airportsModel = new PagedTableModel("airports", airportColumns, new PagedTableModel.Query(
+                AirportListing.SELECT,
+                AirportListing.FROM,
+                "a.id",
+                new String[] { "a.id", "a.code", "a.name", "c.name", "a.address", "a.status", null },
+                rs -> {
+                    AirportListing airport = AirportListing.read(rs);
+                    return new Object[] { airport.getId(), airport.getCode(), airport.getName(),
+                            airport.getCountryName(), airport.getAddress(), airport.getStatus(), "Edit/Delete" };
+                }));
+        airportsModel.setEditableColumns(6); // Only actions column is editable
 
         JTable airportsTable = new JTable(airportsModel);
         airportsTable.setFillsViewportHeight(true);
@@ -456,6 +552,7 @@ public class AdminDashboard extends JFrame {
         airportsTable.getColumnModel().getColumn(6).setPreferredWidth(120); // Actions
 
         JScrollPane airportsScroll = new JScrollPane(airportsTable);
+        airportsModel.install(airportsTable, airportsScroll);
         airportsPanel.add(airportsScroll, BorderLayout.CENTER);
 
         // Control panel
@@ -494,93 +591,9 @@ public class AdminDashboard extends JFrame {
 
     // 3. Add a method to load airports from database
     private void loadAirports() {
-        try (Connection conn = DbConnection.getInstance()) {
-            // Get the airports table model
-            JTable airportsTable = null;
-            JTabbedPane tabbedPane = null;
-
-            // Find the airports table in the tabbed pane
-            for (Component comp : mainPanel.getComponents()) {
-                if (comp.isVisible() && comp instanceof JPanel) {
-                    for (Component child : ((JPanel) comp).getComponents()) {
-                        if (child instanceof JTabbedPane) {
-                            tabbedPane = (JTabbedPane) child;
-                            for (int i = 0; i < tabbedPane.getTabCount(); i++) {
-                                if (tabbedPane.getTitleAt(i).equals("Airports")) {
-                                    Component tabComp = tabbedPane.getComponentAt(i);
-                                    if (tabComp instanceof JPanel) {
-                                        for (Component tabChild : ((JPanel) tabComp).getComponents()) {
-                                            if (tabChild instanceof JScrollPane) {
-                                                JScrollPane scrollPane = (JScrollPane) tabChild;
-                                                if (scrollPane.getViewport().getView() instanceof JTable) {
-                                                    airportsTable = (JTable) scrollPane.getViewport().getView();
-                                                    break;
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                                if (airportsTable != null)
-                                    break;
-                            }
-                        }
-                        if (airportsTable != null)
-                            break;
-                    }
-                }
-                if (airportsTable != null)
-                    break;
-            }
-
-            if (airportsTable == null)
-                return;
-
-            DefaultTableModel model = (DefaultTableModel) airportsTable.getModel();
-            model.setRowCount(0); // Clear existing data
-
-            // Fetch airports from database
-            ArrayList<Airport> airports = Airport.getAll();
-
-            for (Airport airport : airports) {
-                // Fetch country name (placeholder - you'll need to implement this)
-                String countryName = getCountryName(airport.getCountryId());
-
-                model.addRow(new Object[] {
-                        airport.getId(),
-                        airport.getCode(),
-                        airport.getName(),
-                        countryName,
-                        airport.getAddress(),
-                        airport.getStatus(),
-                        "Edit/Delete"
-                });
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Error loading airports: " + e.getMessage(),
-                    "Data Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    // Helper method to get country name from country ID
-    private String getCountryName(int countryId) {
-        // This would normally query the database to get the country name
-        // For now, return a placeholder
-        try (Connection conn = DbConnection.getInstance();
-                PreparedStatement stmt = conn.prepareStatement("SELECT name FROM country WHERE id = ?")) {
-            stmt.setInt(1, countryId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("name");
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (airportsModel != null) {
+            airportsModel.refresh();
         }
-        return "Unknown";
     }
 
     // 4. Add dialog for creating/editing airports
@@ -688,6 +701,9 @@ public class AdminDashboard extends JFrame {
                     airport.setStatus(status);
                     airport.setCountryId(countryId);
                     updateAirport(airport);
+                    ReferenceData.invalidateAirport(airport.getId());
+                    FlightSearchIndex.invalidate();
+                    AdminSearchIndex.invalidateFlights();
                     JOptionPane.showMessageDialog(dialog, "Airport updated successfully!");
                 }
 
@@ -726,45 +742,16 @@ public class AdminDashboard extends JFrame {
         }
     }
 
-    // Get country ID by name
+    // Get country ID by name, creating the country if it doesn't exist
     private int getCountryIdByName(String countryName) throws SQLException {
-        int countryId = 1; // Default to ID 1 if not found
-
-        String sql = "SELECT id FROM country WHERE name = ?";
-        try (Connection conn = DbConnection.getInstance();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, countryName);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    countryId = rs.getInt("id");
-                } else {
-                    // Create country if it doesn't exist
-                    sql = "INSERT INTO country (name) VALUES (?)";
-                    try (PreparedStatement insertStmt = conn.prepareStatement(sql,
-                            PreparedStatement.RETURN_GENERATED_KEYS)) {
-                        insertStmt.setString(1, countryName);
-                        insertStmt.executeUpdate();
-                        try (ResultSet keys = insertStmt.getGeneratedKeys()) {
-                            if (keys.next()) {
-                                countryId = keys.getInt(1);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return countryId;
+        return Country.idForName(countryName);
     }
 
     // Fill country combo box with existing countries
     private void fillCountryComboBox(JComboBox<String> comboBox) {
-        try (Connection conn = DbConnection.getInstance();
-                PreparedStatement stmt = conn.prepareStatement("SELECT name FROM country ORDER BY name");
-                ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                comboBox.addItem(rs.getString("name"));
+        try {
+            for (String name : Country.getNames()) {
+                comboBox.addItem(name);
             }
 
             // Add some common countries if the list is empty
@@ -787,137 +774,32 @@ public class AdminDashboard extends JFrame {
 
     // 5. Methods for searching and filtering airports
     private void searchAirports(String query) {
-        try (Connection conn = DbConnection.getInstance()) {
-            String sql = "SELECT a.*, c.name as country_name FROM airport a " +
-                    "LEFT JOIN country c ON a.country_id = c.id " +
-                    "WHERE a.code LIKE ? OR a.name LIKE ? OR c.name LIKE ? OR a.address LIKE ?";
-
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                String searchPattern = "%" + query + "%";
-                stmt.setString(1, searchPattern);
-                stmt.setString(2, searchPattern);
-                stmt.setString(3, searchPattern);
-                stmt.setString(4, searchPattern);
-
-                // Get the airports table model
-                JTable airportsTable = findAirportsTable();
-                if (airportsTable == null)
-                    return;
-
-                DefaultTableModel model = (DefaultTableModel) airportsTable.getModel();
-                model.setRowCount(0); // Clear existing data
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        model.addRow(new Object[] {
-                                rs.getInt("id"),
-                                rs.getString("code"),
-                                rs.getString("name"),
-                                rs.getString("country_name"),
-                                rs.getString("address"),
-                                rs.getString("status"),
-                                "Edit/Delete"
-                        });
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Error searching airports: " + e.getMessage(),
-                    "Search Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        airportSearch = query == null || query.isBlank() ? null : query.trim();
+        applyAirportFilter();
     }
 
     private void filterAirportsByStatus(String status) {
-        try (Connection conn = DbConnection.getInstance()) {
-            String sql;
-            PreparedStatement stmt;
-
-            if ("All Statuses".equals(status)) {
-                sql = "SELECT a.*, c.name as country_name FROM airport a " +
-                        "LEFT JOIN country c ON a.country_id = c.id";
-                stmt = conn.prepareStatement(sql);
-            } else {
-                sql = "SELECT a.*, c.name as country_name FROM airport a " +
-                        "LEFT JOIN country c ON a.country_id = c.id " +
-                        "WHERE a.status = ?";
-                stmt = conn.prepareStatement(sql);
-                stmt.setString(1, status);
-            }
-
-            // Get the airports table model
-            JTable airportsTable = findAirportsTable();
-            if (airportsTable == null)
-                return;
-
-            DefaultTableModel model = (DefaultTableModel) airportsTable.getModel();
-            model.setRowCount(0); // Clear existing data
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    model.addRow(new Object[] {
-                            rs.getInt("id"),
-                            rs.getString("code"),
-                            rs.getString("name"),
-                            rs.getString("country_name"),
-                            rs.getString("address"),
-                            rs.getString("status"),
-                            "Edit/Delete"
-                    });
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Error filtering airports: " + e.getMessage(),
-                    "Filter Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        airportStatus = "All Statuses".equals(status) ? null : status;
+        applyAirportFilter();
     }
 
-    // Helper method to find the airports table
-    private JTable findAirportsTable() {
-        JTabbedPane tabbedPane = null;
-
-        // Find the tabbed pane in the system config panel
-        for (Component comp : mainPanel.getComponents()) {
-            if (comp instanceof JPanel && comp.isVisible()) {
-                JPanel visiblePanel = (JPanel) comp;
-                for (Component child : visiblePanel.getComponents()) {
-                    if (child instanceof JTabbedPane) {
-                        tabbedPane = (JTabbedPane) child;
-                        break;
-                    }
-                }
+    // The search and the status filter narrow the same listing, so combine them
+    private void applyAirportFilter() {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (airportSearch != null) {
+            conditions.add("a.code LIKE ? OR a.name LIKE ? OR c.name LIKE ? OR a.address LIKE ?");
+            String searchPattern = "%" + airportSearch + "%";
+            for (int i = 0; i < 4; i++) {
+                params.add(searchPattern);
             }
-            if (tabbedPane != null)
-                break;
         }
-
-        if (tabbedPane == null)
-            return null;
-
-        // Find the airports tab and table
-        for (int i = 0; i < tabbedPane.getTabCount(); i++) {
-            if ("Airports".equals(tabbedPane.getTitleAt(i))) {
-                Component tabComp = tabbedPane.getComponentAt(i);
-                if (tabComp instanceof JPanel) {
-                    JPanel airportsPanel = (JPanel) tabComp;
-                    for (Component child : airportsPanel.getComponents()) {
-                        if (child instanceof JScrollPane) {
-                            JScrollPane scrollPane = (JScrollPane) child;
-                            if (scrollPane.getViewport().getView() instanceof JTable) {
-                                return (JTable) scrollPane.getViewport().getView();
-                            }
-                        }
-                    }
-                }
-            }
+        if (airportStatus != null) {
+            conditions.add("a.status = ?");
+            params.add(airportStatus);
         }
-
-        return null;
+        String where = conditions.isEmpty() ? null : "(" + String.join(") AND (", conditions) + ")";
+        airportsModel.setFilter(where, params.toArray());
     }
 
     // 6. Add a button renderer and editor for the actions column
@@ -963,9 +845,11 @@ public class AdminDashboard extends JFrame {
 
         @Override
         public Object getCellEditorValue() {
-            if (isPushed) {
-                int row = table.getSelectedRow();
-                int id = (Integer) table.getValueAt(row, 0);
+            // The row's page may still be loading, in which case its id is null
+            Object rowId = isPushed && table.getSelectedRow() >= 0
+                ? table.getValueAt(table.getSelectedRow(), 0) : null;
+            if (rowId != null) {
+                int id = (Integer) rowId;
 
                 // Show a popup menu with Edit and Delete options
                 JPopupMenu menu = new JPopupMenu();
@@ -1023,6 +907,9 @@ public class AdminDashboard extends JFrame {
             int rowsAffected = stmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                ReferenceData.invalidateAirport(airportId);
+                FlightSearchIndex.invalidate();
+                AdminSearchIndex.invalidateFlights();
                 JOptionPane.showMessageDialog(this, "Airport deleted successfully!");
                 loadAirports(); // Refresh the list
             } else {
@@ -1082,83 +969,20 @@ public class AdminDashboard extends JFrame {
     }
 
     private void loadUsers() {
-        String sql = """
-                    SELECT u.id, u.username, u.email, u.phone, u.age, r.role_name, u.created_at
-                    FROM user u
-                    JOIN role r ON u.role_id = r.id
-                """;
-
-        try (Connection conn = DbConnection.getInstance();
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                ResultSet rs = stmt.executeQuery()) {
-
-            DefaultTableModel model = (DefaultTableModel) usersTable.getModel();
-            model.setRowCount(0); // Clear existing data
-
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String username = rs.getString("username");
-                String email = rs.getString("email");
-                String phone = rs.getString("phone");
-                int age = rs.getInt("age");
-                String roleName = rs.getString("role_name");
-                String createdAt = rs.getString("created_at");
-
-                model.addRow(new Object[] { id, username, email, phone, age, roleName, createdAt, "Edit/Delete" });
-            }
+        usersModel.refresh();
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Error loading users: " + e.getMessage(),
-                    "Data Error",
-                    JOptionPane.ERROR_MESSAGE);
+    // Replace a table's rows with rows loaded in the background
+    private void fillTable(JTable table, List<Object[]> rows) {
+        DefaultTableModel model = (DefaultTableModel) table.getModel();
+        model.setRowCount(0); // Clear existing data
+        for (Object[] row : rows) {
+            model.addRow(row);
         }
     }
 
     private void loadFlights() {
-        String query = """
-                    SELECT
-                        f.id,
-                        dep.name AS departure_airport,
-                        arr.name AS arrival_airport,
-                        f.gate,
-                        a.model AS aircraft_model,
-                        CONCAT(fs.dayOfWeek, ' ', fs.departure_time) AS schedule,
-                        f.duration
-                    FROM flight f
-                    JOIN airport dep ON f.departure_airport_id = dep.id
-                    JOIN airport arr ON f.arrival_airport_id = arr.id
-                    JOIN aircraft a ON f.aircraft_id = a.id
-                    JOIN weeklyschedule fs ON f.flight_schedule_id = fs.id
-                """;
-
-        try (Connection conn = DbConnection.getInstance();
-                PreparedStatement stmt = conn.prepareStatement(query);
-                ResultSet rs = stmt.executeQuery()) {
-
-            DefaultTableModel model = (DefaultTableModel) flightsTable.getModel();
-            model.setRowCount(0); // Clear existing data
-
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String departure = rs.getString("departure_airport");
-                String arrival = rs.getString("arrival_airport");
-                String gate = rs.getString("gate");
-                String aircraft = rs.getString("aircraft_model");
-                String schedule = rs.getString("schedule");
-                String duration = rs.getString("duration");
-
-                model.addRow(new Object[] { id, departure, arrival, gate, aircraft, schedule, duration });
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Error loading flights: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        flightsModel.refresh();
     }
 
     private void showError(String message) {
@@ -1412,8 +1236,10 @@ public class AdminDashboard extends JFrame {
                 String sql = "INSERT INTO flight (departure_airport_id, arrival_airport_id, gate, " +
                         "duration, flight_schedule_id, aircraft_id) VALUES (?, ?, ?, ?, ?, ?)";
 
+                int flightId = 0;
                 try (Connection conn = DbConnection.getInstance();
-                        PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        PreparedStatement stmt = conn.prepareStatement(sql,
+                                PreparedStatement.RETURN_GENERATED_KEYS)) {
 
                     stmt.setInt(1, departureAirportId);
                     stmt.setInt(2, arrivalAirportId);
@@ -1422,13 +1248,28 @@ public class AdminDashboard extends JFrame {
                     stmt.setInt(5, schedule.getId());
                     stmt.setInt(6, aircraftId);
 
-                    int affectedRows = stmt.executeUpdate();
-                    if (affectedRows > 0) {
-                        JOptionPane.showMessageDialog(dialog, "Flight added successfully!");
-                        dialog.dispose();
-                        loadFlights();
+                    stmt.executeUpdate();
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            flightId = keys.getInt(1);
+                        }
                     }
                 }
+
+                if (flightId > 0) {
+                    // Make the new flight searchable without rebuilding the index
+                    FlightSearchIndex.addFlight(flightId);
+                    DashboardStats.flightAdded();
+                    AdminSearchIndex.invalidateFlights();
+                    JOptionPane.showMessageDialog(dialog, "Flight added successfully!");
+                    dialog.dispose();
+                    loadFlights();
+                } else {
+                    JOptionPane.showMessageDialog(dialog,
+                            "The flight was not saved: the database returned no id for it.",
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(dialog,
                         "Error: " + ex.getMessage(),
@@ -1529,15 +1370,46 @@ public class AdminDashboard extends JFrame {
 
     // Search and filter methods
     private void searchUsers(String query) {
-        // Would normally search in database
-        JOptionPane.showMessageDialog(this, "Searching for users matching: " + query);
-        loadUsers(); // For demo, just reload all
+        if (query == null || query.isBlank()) {
+            usersModel.setFilter(null);
+            return;
+        }
+        BackgroundTasks.submit("admin.users.search", () -> AdminSearchIndex.searchUsers(query, SEARCH_LIMIT),
+                ids -> showMatches(usersModel, "u.id", ids), e -> {
+                    LOG.error("Admin search failed", e, "index", "users", "query", query);
+                    JOptionPane.showMessageDialog(this,
+                            "Error searching users: " + e.getMessage(),
+                            "Search Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     private void searchFlights(String query) {
-        // Would normally search in database
-        JOptionPane.showMessageDialog(this, "Searching for flights matching: " + query);
-        loadFlights(); // For demo, just reload all
+        if (query == null || query.isBlank()) {
+            flightsModel.setFilter(null);
+            return;
+        }
+        BackgroundTasks.submit("admin.flights.search", () -> AdminSearchIndex.searchFlights(query, SEARCH_LIMIT),
+                ids -> showMatches(flightsModel, "f.id", ids), e -> {
+                    LOG.error("Admin search failed", e, "index", "flights", "query", query);
+                    JOptionPane.showMessageDialog(this,
+                            "Error searching flights: " + e.getMessage(),
+                            "Search Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    // Narrow a grid to the ids a search matched; the grid then pages through them as usual
+    private void showMatches(PagedTableModel model, String idColumn, int[] ids) {
+        if (ids.length == 0) {
+            model.setFilter("1 = 0");
+            return;
+        }
+        Object[] params = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            params[i] = ids[i];
+        }
+        model.setFilter(idColumn + " IN (" + String.join(", ", Collections.nCopies(ids.length, "?")) + ")", params);
     }
 
     // AIrline management
@@ -1783,6 +1655,8 @@ public class AdminDashboard extends JFrame {
                         stmt.setInt(3, airlineId);
                         stmt.executeUpdate();
                     }
+                    ReferenceData.invalidateAirline(airlineId);
+                    FlightSearchIndex.invalidate();
 
                     JOptionPane.showMessageDialog(dialog,
                             "Airline updated successfully!",
@@ -1841,6 +1715,8 @@ public class AdminDashboard extends JFrame {
                     stmt.setInt(1, airlineId);
                     stmt.executeUpdate();
                 }
+                ReferenceData.invalidateAirline(airlineId);
+                FlightSearchIndex.invalidate();
 
                 // Remove from table
                 DefaultTableModel model = (DefaultTableModel) ((JTable) ((JScrollPane) ((JPanel) getContentPane()
@@ -0,0 +1,173 @@
+package view;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import model.IdentityMap;
+
+/**
+ * Runs database work off the Event Dispatch Thread and hands the result back on it.
+ *
+ * Each task runs on its own virtual thread. A task can be given a key (e.g.
+ * "results.search"); submitting a new task with the same key cancels the older one and
+ * drops its result, so a slow query can never overwrite the answer to a newer request.
+ * Cancelling does not interrupt a query that is already running, because interrupting a
+ * thread blocked in socket I/O would close the pooled connection; the result is simply
+ * discarded.
+ */
+public class BackgroundTasks {
+
+    /**
+     * Work to run in the background, usually one or more DAO calls
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Handle to a submitted task
+     */
+    public static final class Task {
+        private final String key;
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+
+        private Task(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Stop the task if it has not started and drop its result if it has
+         */
+        public void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+            if (key != null) {
+                latest.remove(key, this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-task-", 0).factory());
+
+    // Newest task for each key; results from any other task with that key are stale
+    private static final ConcurrentHashMap<String, Task> latest = new ConcurrentHashMap<>();
+
+    // Statistics
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong stale = new AtomicLong();
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Run a query in the background, replacing any unfinished task with the same key
+     * @param key Identifies what the task loads, or null if it never goes stale
+     * @param query The work to run off the EDT
+     * @param onSuccess Called on the EDT with the result
+     * @param onError Called on the EDT if the query throws
+     * @return A handle that can cancel the task
+     */
+    public static <T> Task submit(String key, Query<T> query, Consumer<? super T> onSuccess,
+                                  Consumer<? super Exception> onError) {
+        Task task = new Task(key);
+        if (key != null) {
+            Task previous = latest.put(key, task);
+            if (previous != null) {
+                previous.cancelled = true;
+                Future<?> f = previous.future;
+                if (f != null) {
+                    f.cancel(false);
+                }
+            }
+        }
+        submitted.incrementAndGet();
+        // Loads made by the task share the submitting session's identity map
+        IdentityMap map = IdentityMap.active();
+        task.future = executor.submit(() -> {
+            if (task.cancelled) {
+                return;
+            }
+            IdentityMap.bind(map);
+            try {
+                T result = query.call();
+                SwingUtilities.invokeLater(() -> {
+                    if (isCurrent(task)) {
+                        completed.incrementAndGet();
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (isCurrent(task)) {
+                        failed.incrementAndGet();
+                        onError.accept(e);
+                    }
+                });
+            } finally {
+                IdentityMap.unbind(map);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Run a query in the background that is never superseded
+     * @param query The work to run off the EDT
+     * @param onSuccess Called on the EDT with the result
+     * @param onError Called on the EDT if the query throws
+     * @return A handle that can cancel the task
+     */
+    public static <T> Task submit(Query<T> query, Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+        return submit(null, query, onSuccess, onError);
+    }
+
+    /**
+     * Cancel the unfinished task with the given key, if any
+     * @param key The task key
+     */
+    public static void cancel(String key) {
+        Task task = latest.get(key);
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    // Runs on the EDT just before a result is delivered
+    private static boolean isCurrent(Task task) {
+        if (task.cancelled || (task.key != null && !latest.remove(task.key, task))) {
+            stale.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public static long getSubmittedCount() { return submitted.get(); }
+    public static long getCompletedCount() { return completed.get(); }
+    public static long getFailedCount() { return failed.get(); }
+    public static long getStaleCount() { return stale.get(); }
+
+    /**
+     * Summary of the task counters for logging and the admin dashboard
+     * @return The counters as text
+     */
+    public static String getStats() {
+        return String.format("submitted=%d completed=%d failed=%d stale=%d",
+                getSubmittedCount(), getCompletedCount(), getFailedCount(), getStaleCount());
+    }
+}
@@ -4,6 +4,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.sql.SQLException;
 import java.sql.Time;
+import java.util.concurrent.CompletableFuture;
 
 import model.*;
 
@@ -65,14 +66,19 @@ public class ConfirmationPanel extends JPanel {
             if (flight == null) {
                 return "Error: No flight selected. Please start a new booking.\n";
             }
-            Airport depAirport = Airport.load(flight.getDepartureAirportId());
-            Airport arrAirport = Airport.load(flight.getArrivalAirportId());
-            WeeklySchedule schedule = WeeklySchedule.load(flight.getFlightScheduleId());
             Aircraft aircraft = app.getSelectedAircraft();
             if (aircraft == null) {
                 return "Error: Aircraft information missing. Please start a new booking.\n";
             }
-            Airline airline = Airline.load(aircraft.getAirlineId());
+            // The four loads are independent, so run them in parallel
+            CompletableFuture<Airport> depFuture = AsyncDao.loadAirport(flight.getDepartureAirportId());
+            CompletableFuture<Airport> arrFuture = AsyncDao.loadAirport(flight.getArrivalAirportId());
+            CompletableFuture<WeeklySchedule> scheduleFuture = AsyncDao.loadSchedule(flight.getFlightScheduleId());
+            CompletableFuture<Airline> airlineFuture = AsyncDao.loadAirline(aircraft.getAirlineId());
+            Airport depAirport = AsyncDao.await(depFuture);
+            Airport arrAirport = AsyncDao.await(arrFuture);
+            WeeklySchedule schedule = AsyncDao.await(scheduleFuture);
+            Airline airline = AsyncDao.await(airlineFuture);
             FlightReservation reservation = app.getCurrentReservation();
             if (reservation == null) {
                 return "Error: Reservation not found. Please start a new booking.\n";
@@ -0,0 +1,106 @@
+package view;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.Arrays;
+import util.Log;
+
+/**
+ * Event queue that times every event the Event Dispatch Thread handles, so UI freezes
+ * caused by work on the EDT show up in the log and the statistics.
+ *
+ * Events longer than the threshold (-Dedt.slowEventMs, default 100) are logged. An event
+ * that opens a modal dialog dispatches the dialog's events in a nested loop while it
+ * waits; such an event is timed up to the start of its first nested event, so work done
+ * before the dialog opens is counted but the time the user spends in the dialog is not.
+ * Events dispatched by the nested loop are timed the same way.
+ */
+public class EdtMonitor extends EventQueue {
+
+    private static final Log LOG = Log.get(EdtMonitor.class);
+
+    private static final long SLOW_EVENT_NANOS = Long.getLong("edt.slowEventMs", 100L) * 1_000_000L;
+
+    private static EdtMonitor installed;
+
+    // Only touched on the EDT: the events being dispatched, outermost first, when each
+    // started, and whether it has been recorded because a nested loop started under it
+    private int depth;
+    private AWTEvent[] dispatching = new AWTEvent[4];
+    private long[] started = new long[4];
+    private boolean[] recorded = new boolean[4];
+
+    // Written on the EDT, read from anywhere
+    private volatile long events;
+    private volatile long slowEvents;
+    private volatile long busyNanos;
+    private volatile long maxNanos;
+
+    private EdtMonitor() {
+    }
+
+    /**
+     * Start timing EDT events; later calls do nothing
+     */
+    public static synchronized void install() {
+        if (installed == null) {
+            installed = new EdtMonitor();
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed);
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        if (depth > 0 && !recorded[depth - 1]) {
+            // A modal dialog opened: the enclosing event stopped blocking here
+            record(dispatching[depth - 1], start - started[depth - 1]);
+            recorded[depth - 1] = true;
+        }
+        if (depth == dispatching.length) {
+            dispatching = Arrays.copyOf(dispatching, depth * 2);
+            started = Arrays.copyOf(started, depth * 2);
+            recorded = Arrays.copyOf(recorded, depth * 2);
+        }
+        dispatching[depth] = event;
+        started[depth] = start;
+        recorded[depth] = false;
+        depth++;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            depth--;
+            if (!recorded[depth]) {
+                record(event, System.nanoTime() - start);
+            }
+            dispatching[depth] = null;
+        }
+    }
+
+    private void record(AWTEvent event, long elapsed) {
+        events++;
+        busyNanos += elapsed;
+        if (elapsed > maxNanos) {
+            maxNanos = elapsed;
+        }
+        if (elapsed >= SLOW_EVENT_NANOS) {
+            slowEvents++;
+            LOG.warn("EDT blocked", "ms", elapsed / 1_000_000, "event", event.getClass().getSimpleName(),
+                    "source", event.getSource().getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Summary of EDT blocking time for logging and the admin dashboard
+     * @return The counters as text, or a note that the monitor is not installed
+     */
+    public static synchronized String getStats() {
+        EdtMonitor m = installed;
+        if (m == null) {
+            return "EDT monitor not installed";
+        }
+        return String.format("events=%d slow=%d busy=%.1f ms max=%.1f ms",
+                m.events, m.slowEvents, m.busyNanos / 1e6, m.maxNanos / 1e6);
+    }
+}
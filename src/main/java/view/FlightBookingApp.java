@@ -3,25 +3,29 @@ package view;
 import javax.swing.*;
 import java.awt.*;
 import java.lang.reflect.Array;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.UUID;
 
 import model.Aircraft;
 import model.Airport;
 import model.Flight;
 import model.FlightReservation;
+import model.IdentityMap;
 import model.Passenger;
 import model.Payment;
-import model.PaymentMethod;
 import model.Seat;
 import model.User;
 import model.WeeklySchedule;
+import service.BookingService;
+import util.Log;
 
 /**
  * Main application frame for the Flight Booking System
  * Contains the CardLayout to switch between different panels/screens
  */
 public class FlightBookingApp extends JFrame {
+    private static final Log LOG = Log.get(FlightBookingApp.class);
+
     // Application-wide color scheme
     public static final Color PRIMARY_COLOR = new Color(102, 0, 153); // Purple
     public static final Color ACCENT_COLOR = new Color(240, 240, 240); // Light gray
@@ -43,6 +47,10 @@ public class FlightBookingApp extends JFrame {
     
     // User data
     private User currentUser;
+    // Identifies this booking session as the owner of its seat holds
+    private final String sessionId = UUID.randomUUID().toString();
+    // Entities loaded during the current booking, so each is read once per booking
+    private IdentityMap identityMap = new IdentityMap();
 
     // Flight booking data
     private Flight selectedFlight;
@@ -72,6 +80,7 @@ public class FlightBookingApp extends JFrame {
         this.currentUser = user;
         this.passengers = new ArrayList<>();
         this.selectedSeats = new ArrayList<>();
+        IdentityMap.bind(identityMap);
         // Initialize the main frame properties
         setTitle("SkyJourney Airlines - Flight Booking System");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -146,6 +155,7 @@ public class FlightBookingApp extends JFrame {
             );
             
             if (confirm == JOptionPane.YES_OPTION) {
+                IdentityMap.unbind(identityMap);
                 dispose();
                 new LoginPage();
             }
@@ -201,8 +211,7 @@ public class FlightBookingApp extends JFrame {
     }
     
     public void navigateTo(String panelName) {
-        System.out.println("Navigating to: " + panelName);
-        System.out.println("Current passenger count before navigation: " + passengers.size());
+        LOG.debug("Navigating", "panel", panelName, "passengers", passengers.size());
         if ("results".equals(panelName)) {
             resultsPanel.refresh(searchPanel);
         } else if ("history".equals(panelName)) {
@@ -210,7 +219,6 @@ public class FlightBookingApp extends JFrame {
         } else if ("profile".equals(panelName)) {
             userProfilePanel.loadUserData();
         } else if (panelName.equals("seatSelection")) {
-            System.out.println("Refreshing SeatSelectionPanel");
             seatSelectionPanel.refresh();
         }
         cardLayout.show(mainPanel, panelName);
@@ -220,7 +228,10 @@ public class FlightBookingApp extends JFrame {
         });
     }
     public void resetBookingData() {
-        System.out.println("data is reset");
+        BookingService.releaseAll(sessionId);
+        LOG.debug("Booking data reset", "identityMap", identityMap.getStats());
+        identityMap = new IdentityMap();
+        IdentityMap.bind(identityMap);
         selectedFlight = null;
         departureAirport = null;
         arrivalAirport = null;
@@ -232,46 +243,18 @@ public class FlightBookingApp extends JFrame {
         currentPayment = null;
     }
     
-    /**
-     * Create a new flight reservation based on current selections
-     */
-    public void createReservation() throws SQLException {
-        if (selectedFlight == null || passengers.isEmpty() || selectedSeats.isEmpty()) {
-            throw new IllegalStateException("Incomplete booking data");
-        }
-        currentReservation = new FlightReservation(selectedFlight.getId(), new java.sql.Date(System.currentTimeMillis()));
-        currentReservation.setUserId(currentUser.getId());
-        currentReservation.setQrCode(generateQrCode());
-        currentReservation.save();
-        currentReservation.makeReservation();
-    }
-    
-    /**
-     * Process payment for the current reservation
-     */
-    public void processPayment(PaymentMethod method, double amount) throws SQLException {
-        if (currentReservation == null) {
-            throw new IllegalStateException("No reservation to pay for");
-        }
-        currentPayment = new Payment(amount, method, new java.sql.Date(System.currentTimeMillis()));
-        currentPayment.setUserId(currentUser.getId());
-        currentPayment.save();
-        currentPayment.makeTransaction();
-        selectedFlight.addPayment(currentPayment);
-    }
-    
-    /**
-     * Generate a simple QR code (placeholder)
-     */
-    private String generateQrCode() {
-        return "QR_" + System.currentTimeMillis() + "_" + currentUser.getId();
-    }
-    
     // Getters and setters
     public User getCurrentUser() { return currentUser; }
+    public String getSessionId() { return sessionId; }
     public void setCurrentUser(User currentUser) { this.currentUser = currentUser; }
     public Flight getSelectedFlight() { return selectedFlight; }
-    public void setSelectedFlight(Flight flight) { this.selectedFlight = flight; }
+    public void setSelectedFlight(Flight flight) {
+        this.selectedFlight = flight;
+        if (flight != null) {
+            identityMap.register(flight);
+        }
+    }
+    public IdentityMap getIdentityMap() { return identityMap; }
     public Airport getDepartureAirport() { return departureAirport; }
     public void setDepartureAirport(Airport departureAirport) { this.departureAirport = departureAirport; }
     public Airport getArrivalAirport() { return arrivalAirport; }
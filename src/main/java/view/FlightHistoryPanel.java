@@ -5,17 +5,27 @@ import java.awt.*;
 import java.awt.event.*;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import javax.swing.table.AbstractTableModel;
 
 import model.*;
+import service.BookingService;
+import util.Log;
 
 /**
  * Flight history panel for viewing user's booking history
  */
 public class FlightHistoryPanel extends JPanel {
+    private static final Log LOG = Log.get(FlightHistoryPanel.class);
+
+    // Rows left below the viewport when the next page is requested
+    private static final int PREFETCH_ROWS = 10;
+    private static final String HISTORY_TASK = "history.page";
     private FlightBookingApp parent;
     private User currentUser;
     private JTable bookingsTable;
+    private HistoryTableModel historyModel;
     
     public FlightHistoryPanel(FlightBookingApp app) {
         this.parent = app;
@@ -30,13 +40,21 @@ public class FlightHistoryPanel extends JPanel {
         headerLabel.setFont(FlightBookingApp.HEADER_FONT);
         add(headerLabel, BorderLayout.NORTH);
         
-        // Bookings table
-        String[] columns = {"Booking ID", "Flight", "Date", "Status", "Payment", "Actions"};
-        bookingsTable = new JTable(new Object[0][columns.length], columns);
+        // Bookings table, filled a page at a time
+        historyModel = new HistoryTableModel();
+        bookingsTable = new JTable(historyModel);
         bookingsTable.setFillsViewportHeight(true);
         bookingsTable.setRowHeight(30);
         
         JScrollPane scrollPane = new JScrollPane(bookingsTable);
+        // Fetch the next page when the user scrolls near the last loaded row
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            BoundedRangeModel bar = scrollPane.getVerticalScrollBar().getModel();
+            int remaining = bar.getMaximum() - (bar.getValue() + bar.getExtent());
+            if (remaining <= bookingsTable.getRowHeight() * PREFETCH_ROWS) {
+                loadNextPage();
+            }
+        });
         add(scrollPane, BorderLayout.CENTER);
         
         // Control panel
@@ -73,7 +91,7 @@ public class FlightHistoryPanel extends JPanel {
                     }
         
                 } catch (Exception ex) {
-                    ex.printStackTrace();
+                    LOG.error("Failed to update booking status", ex);
                     JOptionPane.showMessageDialog(this, "Failed to update status: " + ex.getMessage());
                 }
             } else {
@@ -92,49 +110,102 @@ public class FlightHistoryPanel extends JPanel {
         add(controlPanel, BorderLayout.SOUTH);
     }
     
+    /**
+     * Reload the booking history from the first page
+     */
     public void loadUserBookings() {
-        try {
-            // Get user's reservations
-        System.out.println("moataz");
-            ArrayList<FlightReservation> reservations = User.loadWithId(currentUser.getId()).getReservations();
-            
-            // Create table model
-            String[] columns = {"Booking ID", "Flight", "Date", "Status", "Actions"};
-            Object[][] data = new Object[reservations.size()][columns.length];
-            
-            // Populate data
-            for (int i = 0; i < reservations.size(); i++) {
-                FlightReservation reservation = reservations.get(i);
-                Flight flight = Flight.load(reservation.getFlightId());
-                
-                // Get airports
-                Airport departureAirport = Airport.load(flight.getDepartureAirportId());
-                Airport arrivalAirport = Airport.load(flight.getArrivalAirportId());
-                
-                // Format flight info
-                String flightInfo = departureAirport.getCode() + " - " + arrivalAirport.getCode();
-                
-                // Get schedule
-                WeeklySchedule schedule = WeeklySchedule.load(flight.getFlightScheduleId());
-                
-                data[i][0] = reservation.getId();
-                data[i][1] = flightInfo;
-                data[i][2] = schedule.getDayOfWeek() + " " + schedule.getDepartureTime();
-                data[i][3] = reservation.getStatus();
-                
-                
+        historyModel.reset();
+        loadNextPage();
+    }
+
+    /**
+     * Fetch the next page of bookings in the background and append it to the table
+     */
+    private void loadNextPage() {
+        if (historyModel.loading || !historyModel.hasMore) {
+            return;
+        }
+        historyModel.loading = true;
+        final int cursor = historyModel.cursor;
+        final int userId = currentUser.getId();
+
+        BackgroundTasks.submit(HISTORY_TASK,
+            () -> BookingService.getHistory(userId, cursor, BookingHistory.DEFAULT_PAGE_SIZE),
+            page -> {
+                historyModel.loading = false;
+                historyModel.append(page);
+                // A short first page leaves no scroll bar to trigger the next one
+                if (bookingsTable.getPreferredSize().height < bookingsTable.getParent().getHeight()) {
+                    loadNextPage();
+                }
+            },
+            e -> {
+                historyModel.loading = false;
+                historyModel.hasMore = false;
+                LOG.error("Error loading bookings", e, "user", currentUser.getId());
+                JOptionPane.showMessageDialog(this,
+                    "Error loading bookings: " + e.getMessage(),
+                    "Database Error",
+                    JOptionPane.ERROR_MESSAGE);
+            });
+    }
+
+    /**
+     * Table model that grows by one page of bookings at a time
+     */
+    class HistoryTableModel extends AbstractTableModel {
+        private final String[] columns = {"Booking ID", "Flight", "Date", "Status", "Booked On"};
+        private final List<BookingHistory.Entry> rows = new ArrayList<>();
+        private int cursor;
+        private boolean hasMore = true;
+        private boolean loading;
+
+        void reset() {
+            // Drop any page requested before the refresh
+            BackgroundTasks.cancel(HISTORY_TASK);
+            rows.clear();
+            cursor = 0;
+            hasMore = true;
+            loading = false;
+            fireTableDataChanged();
+        }
+
+        void append(BookingHistory.Page page) {
+            int first = rows.size();
+            rows.addAll(page.getEntries());
+            cursor = page.getNextCursor();
+            hasMore = page.hasMore();
+            if (rows.size() > first) {
+                fireTableRowsInserted(first, rows.size() - 1);
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            BookingHistory.Entry entry = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0: return entry.getReservationId();
+                case 1: return entry.getRoute();
+                case 2: return entry.getSchedule();
+                case 3: return entry.getStatus();
+                case 4: return entry.getBookingDate();
+                default: return null;
             }
-            
-            // Update table
-            bookingsTable.setModel(new javax.swing.table.DefaultTableModel(data, columns));
-            
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, 
-                "Error loading bookings: " + e.getMessage(), 
-                "Database Error", 
-                JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -6,12 +6,15 @@ import java.awt.event.*;
 import java.sql.SQLException;
 import model.Role;
 import model.User;
+import util.Log;
 import util.SecurityUtil;
 
 /**
  * Login page for the Flight Booking System
  */
 public class LoginPage extends JFrame {
+    private static final Log LOG = Log.get(LoginPage.class);
+
     private JTextField emailField;
     private JPasswordField passwordField;
     private JCheckBox rememberMeCheckbox;
@@ -174,36 +177,44 @@ public class LoginPage extends JFrame {
             return;
         }
         
-        try {
+        // Look the user up and check the password hash off the EDT
+        BackgroundTasks.submit("login.authenticate", () -> {
             User user = User.loadWithEmail(email);
             
-            if (user.verifyPassword(password)) {
-                // Check if we need to upgrade legacy password
-                if (!user.getPassword().contains(":")) {
-                    // Upgrade to secure password
-                    user.resetPassword(password);
-                }
-                
-                JOptionPane.showMessageDialog(this, 
-                    "Login successful! Welcome, " + user.getUsername(), 
-                    "Login Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                
-                dispose();
-                
-                // Check user role and direct to appropriate dashboard
-                if (user.isAdmin()) {
-                    new AdminDashboard(user).setVisible(true);
-                } else {
-                    new FlightBookingApp(user).setVisible(true);
-                }
-            } else {
+            if (!user.verifyPassword(password)) {
+                return null;
+            }
+            // Check if we need to upgrade legacy password
+            if (!user.getPassword().contains(":")) {
+                // Upgrade to secure password
+                user.resetPassword(password);
+            }
+            // Resolve the role here so choosing the dashboard does not query on the EDT
+            user.isAdmin();
+            return user;
+        }, user -> {
+            if (user == null) {
                 showError("Invalid password");
+                return;
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+            
+            JOptionPane.showMessageDialog(this, 
+                "Login successful! Welcome, " + user.getUsername(), 
+                "Login Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+            
+            dispose();
+            
+            // Check user role and direct to appropriate dashboard
+            if (user.isAdmin()) {
+                new AdminDashboard(user).setVisible(true);
+            } else {
+                new FlightBookingApp(user).setVisible(true);
+            }
+        }, ex -> {
+            LOG.error("Login failed", ex);
             showError("User not found or database error: " + ex.getMessage());
-        }
+        });
     }
     
     private void handleForgotPassword() {
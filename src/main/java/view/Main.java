@@ -1,20 +1,40 @@
 package view;
 
+import java.sql.SQLException;
 import javax.swing.*;
+import model.ReferenceData;
+import util.Log;
 
 
 /**
  * Main class to start the Flight Booking Application
  */
 public class Main {
+    private static final Log LOG = Log.get(Main.class);
+
     public static void main(String[] args) {
         // Set look and feel to system default
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.warn("Cannot use the system look and feel", "error", e.getMessage());
         }
         
+        // Load countries, airports, airlines, aircraft and roles in the background so the
+        // first searches are served from memory
+        Thread warmUp = new Thread(() -> {
+            try {
+                ReferenceData.warmUp();
+            } catch (SQLException e) {
+                LOG.error("Error warming up reference data cache", e);
+            }
+        }, "reference-data-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+
+        // Time every event the EDT handles so slow work on it gets logged
+        EdtMonitor.install();
+
         // Start application with login page
         SwingUtilities.invokeLater(() -> {
             new LoginPage();
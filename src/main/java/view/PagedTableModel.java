@@ -0,0 +1,454 @@
+package view;
+
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import util.DbConnection;
+import util.Log;
+
+/**
+ * Table model for admin grids over large tables. Rows are loaded a page at a time as
+ * they scroll into view instead of reading the whole table up front.
+ *
+ * Pages are read with keyset pagination: each loaded page remembers the sort key and id
+ * of its last row, and the next page is read with "WHERE (sort, id) &gt; (last sort, last
+ * id)", which the database answers from an index instead of counting past every earlier
+ * row. Jumping ahead (e.g. dragging the scroll bar) seeks from the nearest loaded page and
+ * skips the remaining rows with OFFSET. Loaded pages are kept in an LRU cache; pages just
+ * beyond the viewport, in the direction of scrolling, are prefetched in the background.
+ *
+ * Clicking a column header sorts by that column in SQL; the id breaks ties so every
+ * row has a unique key. All state is touched only on the EDT; queries run through
+ * {@link BackgroundTasks}.
+ *
+ * Settings:
+ * <pre>
+ * -Dadmin.pageSize=100      rows per query
+ * -Dadmin.cachePages=20     pages kept in memory per table
+ * -Dadmin.prefetchPages=2   pages loaded ahead of the viewport
+ * </pre>
+ */
+public class PagedTableModel extends AbstractTableModel {
+
+    private static final Log LOG = Log.get(PagedTableModel.class);
+
+    private static final int PAGE_SIZE = Math.max(1, Integer.getInteger("admin.pageSize", 100));
+    private static final int CACHE_PAGES = Math.max(2, Integer.getInteger("admin.cachePages", 20));
+    private static final int PREFETCH_PAGES = Integer.getInteger("admin.prefetchPages", 2);
+    // Page loads in flight per table; further pages are requested as these finish
+    private static final int MAX_IN_FLIGHT = 2;
+
+    /**
+     * Turns the current result set row into the table's column values
+     */
+    @FunctionalInterface
+    public interface RowMapper {
+        Object[] map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * What a grid shows: the select list and joins, the unique id column, and the SQL
+     * expression each table column sorts by
+     */
+    public static final class Query {
+        private final String select;
+        private final String from;
+        private final String idColumn;
+        private final String[] sortColumns;
+        private final RowMapper mapper;
+
+        /**
+         * @param select SELECT clause, e.g. "SELECT u.id, u.username"
+         * @param from FROM clause with any joins
+         * @param idColumn Unique, indexed column used as the tie breaker, e.g. "u.id"
+         * @param sortColumns SQL expression to sort each table column by, or null where a column cannot be sorted
+         * @param mapper Builds a table row from a result set row
+         */
+        public Query(String select, String from, String idColumn, String[] sortColumns, RowMapper mapper) {
+            this.select = select;
+            this.from = from;
+            this.idColumn = idColumn;
+            this.sortColumns = sortColumns;
+            this.mapper = mapper;
+        }
+    }
+
+    /**
+     * The sort key of a page's last row, where the next page starts
+     */
+    private static final class Anchor {
+        final Object sortValue;
+        final long id;
+
+        Anchor(Object sortValue, long id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+    }
+
+    private static final class Page {
+        final List<Object[]> rows;
+        final Anchor last;
+
+        Page(List<Object[]> rows, Anchor last) {
+            this.rows = rows;
+            this.last = last;
+        }
+    }
+
+    private final String[] columnNames;
+    private final Query query;
+    private final String name;
+
+    private final LinkedHashMap<Integer, List<Object[]>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+            return size() > CACHE_PAGES;
+        }
+    };
+    private final TreeMap<Integer, Anchor> anchors = new TreeMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private final Set<Integer> editableColumns = new HashSet<>();
+
+    private int rowCount;
+    private int generation;
+    private int sortColumn = -1;
+    private boolean ascending = true;
+    private String filter;
+    private Object[] filterParams = new Object[0];
+
+    private JTable table;
+    private int firstVisiblePage;
+    private int lastVisiblePage;
+    private int scrollDirection = 1;
+
+    /**
+     * @param name Name used for the background task keys and log lines, e.g. "users"
+     * @param columnNames Table column headers
+     * @param query What to load
+     */
+    public PagedTableModel(String name, String[] columnNames, Query query) {
+        this.name = name;
+        this.columnNames = columnNames;
+        this.query = query;
+    }
+
+    /**
+     * Attach to the table showing this model: prefetch as its viewport scrolls and sort
+     * when a header is clicked
+     * @param table The table, already using this model
+     * @param scrollPane The scroll pane around it
+     */
+    public void install(JTable table, JScrollPane scrollPane) {
+        this.table = table;
+        scrollPane.getViewport().addChangeListener(e -> viewportChanged());
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                if (column >= 0) {
+                    toggleSort(column);
+                }
+            }
+        });
+    }
+
+    public void setEditableColumns(int... columns) {
+        editableColumns.clear();
+        for (int column : columns) {
+            editableColumns.add(column);
+        }
+    }
+
+    /**
+     * Drop everything loaded and start again from the first page
+     */
+    public void refresh() {
+        generation++;
+        cache.clear();
+        anchors.clear();
+        pending.clear();
+        int gen = generation;
+        String countSql = "SELECT COUNT(*) " + query.from + where(null);
+        Object[] params = filterParams;
+        BackgroundTasks.submit("paged." + name + ".count", () -> {
+            try (Connection conn = DbConnection.getInstance();
+                 PreparedStatement stmt = conn.prepareStatement(countSql)) {
+                bind(stmt, 1, params);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        }, count -> {
+            if (gen == generation) {
+                rowCount = count;
+                fireTableDataChanged();
+                loadWindow();
+            }
+        }, this::failed);
+    }
+
+    /**
+     * Show only rows matching a condition
+     * @param where SQL condition over the query's columns, or null for all rows
+     * @param params Values for the condition's placeholders
+     */
+    public void setFilter(String where, Object... params) {
+        this.filter = where;
+        this.filterParams = params;
+        refresh();
+    }
+
+    /**
+     * Sort by a column, or reverse the order if it is already the sort column
+     * @param column Model column index
+     */
+    public void toggleSort(int column) {
+        if (column >= query.sortColumns.length || query.sortColumns[column] == null) {
+            return;
+        }
+        ascending = column != sortColumn || !ascending;
+        sortColumn = column;
+        // Relabel the headers in place; a structure change would drop custom renderers and widths
+        if (table != null) {
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                table.getColumnModel().getColumn(i).setHeaderValue(getColumnName(table.convertColumnIndexToModel(i)));
+            }
+            table.getTableHeader().repaint();
+        }
+        refresh();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        if (column == sortColumn) {
+            return columnNames[column] + (ascending ? " ▲" : " ▼");
+        }
+        return columnNames[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return editableColumns.contains(column);
+    }
+
+    /**
+     * Get a cell, requesting its page if it is not loaded yet
+     * @return The value, or null while the page is loading
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / PAGE_SIZE;
+        List<Object[]> rows = cache.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        int index = row - page * PAGE_SIZE;
+        return index < rows.size() && column < rows.get(index).length ? rows.get(index)[column] : null;
+    }
+
+    private void viewportChanged() {
+        if (table == null || rowCount == 0) {
+            return;
+        }
+        Rectangle view = table.getVisibleRect();
+        int first = table.rowAtPoint(view.getLocation());
+        int last = table.rowAtPoint(new java.awt.Point(view.x, view.y + view.height - 1));
+        first = first < 0 ? 0 : first;
+        last = last < 0 ? rowCount - 1 : last;
+        int firstPage = first / PAGE_SIZE;
+        if (firstPage != firstVisiblePage) {
+            scrollDirection = firstPage > firstVisiblePage ? 1 : -1;
+        }
+        firstVisiblePage = firstPage;
+        lastVisiblePage = last / PAGE_SIZE;
+        loadWindow();
+    }
+
+    /**
+     * Request the visible pages, then the pages ahead of them in the scroll direction
+     */
+    private void loadWindow() {
+        int lastPage = (rowCount - 1) / PAGE_SIZE;
+        for (int page = firstVisiblePage; page <= Math.min(lastVisiblePage, lastPage); page++) {
+            request(page);
+        }
+        for (int i = 1; i <= PREFETCH_PAGES; i++) {
+            int page = scrollDirection > 0 ? lastVisiblePage + i : firstVisiblePage - i;
+            if (page >= 0 && page <= lastPage) {
+                request(page);
+            }
+        }
+    }
+
+    private void request(int page) {
+        if (cache.containsKey(page) || pending.contains(page) || pending.size() >= MAX_IN_FLIGHT) {
+            return;
+        }
+        pending.add(page);
+
+        // Seek from the nearest loaded page before this one and skip the rest
+        Map.Entry<Integer, Anchor> from = anchors.floorEntry(page - 1);
+        Anchor anchor = from != null ? from.getValue() : null;
+        int skip = (page - (from != null ? from.getKey() + 1 : 0)) * PAGE_SIZE;
+        String sql = pageSql(anchor, skip > 0);
+        List<Object> params = new ArrayList<>(List.of(filterParams));
+        params.addAll(keysetParams(anchor));
+        params.add(PAGE_SIZE);
+        if (skip > 0) {
+            params.add(skip);
+        }
+
+        int gen = generation;
+        String sortKey = sortExpression();
+        BackgroundTasks.submit(() -> load(sql, params.toArray(), sortKey != null), loaded -> {
+            if (gen != generation) {
+                return;
+            }
+            pending.remove(page);
+            cache.put(page, loaded.rows);
+            if (loaded.last != null) {
+                anchors.put(page, loaded.last);
+            }
+            int start = page * PAGE_SIZE;
+            int end = Math.min(rowCount, start + PAGE_SIZE) - 1;
+            if (end >= start) {
+                fireTableRowsUpdated(start, end);
+            }
+            loadWindow();
+        }, e -> {
+            if (gen == generation) {
+                pending.remove(page);
+                failed(e);
+            }
+        });
+    }
+
+    private Page load(String sql, Object[] params, boolean sorted) throws SQLException {
+        long start = System.nanoTime();
+        List<Object[]> rows = new ArrayList<>(PAGE_SIZE);
+        Anchor last = null;
+        try (Connection conn = DbConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, 1, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(query.mapper.map(rs));
+                    last = new Anchor(sorted ? rs.getObject("page_sort_key") : null, rs.getLong("page_row_id"));
+                }
+            }
+        }
+        LOG.debug("Loaded page", "table", name, "rows", rows.size(), "ms", (System.nanoTime() - start) / 1e6);
+        return new Page(rows, last);
+    }
+
+    private void failed(Exception e) {
+        LOG.error("Loading " + name + " failed", e);
+    }
+
+    // ----- SQL -----
+
+    /**
+     * @return The sort column's expression, or null when sorting by id only
+     */
+    private String sortExpression() {
+        if (sortColumn < 0 || query.sortColumns[sortColumn].equals(query.idColumn)) {
+            return null;
+        }
+        return query.sortColumns[sortColumn];
+    }
+
+    private String pageSql(Anchor anchor, boolean offset) {
+        String sort = sortExpression();
+        String dir = ascending ? "ASC" : "DESC";
+        StringBuilder sql = new StringBuilder(query.select);
+        if (sort != null) {
+            sql.append(", ").append(sort).append(" AS page_sort_key");
+        }
+        sql.append(", ").append(query.idColumn).append(" AS page_row_id ")
+           .append(query.from)
+           .append(where(anchor == null ? null : keyset(anchor)))
+           .append(" ORDER BY ");
+        if (sort != null) {
+            sql.append(sort).append(' ').append(dir).append(", ");
+        }
+        sql.append(query.idColumn).append(' ').append(dir).append(" LIMIT ?");
+        if (offset) {
+            sql.append(" OFFSET ?");
+        }
+        return sql.toString();
+    }
+
+    private String where(String keyset) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null) {
+            conditions.add("(" + filter + ")");
+        }
+        if (keyset != null) {
+            conditions.add("(" + keyset + ")");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Condition for the rows after an anchor in the current order. NULLs sort first in
+     * ascending order, as in MySQL (and H2 in MySQL mode).
+     */
+    private String keyset(Anchor anchor) {
+        String id = query.idColumn;
+        String sort = sortExpression();
+        String after = ascending ? " > ?" : " < ?";
+        if (sort == null) {
+            return id + after;
+        }
+        if (ascending) {
+            return anchor.sortValue == null
+                    ? "(" + sort + " IS NULL AND " + id + " > ?) OR " + sort + " IS NOT NULL"
+                    : sort + " > ? OR (" + sort + " = ? AND " + id + " > ?)";
+        }
+        return anchor.sortValue == null
+                ? sort + " IS NULL AND " + id + " < ?"
+                : sort + " < ? OR (" + sort + " = ? AND " + id + " < ?) OR " + sort + " IS NULL";
+    }
+
+    private List<Object> keysetParams(Anchor anchor) {
+        if (anchor == null) {
+            return List.of();
+        }
+        if (sortExpression() == null || anchor.sortValue == null) {
+            return List.of(anchor.id);
+        }
+        return List.of(anchor.sortValue, anchor.sortValue, anchor.id);
+    }
+
+    private static void bind(PreparedStatement stmt, int first, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(first + i, params[i]);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
 import model.*;
+import service.BookingService;
 
 /**
  * Payment panel for processing flight booking payments
@@ -295,23 +296,10 @@ public class PaymentPanel extends JPanel {
                 panel.add(Box.createRigidArea(new Dimension(0, 15)));
                 
                 // Price calculation
-                double basePrice = 250.0;
-                double classMultiplier = 1.0;
-                switch (app.getSelectedSeats().get(0).getSeatClass()) {
-                    case SeatClass.Economy:
-                        classMultiplier = 1.0;
-                        break;
-                    case SeatClass.Business:
-                        classMultiplier = 2.0;
-                        break;
-                    case SeatClass.FirstClass:
-                        classMultiplier = 3.0;
-                        break;
-                }
-                
-                double subtotal = basePrice * classMultiplier * passengerCount;
-                double taxes = subtotal * 0.1; // 10% tax
-                double total = subtotal + taxes;
+                BookingService.Quote quote = BookingService.quote(app.getSelectedSeats().get(0).getSeatClass(), passengerCount);
+                double subtotal = quote.getSubtotal();
+                double taxes = quote.getTaxes();
+                double total = quote.getTotal();
                 
                 // Display prices
                 JLabel subtotalLabel = new JLabel(String.format("Subtotal: $%.2f", subtotal));
@@ -357,41 +345,16 @@ public class PaymentPanel extends JPanel {
         }
         
         try {
-            // Create reservation
-            FlightReservation reservation = new FlightReservation(
-                app.getSelectedFlight().getId(),
-                new java.sql.Date(System.currentTimeMillis())
-            );
-            reservation.setUserId(app.getCurrentUser().getId());
-            
-            // Save reservation
-            reservation.save();
-            
-            // Add passengers and seats
-            for (int i = 0; i < app.getPassengers().size(); i++) {
-                System.out.print(app.getPassengers().size());
-                Passenger passenger = app.getPassengers().get(i);
-                Seat seat = app.getSelectedSeats().get(i);
-                
-                // Save passenger
-                passenger.save();
-                
-                // Associate passenger with reservation
-                reservation.addPassengerSeat(passenger, seat);
-                
-            }
-            
-            // Create payment
             Payment payment = new Payment(totalAmount,(PaymentMethod) paymentMethodCombo.getSelectedItem(),new java.sql.Date(System.currentTimeMillis()));
-            payment.setUserId(app.getCurrentUser().getId());
-            payment.setPaymentState(PaymentStatus.COMPLETED);
-            // Save payment
-            payment.save();
+            
+            // Re-check the holds, then save reservation, passengers, seats and payment in one transaction
+            FlightReservation reservation = BookingService.book(app.getCurrentUser().getId(), app.getSelectedFlight().getId(),
+                app.getPassengers(), app.getSelectedSeats(), payment, app.getSessionId());
             
             // Store in app for confirmation page
             app.setCurrentReservation(reservation);
             app.setCurrentPayment(payment);
-            app.createReservation();
+            
             // Show success message
             JOptionPane.showMessageDialog(this,
                 "Payment processed successfully!",
@@ -401,6 +364,12 @@ public class PaymentPanel extends JPanel {
             // Navigate to confirmation page
             app.navigateTo("search");
             
+        } catch (SeatUnavailableException e) {
+            JOptionPane.showMessageDialog(this,
+                e.getMessage() + ". Please choose another seat.",
+                "Seat Unavailable",
+                JOptionPane.WARNING_MESSAGE);
+            app.navigateTo("seatSelection");
         } catch (Exception e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this,
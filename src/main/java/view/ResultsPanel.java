@@ -6,12 +6,17 @@ import java.awt.event.*;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 import model.*;
+import service.SearchService;
+import util.Log;
 
 /**
  * Results panel for displaying flight search results
  */
 public class ResultsPanel extends JPanel {
+    private static final Log LOG = Log.get(ResultsPanel.class);
+
     private FlightBookingApp parent;
     private JPanel resultsContainer;
     private ArrayList<Flight> flights;
@@ -85,44 +90,59 @@ public class ResultsPanel extends JPanel {
         
         // Clear previous results
         resultsContainer.removeAll();
+        JLabel searchingLabel = new JLabel("Searching flights...");
+        searchingLabel.setFont(new Font("Arial", Font.ITALIC, 14));
+        searchingLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        resultsContainer.add(searchingLabel);
+        resultsContainer.revalidate();
+        resultsContainer.repaint();
+        
+        String from = searchPanel.getFrom();
+        String to = searchPanel.getTo();
+        java.util.Date departDate = searchPanel.getDepartDate();
+        // Get flights based on search criteria and the details their cards show;
+        // a newer search drops this one's results
+        BackgroundTasks.submit("results.search", () -> loadCards(searchFlights(from, to, departDate)),
+            this::showResults,
+            e -> {
+                LOG.error("Error searching flights", e, "from", from, "to", to);
+                resultsContainer.removeAll();
+                resultsContainer.revalidate();
+                resultsContainer.repaint();
+                JOptionPane.showMessageDialog(this, 
+                    "Error searching flights: " + e.getMessage(), 
+                    "Database Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
+    private void showResults(ArrayList<FlightCard> cards) {
+        flights = new ArrayList<>(cards.size());
+        for (FlightCard card : cards) {
+            flights.add(card.flight());
+        }
+        resultsContainer.removeAll();
         
-        try {
-            // Get flights based on search criteria
-            flights = searchFlights(
-                searchPanel.getFrom(),
-                searchPanel.getTo(),
-                searchPanel.getDepartDate()
-            );
-            
-            if (flights.isEmpty()) {
-                // Show no results message
-                JLabel noResultsLabel = new JLabel("No flights found. Please try different search criteria.");
-                noResultsLabel.setFont(new Font("Arial", Font.ITALIC, 14));
-                noResultsLabel.setHorizontalAlignment(JLabel.CENTER);
-                noResultsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-                resultsContainer.add(Box.createVerticalGlue());
-                resultsContainer.add(noResultsLabel);
-                resultsContainer.add(Box.createVerticalGlue());
-            } else {
-                // Add flight cards
-                for (Flight flight : flights) {
-                    System.out.print(flight.getGate());
-                    resultsContainer.add(createFlightCard(flight));
-                    resultsContainer.add(Box.createRigidArea(new Dimension(0, 10)));
-                }
+        if (flights.isEmpty()) {
+            // Show no results message
+            JLabel noResultsLabel = new JLabel("No flights found. Please try different search criteria.");
+            noResultsLabel.setFont(new Font("Arial", Font.ITALIC, 14));
+            noResultsLabel.setHorizontalAlignment(JLabel.CENTER);
+            noResultsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            resultsContainer.add(Box.createVerticalGlue());
+            resultsContainer.add(noResultsLabel);
+            resultsContainer.add(Box.createVerticalGlue());
+        } else {
+            // Add flight cards
+            for (FlightCard card : cards) {
+                resultsContainer.add(createFlightCard(card));
+                resultsContainer.add(Box.createRigidArea(new Dimension(0, 10)));
             }
-            
-            // Refresh UI
-            resultsContainer.revalidate();
-            resultsContainer.repaint();
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, 
-                "Error searching flights: " + e.getMessage(), 
-                "Database Error", 
-                JOptionPane.ERROR_MESSAGE);
         }
+        
+        // Refresh UI
+        resultsContainer.revalidate();
+        resultsContainer.repaint();
     }
     
     private void updateSearchSummary() {
@@ -158,23 +178,60 @@ public class ResultsPanel extends JPanel {
     }
     
     private ArrayList<Flight> searchFlights(String from, String to, java.util.Date date) throws SQLException {
-        // Convert date to SQL date
-        java.sql.Date sqlDate = new java.sql.Date(date.getTime());
-        
-        // Get day of week
-        // int dayOfWeek = cal.get(java.util.Calendar.DAY_OF_WEEK);
-        LocalDate localDate = sqlDate.toLocalDate();
-        int dayOfWeek = localDate.getDayOfWeek().getValue();
-        // Convert to our DayOfWeek enum (1=Sunday in Calendar, but we need 0=SUNDAY in our enum)
-        DayOfWeek flightDay = DayOfWeek.values()[dayOfWeek];
+        LocalDate localDate = new java.sql.Date(date.getTime()).toLocalDate();
+        LOG.debug("Searching flights", "from", from, "to", to, "day", SearchService.dayOf(localDate));
         
-        // Search flights
-        System.out.println("start searching from code is "+from+"to code is "+to+"day is "+flightDay.name());
-        
-        return Flight.search(from, to, flightDay, sqlDate);
+        return SearchService.searchFlights(from, to, localDate);
     }
     
-    private JPanel createFlightCard(Flight flight) {
+    /**
+     * A flight with the related rows its card shows; the related rows are null if they
+     * could not be loaded
+     */
+    private record FlightCard(Flight flight, Airport departureAirport, Airport arrivalAirport,
+                              Aircraft aircraft, Airline airline, WeeklySchedule schedule) {}
+
+    /**
+     * Resolve the related rows of every flight, using what the search already loaded and
+     * fetching anything missing in parallel. Runs off the EDT.
+     */
+    private static ArrayList<FlightCard> loadCards(ArrayList<Flight> flights) {
+        ArrayList<CompletableFuture<FlightCard>> futures = new ArrayList<>(flights.size());
+        for (Flight flight : flights) {
+            CompletableFuture<Airport> depFuture = flight.getDepartureAirport() != null
+                ? CompletableFuture.completedFuture(flight.getDepartureAirport())
+                : AsyncDao.loadAirport(flight.getDepartureAirportId());
+            CompletableFuture<Airport> arrFuture = flight.getArrivalAirport() != null
+                ? CompletableFuture.completedFuture(flight.getArrivalAirport())
+                : AsyncDao.loadAirport(flight.getArrivalAirportId());
+            CompletableFuture<Aircraft> aircraftFuture = flight.getAircraft() != null
+                ? CompletableFuture.completedFuture(flight.getAircraft())
+                : AsyncDao.loadAircraft(flight.getAircraftId());
+            CompletableFuture<Airline> airlineFuture = flight.getAirline() != null
+                ? CompletableFuture.completedFuture(flight.getAirline())
+                : aircraftFuture.thenCompose(a -> AsyncDao.loadAirline(a.getAirlineId()));
+            CompletableFuture<WeeklySchedule> scheduleFuture = flight.getSchedule() != null
+                ? CompletableFuture.completedFuture(flight.getSchedule())
+                : AsyncDao.loadSchedule(flight.getFlightScheduleId());
+            futures.add(CompletableFuture.allOf(depFuture, arrFuture, aircraftFuture, airlineFuture, scheduleFuture)
+                .thenApply(_ -> new FlightCard(flight, depFuture.join(), arrFuture.join(), aircraftFuture.join(),
+                    airlineFuture.join(), scheduleFuture.join())));
+        }
+
+        ArrayList<FlightCard> cards = new ArrayList<>(flights.size());
+        for (int i = 0; i < flights.size(); i++) {
+            Flight flight = flights.get(i);
+            try {
+                cards.add(AsyncDao.await(futures.get(i)));
+            } catch (SQLException | RuntimeException e) {
+                LOG.error("Error loading flight details", e, "flight", flight.getId());
+                cards.add(new FlightCard(flight, null, null, null, null, null));
+            }
+        }
+        return cards;
+    }
+
+    private JPanel createFlightCard(FlightCard details) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -182,82 +239,80 @@ public class ResultsPanel extends JPanel {
             BorderFactory.createEmptyBorder(10, 10, 10, 10)
         ));
         
-        try {
-            // Get related data
-            Airport departureAirport = Airport.load(flight.getDepartureAirportId());
-            Airport arrivalAirport = Airport.load(flight.getArrivalAirportId());
-            Aircraft aircraft = Aircraft.load(flight.getAircraftId());
-            Airline airline = Airline.load(aircraft.getAirlineId());
-            WeeklySchedule schedule = WeeklySchedule.load(flight.getFlightScheduleId());
-            
-            // Flight info panel
-            JPanel infoPanel = new JPanel(new GridLayout(0, 1));
-            infoPanel.setBackground(Color.WHITE);
-            
-            // Airline and flight number
-            JLabel airlineLabel = new JLabel(airline.getName() + " - Flight #" + flight.getId());
-            airlineLabel.setFont(new Font("Arial", Font.BOLD, 14));
-            infoPanel.add(airlineLabel);
-            
-            // Route
-            JLabel routeLabel = new JLabel(departureAirport.getCode() + " → " + arrivalAirport.getCode());
-            routeLabel.setFont(new Font("Arial", Font.PLAIN, 16));
-            infoPanel.add(routeLabel);
-            
-            // Airports
-            JLabel airportsLabel = new JLabel(departureAirport.getName() + " to " + arrivalAirport.getName());
-            airportsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-            infoPanel.add(airportsLabel);
-            
-            // Schedule
-            JLabel scheduleLabel = new JLabel("Departure: " + schedule.getDepartureTime());
-            scheduleLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-            infoPanel.add(scheduleLabel);
-            
-            // Duration
-            String duration = flight.getDuration() != null ? 
-                (flight.getDuration() / 60) + "h " + (flight.getDuration() % 60) + "m" : 
-                "N/A";
-            JLabel durationLabel = new JLabel("Duration: " + duration);
-            durationLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-            infoPanel.add(durationLabel);
-            
-            // Aircraft
-            JLabel aircraftLabel = new JLabel("Aircraft: " + aircraft.getModel());
-            aircraftLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-            infoPanel.add(aircraftLabel);
-            
-            card.add(infoPanel, BorderLayout.CENTER);
-            
-            // Price and select button panel
-            JPanel actionPanel = new JPanel(new BorderLayout());
-            actionPanel.setBackground(Color.WHITE);
-            
-            // Price (would normally come from database)
-            double basePrice = 250.0;
-            double price = basePrice * (1 + (Math.random() * 0.5)); // Random variation
-            
-            JLabel priceLabel = new JLabel(String.format("$%.2f", price));
-            priceLabel.setFont(new Font("Arial", Font.BOLD, 18));
-            actionPanel.add(priceLabel, BorderLayout.NORTH);
-            
-            // Select button
-            JButton selectButton = new JButton("Select");
-            selectButton.setBackground(FlightBookingApp.PRIMARY_COLOR);
-            selectButton.setForeground(Color.BLACK);
-            selectButton.setFocusPainted(false);
-            selectButton.addActionListener(e -> selectFlight(flight, aircraft));
-            actionPanel.add(selectButton, BorderLayout.SOUTH);
-            
-            card.add(actionPanel, BorderLayout.EAST);
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
+        Flight flight = details.flight();
+        Airport departureAirport = details.departureAirport();
+        Airport arrivalAirport = details.arrivalAirport();
+        Aircraft aircraft = details.aircraft();
+        Airline airline = details.airline();
+        WeeklySchedule schedule = details.schedule();
+        if (departureAirport == null) {
             JLabel errorLabel = new JLabel("Error loading flight details");
             errorLabel.setForeground(Color.RED);
             card.add(errorLabel, BorderLayout.CENTER);
+            return card;
         }
         
+        // Flight info panel
+        JPanel infoPanel = new JPanel(new GridLayout(0, 1));
+        infoPanel.setBackground(Color.WHITE);
+        
+        // Airline and flight number
+        JLabel airlineLabel = new JLabel(airline.getName() + " - Flight #" + flight.getId());
+        airlineLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        infoPanel.add(airlineLabel);
+        
+        // Route
+        JLabel routeLabel = new JLabel(departureAirport.getCode() + " → " + arrivalAirport.getCode());
+        routeLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+        infoPanel.add(routeLabel);
+        
+        // Airports
+        JLabel airportsLabel = new JLabel(departureAirport.getName() + " to " + arrivalAirport.getName());
+        airportsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        infoPanel.add(airportsLabel);
+        
+        // Schedule
+        JLabel scheduleLabel = new JLabel("Departure: " + schedule.getDepartureTime());
+        scheduleLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        infoPanel.add(scheduleLabel);
+        
+        // Duration
+        String duration = flight.getDuration() != null ? 
+            (flight.getDuration() / 60) + "h " + (flight.getDuration() % 60) + "m" : 
+            "N/A";
+        JLabel durationLabel = new JLabel("Duration: " + duration);
+        durationLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        infoPanel.add(durationLabel);
+        
+        // Aircraft
+        JLabel aircraftLabel = new JLabel("Aircraft: " + aircraft.getModel());
+        aircraftLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        infoPanel.add(aircraftLabel);
+        
+        card.add(infoPanel, BorderLayout.CENTER);
+        
+        // Price and select button panel
+        JPanel actionPanel = new JPanel(new BorderLayout());
+        actionPanel.setBackground(Color.WHITE);
+        
+        // Price (would normally come from database)
+        double basePrice = 250.0;
+        double price = basePrice * (1 + (Math.random() * 0.5)); // Random variation
+        
+        JLabel priceLabel = new JLabel(String.format("$%.2f", price));
+        priceLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        actionPanel.add(priceLabel, BorderLayout.NORTH);
+        
+        // Select button
+        JButton selectButton = new JButton("Select");
+        selectButton.setBackground(FlightBookingApp.PRIMARY_COLOR);
+        selectButton.setForeground(Color.BLACK);
+        selectButton.setFocusPainted(false);
+        selectButton.addActionListener(e -> selectFlight(flight, aircraft));
+        actionPanel.add(selectButton, BorderLayout.SOUTH);
+        
+        card.add(actionPanel, BorderLayout.EAST);
+        
         return card;
     }
     
@@ -230,19 +230,19 @@ public class SearchPanel extends JPanel {
     private void updateDepartureAirports() {
         airportFromCombo.removeAllItems();
         Country selectedCountry = (Country) countryFromCombo.getSelectedItem();
-        if (selectedCountry != null) {
-            try {
-                departureAirports = selectedCountry.getAirports();
-                for (Airport airport : departureAirports) {
-                    airportFromCombo.addItem(airport);
-                }
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading departure airports: " + e.getMessage(), 
-                    "Database Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+        if (selectedCountry == null) {
+            BackgroundTasks.cancel("search.departureAirports");
+            return;
         }
+        BackgroundTasks.submit("search.departureAirports", selectedCountry::getAirports, airports -> {
+            departureAirports = airports;
+            for (Airport airport : airports) {
+                airportFromCombo.addItem(airport);
+            }
+        }, e -> JOptionPane.showMessageDialog(this, 
+                "Error loading departure airports: " + e.getMessage(), 
+                "Database Error", 
+                JOptionPane.ERROR_MESSAGE));
     }
     
     /**
@@ -251,19 +251,19 @@ public class SearchPanel extends JPanel {
     private void updateArrivalAirports() {
         airportToCombo.removeAllItems();
         Country selectedCountry = (Country) countryToCombo.getSelectedItem();
-        if (selectedCountry != null) {
-            try {
-                arrivalAirports = selectedCountry.getAirports();
-                for (Airport airport : arrivalAirports) {
-                    airportToCombo.addItem(airport);
-                }
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading arrival airports: " + e.getMessage(), 
-                    "Database Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+        if (selectedCountry == null) {
+            BackgroundTasks.cancel("search.arrivalAirports");
+            return;
         }
+        BackgroundTasks.submit("search.arrivalAirports", selectedCountry::getAirports, airports -> {
+            arrivalAirports = airports;
+            for (Airport airport : airports) {
+                airportToCombo.addItem(airport);
+            }
+        }, e -> JOptionPane.showMessageDialog(this, 
+                "Error loading arrival airports: " + e.getMessage(), 
+                "Database Error", 
+                JOptionPane.ERROR_MESSAGE));
     }
     
     /**
@@ -9,11 +9,16 @@ import java.util.List;
 import java.util.Map;
 import model.*;
 import util.DbConnection;
+import util.Log;
+import service.BookingService;
+import service.SearchService;
 
 /**
  * Panel for selecting seats for each passenger individually
  */
 public class SeatSelectionPanel extends JPanel {
+    private static final Log LOG = Log.get(SeatSelectionPanel.class);
+
     private FlightBookingApp app;
     private JPanel seatMapPanel;
     private JPanel passengerSelectionPanel;
@@ -218,35 +223,48 @@ public class SeatSelectionPanel extends JPanel {
      * Refresh the panel with current flight and passenger data
      */
     public void refresh() {
-        try {
-            System.out.println("Refreshing SeatSelectionPanel...");
-            System.out.println("Selected Flight: " + (app.getSelectedFlight() != null ? app.getSelectedFlight().getId() : "null"));
-            System.out.println("Selected Aircraft: " + (app.getSelectedAircraft() != null ? app.getSelectedAircraft().toString() : "null"));
-            passengerSeatMap.clear();
-            availableSeats = loadAvailableSeats();
-            System.out.println("Available Seats: " + availableSeats.size());
-            populatePassengerSelector();
-            createSeatMap();
-            if (passengerSelector.getItemCount() > 0) {
-                System.out.println("Setting default passenger selection");
-                passengerSelector.setSelectedIndex(0);
-                updateSeatSelectionForPassenger();
-            } else {
-                System.out.println("No passengers to select");
-                instructionLabel.setText("No passengers found. Please add passengers first.");
-                JOptionPane.showMessageDialog(this, 
-                    "No passengers found. Please add passengers in the Passenger Information section.", 
-                    "No Passengers", 
-                    JOptionPane.WARNING_MESSAGE);
-            }
-            updateSeatSummary();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Refreshing seat selection",
+                    "flight", app.getSelectedFlight() != null ? app.getSelectedFlight().getId() : null,
+                    "aircraft", app.getSelectedAircraft() != null ? app.getSelectedAircraft().getId() : null);
+        }
+        // Start over: drop any seats this session was holding
+        BookingService.releaseAll(app.getSessionId());
+        passengerSeatMap.clear();
+        instructionLabel.setText("Loading seats...");
+        Flight flight = app.getSelectedFlight();
+        Aircraft aircraft = app.getSelectedAircraft();
+        BackgroundTasks.submit("seats.load", () -> loadAvailableSeats(flight, aircraft), this::showSeats, e -> {
+            LOG.error("Error loading seats", e, "flight", flight.getId());
             JOptionPane.showMessageDialog(this, 
                 "Error loading seats: " + e.getMessage(), 
                 "Database Error", 
                 JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Build the seat map from freshly loaded seats
+     */
+    private void showSeats(List<Seat> seats) {
+        availableSeats = seats;
+        instructionLabel.setText("Please select a seat for each passenger");
+        populatePassengerSelector();
+        long start = System.nanoTime();
+        createSeatMap();
+        LOG.debug("Seat map built", "seats", availableSeats.size(), "ms", (System.nanoTime() - start) / 1e6);
+        if (passengerSelector.getItemCount() > 0) {
+            passengerSelector.setSelectedIndex(0);
+            updateSeatSelectionForPassenger();
+        } else {
+            LOG.debug("No passengers to select");
+            instructionLabel.setText("No passengers found. Please add passengers first.");
+            JOptionPane.showMessageDialog(this, 
+                "No passengers found. Please add passengers in the Passenger Information section.", 
+                "No Passengers", 
+                JOptionPane.WARNING_MESSAGE);
         }
+        updateSeatSummary();
     }
     
     /**
@@ -259,16 +277,14 @@ public class SeatSelectionPanel extends JPanel {
     private void populatePassengerSelector() {
         passengerSelector.removeAllItems();
         List<Passenger> passengers = app.getPassengers();
-        System.out.println("Populating passenger selector, passenger count: " + (passengers != null ? passengers.size() : "null"));
+        LOG.debug("Populating passenger selector", "passengers", passengers != null ? passengers.size() : null);
         if (passengers != null && !passengers.isEmpty()) {
             for (int i = 0; i < passengers.size(); i++) {
                 Passenger p = passengers.get(i);
                 String displayName = p.getName() + " (Passenger " + (i + 1) + ")";
-                System.out.println("Adding passenger to selector: " + displayName);
                 passengerSelector.addItem(displayName);
             }
         } else {
-            System.out.println("No passengers to populate in selector");
             instructionLabel.setText("No passengers found. Please add passengers first.");
         }
     }
@@ -289,13 +305,7 @@ private void createSeatMap() {
     seatMapPanel.removeAll();
     seatButtonMap.clear();
 
-    // Debug: Print available seats
-    System.out.println("DEBUG: Creating seat map with available seats:");
-    for (Seat seat : availableSeats) {
-        System.out.println("Available seat ID: " + seat.getId() + 
-                          ", Number: " + seat.getSeatNumber() + 
-                          ", Class: " + seat.getSeatClass());
-    }
+    boolean trace = LOG.isTraceEnabled();
 
     // Use FlowLayout to arrange seats
     seatMapPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 5, 5));
@@ -303,7 +313,9 @@ private void createSeatMap() {
     for (Seat seat : availableSeats) {
         String seatNum = seat.getSeatNumber(); // Expected format: "A1", "B2", etc.
 
-        System.out.println("DEBUG: Creating button for available seat: " + seatNum);
+        if (trace) {
+            LOG.trace("Seat button", "id", seat.getId(), "number", seatNum, "class", seat.getSeatClass());
+        }
 
         JToggleButton seatButton = new JToggleButton(seatNum);
         seatButton.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -314,6 +326,7 @@ private void createSeatMap() {
 
         // Store reference by seat ID
         seatButtonMap.put(seat.getId(), seatButton);
+        seatButton.setEnabled(!isHeldByOther(seat.getId()));
 
         // Add listener
         seatButton.addActionListener(e -> selectSeatForCurrentPassenger(seat, seatButton));
@@ -338,56 +351,13 @@ private String getSeatDisplayName(Seat seat) {
 /**
  * Load available seats for the selected flight
  */
-private List<Seat> loadAvailableSeats() throws SQLException {
-    List<Integer> takenSeatIds = new ArrayList<>();
-
-    // Debug the selected flight and aircraft
-    System.out.println("DEBUG: Loading available seats for flight: " + 
-                      (app.getSelectedFlight() != null ? app.getSelectedFlight().getId() : "null") +
-                      ", aircraft: " + 
-                      (app.getSelectedAircraft() != null ? app.getSelectedAircraft().getId() : "null"));
-
-    // Step 1: Fetch taken seat IDs
-    String sql = "SELECT seat_id FROM passenger_seat ps " +
-                 "JOIN flightReservation fr ON ps.flightReservation_id = fr.id " +
-                 "WHERE fr.flight_id = ?";
-    
-    try (Connection conn = DbConnection.getInstance();
-         PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setInt(1, app.getSelectedFlight().getId());
-
-        System.out.println("DEBUG: Executing SQL: " + sql.replace("?", String.valueOf(app.getSelectedFlight().getId())));
-        
-        try (ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                int seatId = rs.getInt("seat_id");
-                takenSeatIds.add(seatId);
-                System.out.println("DEBUG: Found taken seat ID: " + seatId);
-            }
-        }
-    }
-
-    // Step 2: Get all seats for the aircraft
-    List<Seat> seats = app.getSelectedAircraft().getSeats();
-    System.out.println("DEBUG: Total seats on aircraft: " + (seats != null ? seats.size() : "null"));
-    
-    // Step 3: Filter out taken seats
-    List<Seat> available = new ArrayList<>();
-    if (seats != null) {
-        for (Seat seat : seats) {
-            System.out.println("DEBUG: Checking seat ID: " + seat.getId() + 
-                              ", Number: " + seat.getSeatNumber() + 
-                              ", Is taken: " + takenSeatIds.contains(seat.getId()));
-            
-            if (!takenSeatIds.contains(seat.getId())) {
-                available.add(seat);
-                System.out.println("DEBUG: Adding available seat: " + seat.getId() + 
-                                  ", Number: " + seat.getSeatNumber());
-            }
-        }
-    }
-
-    return available;
+private List<Seat> loadAvailableSeats(Flight flight, Aircraft aircraft) throws SQLException {
+    long start = System.nanoTime();
+    List<Seat> seats = SearchService.getAvailableSeats(flight, aircraft);
+    LOG.debug("Loaded available seats", "flight", flight != null ? flight.getId() : null,
+            "aircraft", aircraft != null ? aircraft.getId() : null, "free", seats.size(),
+            "ms", (System.nanoTime() - start) / 1e6);
+    return seats;
 }
     
     /**
@@ -437,13 +407,21 @@ private List<Seat> loadAvailableSeats() throws SQLException {
      * Reset all seat buttons to their default state
      */
     private void resetSeatButtonsToDefault() {
-        for (JToggleButton button : seatButtonMap.values()) {
+        for (Map.Entry<Integer, JToggleButton> entry : seatButtonMap.entrySet()) {
+            JToggleButton button = entry.getValue();
             button.setSelected(false);
             button.setBackground(Color.WHITE);
             button.setForeground(Color.BLACK);
-            button.setEnabled(true);
+            button.setEnabled(!isHeldByOther(entry.getKey()));
         }
     }
+
+    /**
+     * Check whether another customer is currently holding a seat on the selected flight
+     */
+    private boolean isHeldByOther(int seatId) {
+        return SeatHoldService.isHeldByOther(app.getSelectedFlight().getId(), seatId, app.getSessionId());
+    }
     
     /**
      * Select a seat for the currently selected passenger
@@ -452,11 +430,26 @@ private List<Seat> loadAvailableSeats() throws SQLException {
         int passengerIndex = passengerSelector.getSelectedIndex();
         if (passengerIndex == -1) return;
         
+        int flightId = app.getSelectedFlight().getId();
+
         // If button is selected, assign seat to passenger
         if (button.isSelected()) {
+            // Hold the seat so no one else can pick it while this booking is in progress
+            if (!BookingService.holdSeat(flightId, seat.getId(), app.getSessionId())) {
+                button.setSelected(false);
+                button.setEnabled(false);
+                JOptionPane.showMessageDialog(this,
+                    "Seat " + getSeatDisplayName(seat) + " was just selected by another customer.",
+                    "Seat Unavailable",
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+
             // Remove any previous seat assignment for this passenger
             Seat previousSeat = passengerSeatMap.get(passengerIndex);
-            if (previousSeat != null) {
+            if (previousSeat != null && previousSeat.getId() != seat.getId()) {
+                // Release the hold even if the seat has no button any more, e.g. after a reload
+                BookingService.releaseSeat(flightId, previousSeat.getId(), app.getSessionId());
                 JToggleButton prevButton = seatButtonMap.get(previousSeat.getId());
                 if (prevButton != null && prevButton != button) {
                     prevButton.setSelected(false);
@@ -473,6 +466,7 @@ private List<Seat> loadAvailableSeats() throws SQLException {
         } else {
             // Unassign seat
             passengerSeatMap.remove(passengerIndex);
+            BookingService.releaseSeat(flightId, seat.getId(), app.getSessionId());
             button.setBackground(Color.WHITE);
             button.setForeground(Color.BLACK);
             selectedSeatLabel.setText("Selected Seat: None");